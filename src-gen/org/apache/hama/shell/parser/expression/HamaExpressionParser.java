@@ -0,0 +1,718 @@
+/* Generated By:JJTree&JavaCC: Do not edit this line. HamaExpressionParser.java */
+package org.apache.hama.shell.parser.expression;
+
+import java.io.*;
+
+import org.apache.hama.HamaConfiguration;
+import org.apache.hama.shell.HamaShellEnv;
+import org.apache.hama.shell.execution.HamaExpression;
+import org.apache.hama.shell.execution.EvalExpression;
+import org.apache.hama.shell.execution.SaveExpression;
+import org.apache.hama.shell.execution.AlgebraOperation;
+import org.apache.hama.shell.execution.HamaOperation;
+import org.apache.hama.shell.execution.LoadOperation;
+import org.apache.hama.shell.execution.RandMatrixOperation;
+import org.apache.hama.shell.execution.AlgebraOperator;
+
+/** An Expression Grammar. */
+public class HamaExpressionParser/*@bgen(jjtree)*/implements HamaExpressionParserTreeConstants, HamaExpressionParserConstants {/*@bgen(jjtree)*/
+  protected JJTHamaExpressionParserState jjtree = new JJTHamaExpressionParserState();
+  private HamaShellEnv shellEnv;
+  private HamaConfiguration conf;
+
+  public HamaExpressionParser(InputStream in, HamaShellEnv env, HamaConfiguration conf) {
+        this(in);
+        this.shellEnv = env;
+        this.conf = conf;
+  }
+
+/** Main production. */
+  final public HamaExpression Start() throws ParseException {
+                          /*@bgen(jjtree) Start */
+                          SimpleNode jjtn000 = new SimpleNode(JJTSTART);
+                          boolean jjtc000 = true;
+                          jjtree.openNodeScope(jjtn000);HamaExpression expression = null;
+    try {
+      try {
+        expression = Expression();
+        jj_consume_token(26);
+      } catch (TokenMgrError e) {
+        System.err.println(e.toString());
+        // skip all the left tokens when an TokenMgrError happened.
+        // it is a tricky.  maybe not good enough.
+        Token t;
+        do {
+      t = getNextToken();
+    } while (t!=null);
+
+        expression = null;
+      } catch (ParseException pe) {
+        System.err.println(pe.toString());
+
+        expression = null;
+      } finally {
+        {if (true) return expression;}
+      }
+    } catch (Throwable jjte000) {
+    if (jjtc000) {
+      jjtree.clearNodeScope(jjtn000);
+      jjtc000 = false;
+    } else {
+      jjtree.popNode();
+    }
+    if (jjte000 instanceof RuntimeException) {
+      {if (true) throw (RuntimeException)jjte000;}
+    }
+    if (jjte000 instanceof ParseException) {
+      {if (true) throw (ParseException)jjte000;}
+    }
+    {if (true) throw (Error)jjte000;}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+/** An Expression. */
+  final public HamaExpression Expression() throws ParseException {
+                               /*@bgen(jjtree) Expression */
+                               SimpleNode jjtn000 = new SimpleNode(JJTEXPRESSION);
+                               boolean jjtc000 = true;
+                               jjtree.openNodeScope(jjtn000);boolean isMapNumSet = false; boolean isReduceNumSet = false; HamaExpression expression = null; Token t1, t2, t3; Object value; String filename; HamaOperation operation;
+    try {
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case IDENTIFIER:
+        t3 = jj_consume_token(IDENTIFIER);
+        jj_consume_token(27);
+        operation = BasicOperation();
+        switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+        case MAP:
+          jj_consume_token(MAP);
+          t1 = jj_consume_token(INTEGER);
+                operation.setNumMapTasks(Integer.valueOf(t1.image));
+                isMapNumSet = true;
+          break;
+        default:
+          jj_la1[0] = jj_gen;
+          ;
+        }
+        switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+        case REDUCE:
+          jj_consume_token(REDUCE);
+          t2 = jj_consume_token(INTEGER);
+                operation.setNumReduceTasks(Integer.valueOf(t2.image));
+                isReduceNumSet = true;
+          break;
+        default:
+          jj_la1[1] = jj_gen;
+          ;
+        }
+        if(!isMapNumSet)
+          operation.setNumMapTasks(HamaShellEnv.DEFAULT_MAP_NUM);
+        if(!isReduceNumSet)
+          operation.setNumReduceTasks(HamaShellEnv.DEFAULT_REDUCE_NUM);
+        expression = new EvalExpression(conf, shellEnv, t3.image, operation);
+        break;
+      case SAVE:
+        jj_consume_token(SAVE);
+        value = AliaseName();
+        jj_consume_token(AS);
+        filename = FileName();
+    expression = new SaveExpression(conf, shellEnv, value, filename);
+        break;
+      default:
+        jj_la1[2] = jj_gen;
+        jj_consume_token(-1);
+        throw new ParseException();
+      }
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+    {if (true) return expression;}
+    } catch (Throwable jjte000) {
+    if (jjtc000) {
+      jjtree.clearNodeScope(jjtn000);
+      jjtc000 = false;
+    } else {
+      jjtree.popNode();
+    }
+    if (jjte000 instanceof RuntimeException) {
+      {if (true) throw (RuntimeException)jjte000;}
+    }
+    if (jjte000 instanceof ParseException) {
+      {if (true) throw (ParseException)jjte000;}
+    }
+    {if (true) throw (Error)jjte000;}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+/** An Basic Operation. */
+  final public HamaOperation BasicOperation() throws ParseException {
+                                  /*@bgen(jjtree) BasicOperation */
+                                  SimpleNode jjtn000 = new SimpleNode(JJTBASICOPERATION);
+                                  boolean jjtc000 = true;
+                                  jjtree.openNodeScope(jjtn000);HamaOperation operation;
+    try {
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case IDENTIFIER:
+      case 28:
+        operation = AlgebraOp();
+        break;
+      case LOAD:
+        operation = LoadOp();
+        break;
+      case RANDOMMATRIX:
+        operation = RandMatrixOp();
+        break;
+      default:
+        jj_la1[3] = jj_gen;
+        jj_consume_token(-1);
+        throw new ParseException();
+      }
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+    {if (true) return operation;}
+    } catch (Throwable jjte000) {
+    if (jjtc000) {
+      jjtree.clearNodeScope(jjtn000);
+      jjtc000 = false;
+    } else {
+      jjtree.popNode();
+    }
+    if (jjte000 instanceof RuntimeException) {
+      {if (true) throw (RuntimeException)jjte000;}
+    }
+    if (jjte000 instanceof ParseException) {
+      {if (true) throw (ParseException)jjte000;}
+    }
+    {if (true) throw (Error)jjte000;}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+/** A Load Operation. */
+  final public HamaOperation LoadOp() throws ParseException {
+                          /*@bgen(jjtree) LoadOp */
+                          SimpleNode jjtn000 = new SimpleNode(JJTLOADOP);
+                          boolean jjtc000 = true;
+                          jjtree.openNodeScope(jjtn000);String filename; String typename; String classname;
+    try {
+      jj_consume_token(LOAD);
+      filename = FileName();
+      jj_consume_token(AS);
+      typename = TypeName();
+      jj_consume_token(USING);
+      classname = ClassName();
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+    {if (true) return new LoadOperation(conf, filename, typename, classname);}
+    } catch (Throwable jjte000) {
+    if (jjtc000) {
+      jjtree.clearNodeScope(jjtn000);
+      jjtc000 = false;
+    } else {
+      jjtree.popNode();
+    }
+    if (jjte000 instanceof RuntimeException) {
+      {if (true) throw (RuntimeException)jjte000;}
+    }
+    if (jjte000 instanceof ParseException) {
+      {if (true) throw (ParseException)jjte000;}
+    }
+    {if (true) throw (Error)jjte000;}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+/** A RandomMatrix Generation Operation. */
+  final public HamaOperation RandMatrixOp() throws ParseException {
+                                /*@bgen(jjtree) RandMatrixOp */
+                                 SimpleNode jjtn000 = new SimpleNode(JJTRANDMATRIXOP);
+                                 boolean jjtc000 = true;
+                                 jjtree.openNodeScope(jjtn000);Token t1, t2;
+    try {
+      jj_consume_token(RANDOMMATRIX);
+      t1 = jj_consume_token(INTEGER);
+      t2 = jj_consume_token(INTEGER);
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+        {if (true) return new RandMatrixOperation(conf, Integer.valueOf(t1.image), Integer.valueOf(t2.image));}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+/** An Operation Operation. */
+  final public HamaOperation AlgebraOp() throws ParseException {
+                             /*@bgen(jjtree) AlgebraOp */
+                             SimpleNode jjtn000 = new SimpleNode(JJTALGEBRAOP);
+                             boolean jjtc000 = true;
+                             jjtree.openNodeScope(jjtn000);AlgebraOperator op;
+    try {
+      op = AdditiveOp();
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+        {if (true) return new AlgebraOperation(conf, op);}
+    } catch (Throwable jjte000) {
+    if (jjtc000) {
+      jjtree.clearNodeScope(jjtn000);
+      jjtc000 = false;
+    } else {
+      jjtree.popNode();
+    }
+    if (jjte000 instanceof RuntimeException) {
+      {if (true) throw (RuntimeException)jjte000;}
+    }
+    if (jjte000 instanceof ParseException) {
+      {if (true) throw (ParseException)jjte000;}
+    }
+    {if (true) throw (Error)jjte000;}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+/** An Additive Operation. */
+  final public AlgebraOperator AdditiveOp() throws ParseException {
+                                /*@bgen(jjtree) AdditiveOp */
+                                SimpleNode jjtn000 = new SimpleNode(JJTADDITIVEOP);
+                                boolean jjtc000 = true;
+                                jjtree.openNodeScope(jjtn000);AlgebraOperator op, op1, op2; Token t;
+    try {
+      op1 = MultiplicativeOp();
+                             op = new AlgebraOperator(op1, shellEnv);
+      label_1:
+      while (true) {
+        switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+        case ADDOP:
+          ;
+          break;
+        default:
+          jj_la1[4] = jj_gen;
+          break label_1;
+        }
+        t = jj_consume_token(ADDOP);
+        op2 = MultiplicativeOp();
+                                                                                                                op.addOpAndOperand(t.image, op2);
+      }
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+        {if (true) return op;}
+    } catch (Throwable jjte000) {
+    if (jjtc000) {
+      jjtree.clearNodeScope(jjtn000);
+      jjtc000 = false;
+    } else {
+      jjtree.popNode();
+    }
+    if (jjte000 instanceof RuntimeException) {
+      {if (true) throw (RuntimeException)jjte000;}
+    }
+    if (jjte000 instanceof ParseException) {
+      {if (true) throw (ParseException)jjte000;}
+    }
+    {if (true) throw (Error)jjte000;}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+/** A Multiplicative Operation. */
+  final public AlgebraOperator MultiplicativeOp() throws ParseException {
+                                      /*@bgen(jjtree) MultiplicativeOp */
+                                      SimpleNode jjtn000 = new SimpleNode(JJTMULTIPLICATIVEOP);
+                                      boolean jjtc000 = true;
+                                      jjtree.openNodeScope(jjtn000);AlgebraOperator op, op1, op2; Token t;
+    try {
+      op1 = UnaryOp();
+                    op = new AlgebraOperator(op1, shellEnv);
+      label_2:
+      while (true) {
+        switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+        case MULOP:
+          ;
+          break;
+        default:
+          jj_la1[5] = jj_gen;
+          break label_2;
+        }
+        t = jj_consume_token(MULOP);
+        op2 = UnaryOp();
+                                                                                             op.addOpAndOperand(t.image, op2);
+      }
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+        {if (true) return op;}
+    } catch (Throwable jjte000) {
+    if (jjtc000) {
+      jjtree.clearNodeScope(jjtn000);
+      jjtc000 = false;
+    } else {
+      jjtree.popNode();
+    }
+    if (jjte000 instanceof RuntimeException) {
+      {if (true) throw (RuntimeException)jjte000;}
+    }
+    if (jjte000 instanceof ParseException) {
+      {if (true) throw (ParseException)jjte000;}
+    }
+    {if (true) throw (Error)jjte000;}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+/** A Unary Operation. */
+  final public AlgebraOperator UnaryOp() throws ParseException {
+                             /*@bgen(jjtree) UnaryOp */
+                             SimpleNode jjtn000 = new SimpleNode(JJTUNARYOP);
+                             boolean jjtc000 = true;
+                             jjtree.openNodeScope(jjtn000);AlgebraOperator op; Object b;
+    try {
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case 28:
+        jj_consume_token(28);
+        op = AdditiveOp();
+        jj_consume_token(29);
+        break;
+      case IDENTIFIER:
+        b = AliaseName();
+                     op = new AlgebraOperator(b, shellEnv);
+        break;
+      default:
+        jj_la1[6] = jj_gen;
+        jj_consume_token(-1);
+        throw new ParseException();
+      }
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+        {if (true) return op;}
+    } catch (Throwable jjte000) {
+    if (jjtc000) {
+      jjtree.clearNodeScope(jjtn000);
+      jjtc000 = false;
+    } else {
+      jjtree.popNode();
+    }
+    if (jjte000 instanceof RuntimeException) {
+      {if (true) throw (RuntimeException)jjte000;}
+    }
+    if (jjte000 instanceof ParseException) {
+      {if (true) throw (ParseException)jjte000;}
+    }
+    {if (true) throw (Error)jjte000;}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+// A reference to an alias
+  final public Object AliaseName() throws ParseException {
+                       /*@bgen(jjtree) AliaseName */
+                       SimpleNode jjtn000 = new SimpleNode(JJTALIASENAME);
+                       boolean jjtc000 = true;
+                       jjtree.openNodeScope(jjtn000);Token t; Object value;
+    try {
+      t = jj_consume_token(IDENTIFIER);
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+        String alias = t.image;
+
+        value = shellEnv.getAliase(alias);
+        if ((value = shellEnv.getAliase(alias)) == null) {
+                StringBuilder msg = new StringBuilder();
+                msg.append("Unable to find alias: '");
+                msg.append(alias);
+                msg.append("' - Hama Shell Aliases: '");
+                for (String tmpAlias : shellEnv.getAliases().keySet()) {
+                        msg.append(tmpAlias);
+                        msg.append(",");
+                }
+                msg.append("'");
+                {if (true) throw new ParseException(msg.toString());}
+        }
+
+        {if (true) return value;}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+/** A Typename. */
+  final public String TypeName() throws ParseException {
+                     /*@bgen(jjtree) TypeName */
+                     SimpleNode jjtn000 = new SimpleNode(JJTTYPENAME);
+                     boolean jjtc000 = true;
+                     jjtree.openNodeScope(jjtn000);Token t;
+    try {
+      t = jj_consume_token(TYPE);
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+        {if (true) return t.image;}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+/** A Filename. */
+  final public String FileName() throws ParseException {
+                     /*@bgen(jjtree) FileName */
+                     SimpleNode jjtn000 = new SimpleNode(JJTFILENAME);
+                     boolean jjtc000 = true;
+                     jjtree.openNodeScope(jjtn000);Token t; String filename;
+    try {
+      t = jj_consume_token(QUOTEDSTRING);
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+        filename=t.image.substring(t.image.indexOf("'") + 1, t.image.lastIndexOf("'"));
+        {if (true) return filename;}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+/** A ClassName. */
+  final public String ClassName() throws ParseException {
+                      /*@bgen(jjtree) ClassName */
+                      SimpleNode jjtn000 = new SimpleNode(JJTCLASSNAME);
+                      boolean jjtc000 = true;
+                      jjtree.openNodeScope(jjtn000);Token t; String classname;
+    try {
+      t = jj_consume_token(QUOTEDSTRING);
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+        classname=t.image.substring(t.image.indexOf("'") + 1, t.image.lastIndexOf("'"));
+        {if (true) return classname;}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+/** A Constant. */
+  final public Double Constant() throws ParseException {
+                     /*@bgen(jjtree) Constant */
+                     SimpleNode jjtn000 = new SimpleNode(JJTCONSTANT);
+                     boolean jjtc000 = true;
+                     jjtree.openNodeScope(jjtn000);Token t;
+    try {
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case INTEGER:
+        t = jj_consume_token(INTEGER);
+        break;
+      case NUMBER:
+        t = jj_consume_token(NUMBER);
+        break;
+      default:
+        jj_la1[7] = jj_gen;
+        jj_consume_token(-1);
+        throw new ParseException();
+      }
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+        {if (true) return Double.valueOf(t.image);}
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+    throw new Error("Missing return statement in function");
+  }
+
+  public HamaExpressionParserTokenManager token_source;
+  SimpleCharStream jj_input_stream;
+  public Token token, jj_nt;
+  private int jj_ntk;
+  private int jj_gen;
+  final private int[] jj_la1 = new int[8];
+  static private int[] jj_la1_0;
+  static {
+      jj_la1_0();
+   }
+   private static void jj_la1_0() {
+      jj_la1_0 = new int[] {0x1000,0x2000,0x200100,0x10210080,0x4000,0x8000,0x10200000,0xc00000,};
+   }
+
+  public HamaExpressionParser(java.io.InputStream stream) {
+     this(stream, null);
+  }
+  public HamaExpressionParser(java.io.InputStream stream, String encoding) {
+    try { jj_input_stream = new SimpleCharStream(stream, encoding, 1, 1); } catch(java.io.UnsupportedEncodingException e) { throw new RuntimeException(e); }
+    token_source = new HamaExpressionParserTokenManager(jj_input_stream);
+    token = new Token();
+    jj_ntk = -1;
+    jj_gen = 0;
+    for (int i = 0; i < 8; i++) jj_la1[i] = -1;
+  }
+
+  public void ReInit(java.io.InputStream stream) {
+     ReInit(stream, null);
+  }
+  public void ReInit(java.io.InputStream stream, String encoding) {
+    try { jj_input_stream.ReInit(stream, encoding, 1, 1); } catch(java.io.UnsupportedEncodingException e) { throw new RuntimeException(e); }
+    token_source.ReInit(jj_input_stream);
+    token = new Token();
+    jj_ntk = -1;
+    jjtree.reset();
+    jj_gen = 0;
+    for (int i = 0; i < 8; i++) jj_la1[i] = -1;
+  }
+
+  public HamaExpressionParser(java.io.Reader stream) {
+    jj_input_stream = new SimpleCharStream(stream, 1, 1);
+    token_source = new HamaExpressionParserTokenManager(jj_input_stream);
+    token = new Token();
+    jj_ntk = -1;
+    jj_gen = 0;
+    for (int i = 0; i < 8; i++) jj_la1[i] = -1;
+  }
+
+  public void ReInit(java.io.Reader stream) {
+    jj_input_stream.ReInit(stream, 1, 1);
+    token_source.ReInit(jj_input_stream);
+    token = new Token();
+    jj_ntk = -1;
+    jjtree.reset();
+    jj_gen = 0;
+    for (int i = 0; i < 8; i++) jj_la1[i] = -1;
+  }
+
+  public HamaExpressionParser(HamaExpressionParserTokenManager tm) {
+    token_source = tm;
+    token = new Token();
+    jj_ntk = -1;
+    jj_gen = 0;
+    for (int i = 0; i < 8; i++) jj_la1[i] = -1;
+  }
+
+  public void ReInit(HamaExpressionParserTokenManager tm) {
+    token_source = tm;
+    token = new Token();
+    jj_ntk = -1;
+    jjtree.reset();
+    jj_gen = 0;
+    for (int i = 0; i < 8; i++) jj_la1[i] = -1;
+  }
+
+  final private Token jj_consume_token(int kind) throws ParseException {
+    Token oldToken;
+    if ((oldToken = token).next != null) token = token.next;
+    else token = token.next = token_source.getNextToken();
+    jj_ntk = -1;
+    if (token.kind == kind) {
+      jj_gen++;
+      return token;
+    }
+    token = oldToken;
+    jj_kind = kind;
+    throw generateParseException();
+  }
+
+  final public Token getNextToken() {
+    if (token.next != null) token = token.next;
+    else token = token.next = token_source.getNextToken();
+    jj_ntk = -1;
+    jj_gen++;
+    return token;
+  }
+
+  final public Token getToken(int index) {
+    Token t = token;
+    for (int i = 0; i < index; i++) {
+      if (t.next != null) t = t.next;
+      else t = t.next = token_source.getNextToken();
+    }
+    return t;
+  }
+
+  final private int jj_ntk() {
+    if ((jj_nt=token.next) == null)
+      return (jj_ntk = (token.next=token_source.getNextToken()).kind);
+    else
+      return (jj_ntk = jj_nt.kind);
+  }
+
+  private java.util.Vector jj_expentries = new java.util.Vector();
+  private int[] jj_expentry;
+  private int jj_kind = -1;
+
+  public ParseException generateParseException() {
+    jj_expentries.removeAllElements();
+    boolean[] la1tokens = new boolean[30];
+    for (int i = 0; i < 30; i++) {
+      la1tokens[i] = false;
+    }
+    if (jj_kind >= 0) {
+      la1tokens[jj_kind] = true;
+      jj_kind = -1;
+    }
+    for (int i = 0; i < 8; i++) {
+      if (jj_la1[i] == jj_gen) {
+        for (int j = 0; j < 32; j++) {
+          if ((jj_la1_0[i] & (1<<j)) != 0) {
+            la1tokens[j] = true;
+          }
+        }
+      }
+    }
+    for (int i = 0; i < 30; i++) {
+      if (la1tokens[i]) {
+        jj_expentry = new int[1];
+        jj_expentry[0] = i;
+        jj_expentries.addElement(jj_expentry);
+      }
+    }
+    int[][] exptokseq = new int[jj_expentries.size()][];
+    for (int i = 0; i < jj_expentries.size(); i++) {
+      exptokseq[i] = (int[])jj_expentries.elementAt(i);
+    }
+    return new ParseException(token, exptokseq, tokenImage);
+  }
+
+  final public void enable_tracing() {
+  }
+
+  final public void disable_tracing() {
+  }
+
+}
@@ -0,0 +1,62 @@
+/* Generated By:JJTree&JavaCC: Do not edit this line. HamaExpressionParserConstants.java */
+package org.apache.hama.shell.parser.expression;
+
+public interface HamaExpressionParserConstants {
+
+  int EOF = 0;
+  int LOAD = 7;
+  int SAVE = 8;
+  int USING = 9;
+  int AS = 10;
+  int TYPE = 11;
+  int MAP = 12;
+  int REDUCE = 13;
+  int ADDOP = 14;
+  int MULOP = 15;
+  int RANDOMMATRIX = 16;
+  int LETTER = 17;
+  int DIGIT = 18;
+  int SPECIALCHAR = 19;
+  int FSSPECIALCHAR = 20;
+  int IDENTIFIER = 21;
+  int INTEGER = 22;
+  int NUMBER = 23;
+  int FLOAT = 24;
+  int QUOTEDSTRING = 25;
+
+  int DEFAULT = 0;
+
+  String[] tokenImage = {
+    "<EOF>",
+    "\" \"",
+    "\"\\t\"",
+    "\"\\n\"",
+    "\"\\r\"",
+    "<token of kind 5>",
+    "<token of kind 6>",
+    "\"load\"",
+    "\"save\"",
+    "\"using\"",
+    "\"as\"",
+    "\"matrix\"",
+    "\"map\"",
+    "\"reduce\"",
+    "<ADDOP>",
+    "\"*\"",
+    "\"Matrix.Random\"",
+    "<LETTER>",
+    "<DIGIT>",
+    "<SPECIALCHAR>",
+    "<FSSPECIALCHAR>",
+    "<IDENTIFIER>",
+    "<INTEGER>",
+    "<NUMBER>",
+    "<FLOAT>",
+    "<QUOTEDSTRING>",
+    "\";\"",
+    "\"=\"",
+    "\"(\"",
+    "\")\"",
+  };
+
+}
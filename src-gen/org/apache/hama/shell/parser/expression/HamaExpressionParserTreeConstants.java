@@ -0,0 +1,39 @@
+/* Generated By:JJTree: Do not edit this line. /root/project/src-gen/org/apache/hama/shell/parser/expression/HamaExpressionParserTreeConstants.java */
+
+package org.apache.hama.shell.parser.expression;
+
+public interface HamaExpressionParserTreeConstants
+{
+  public int JJTSTART = 0;
+  public int JJTEXPRESSION = 1;
+  public int JJTBASICOPERATION = 2;
+  public int JJTLOADOP = 3;
+  public int JJTRANDMATRIXOP = 4;
+  public int JJTALGEBRAOP = 5;
+  public int JJTADDITIVEOP = 6;
+  public int JJTMULTIPLICATIVEOP = 7;
+  public int JJTUNARYOP = 8;
+  public int JJTALIASENAME = 9;
+  public int JJTTYPENAME = 10;
+  public int JJTFILENAME = 11;
+  public int JJTCLASSNAME = 12;
+  public int JJTCONSTANT = 13;
+
+
+  public String[] jjtNodeName = {
+    "Start",
+    "Expression",
+    "BasicOperation",
+    "LoadOp",
+    "RandMatrixOp",
+    "AlgebraOp",
+    "AdditiveOp",
+    "MultiplicativeOp",
+    "UnaryOp",
+    "AliaseName",
+    "TypeName",
+    "FileName",
+    "ClassName",
+    "Constant",
+  };
+}
@@ -0,0 +1,232 @@
+/* Generated By:JavaCC: Do not edit this line. HamaScriptParser.java */
+package org.apache.hama.shell.parser.script;
+
+import java.io.IOException;
+
+/** a hama script parser to used in hama shell */
+public abstract class HamaScriptParser implements HamaScriptParserConstants {
+        protected boolean mInteractive;
+
+        public void setInteractive(boolean interactive)
+        {
+                mInteractive = interactive;
+                token_source.interactive = interactive;
+        }
+
+        abstract public void prompt();
+
+        abstract protected void quit();
+
+        abstract protected void printHelp();
+
+        abstract protected void processScript(String cmd) throws IOException;
+
+  final public void parse() throws ParseException, IOException {
+        Token t1;
+    switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+    case EOL:
+      jj_consume_token(EOL);
+         prompt();
+      break;
+    case HELP:
+      jj_consume_token(HELP);
+         printHelp();
+      break;
+    case HAMA:
+      t1 = jj_consume_token(HAMA);
+         processScript(t1.image);
+      break;
+    case QUIT:
+      jj_consume_token(QUIT);
+         quit();
+      break;
+    case 0:
+      jj_consume_token(0);
+         quit();
+      break;
+    default:
+      jj_la1[0] = jj_gen;
+      handle_invalid_command(EOL);
+         prompt();
+    }
+  }
+
+  void handle_invalid_command(int kind) throws ParseException {
+        ParseException e = generateParseException();  // generate the exception object.
+
+        if (mInteractive) {
+                printGuide();
+
+                Token t = getNextToken();
+
+                while (t.kind != kind)
+                        t = getNextToken();
+        } else {
+                throw e;
+        }
+  }
+
+  private void printGuide() throws ParseException {
+        System.out.println("HAMA V1.0 SHELL COMMANDS");
+    System.out.println("all the supported commands in hama shell will be:");
+    System.out.println("'<hama expression> ;',");
+    System.out.println("'quit',");
+    System.out.println("'help'.");
+    System.out.println();
+    System.out.println("Try type 'help' to see details.");
+  }
+
+  public HamaScriptParserTokenManager token_source;
+  SimpleCharStream jj_input_stream;
+  public Token token, jj_nt;
+  private int jj_ntk;
+  private int jj_gen;
+  final private int[] jj_la1 = new int[1];
+  static private int[] jj_la1_0;
+  static {
+      jj_la1_0();
+   }
+   private static void jj_la1_0() {
+      jj_la1_0 = new int[] {0xc19,};
+   }
+
+  public HamaScriptParser(java.io.InputStream stream) {
+     this(stream, null);
+  }
+  public HamaScriptParser(java.io.InputStream stream, String encoding) {
+    try { jj_input_stream = new SimpleCharStream(stream, encoding, 1, 1); } catch(java.io.UnsupportedEncodingException e) { throw new RuntimeException(e); }
+    token_source = new HamaScriptParserTokenManager(jj_input_stream);
+    token = new Token();
+    jj_ntk = -1;
+    jj_gen = 0;
+    for (int i = 0; i < 1; i++) jj_la1[i] = -1;
+  }
+
+  public void ReInit(java.io.InputStream stream) {
+     ReInit(stream, null);
+  }
+  public void ReInit(java.io.InputStream stream, String encoding) {
+    try { jj_input_stream.ReInit(stream, encoding, 1, 1); } catch(java.io.UnsupportedEncodingException e) { throw new RuntimeException(e); }
+    token_source.ReInit(jj_input_stream);
+    token = new Token();
+    jj_ntk = -1;
+    jj_gen = 0;
+    for (int i = 0; i < 1; i++) jj_la1[i] = -1;
+  }
+
+  public HamaScriptParser(java.io.Reader stream) {
+    jj_input_stream = new SimpleCharStream(stream, 1, 1);
+    token_source = new HamaScriptParserTokenManager(jj_input_stream);
+    token = new Token();
+    jj_ntk = -1;
+    jj_gen = 0;
+    for (int i = 0; i < 1; i++) jj_la1[i] = -1;
+  }
+
+  public void ReInit(java.io.Reader stream) {
+    jj_input_stream.ReInit(stream, 1, 1);
+    token_source.ReInit(jj_input_stream);
+    token = new Token();
+    jj_ntk = -1;
+    jj_gen = 0;
+    for (int i = 0; i < 1; i++) jj_la1[i] = -1;
+  }
+
+  public HamaScriptParser(HamaScriptParserTokenManager tm) {
+    token_source = tm;
+    token = new Token();
+    jj_ntk = -1;
+    jj_gen = 0;
+    for (int i = 0; i < 1; i++) jj_la1[i] = -1;
+  }
+
+  public void ReInit(HamaScriptParserTokenManager tm) {
+    token_source = tm;
+    token = new Token();
+    jj_ntk = -1;
+    jj_gen = 0;
+    for (int i = 0; i < 1; i++) jj_la1[i] = -1;
+  }
+
+  final private Token jj_consume_token(int kind) throws ParseException {
+    Token oldToken;
+    if ((oldToken = token).next != null) token = token.next;
+    else token = token.next = token_source.getNextToken();
+    jj_ntk = -1;
+    if (token.kind == kind) {
+      jj_gen++;
+      return token;
+    }
+    token = oldToken;
+    jj_kind = kind;
+    throw generateParseException();
+  }
+
+  final public Token getNextToken() {
+    if (token.next != null) token = token.next;
+    else token = token.next = token_source.getNextToken();
+    jj_ntk = -1;
+    jj_gen++;
+    return token;
+  }
+
+  final public Token getToken(int index) {
+    Token t = token;
+    for (int i = 0; i < index; i++) {
+      if (t.next != null) t = t.next;
+      else t = t.next = token_source.getNextToken();
+    }
+    return t;
+  }
+
+  final private int jj_ntk() {
+    if ((jj_nt=token.next) == null)
+      return (jj_ntk = (token.next=token_source.getNextToken()).kind);
+    else
+      return (jj_ntk = jj_nt.kind);
+  }
+
+  private java.util.Vector jj_expentries = new java.util.Vector();
+  private int[] jj_expentry;
+  private int jj_kind = -1;
+
+  public ParseException generateParseException() {
+    jj_expentries.removeAllElements();
+    boolean[] la1tokens = new boolean[24];
+    for (int i = 0; i < 24; i++) {
+      la1tokens[i] = false;
+    }
+    if (jj_kind >= 0) {
+      la1tokens[jj_kind] = true;
+      jj_kind = -1;
+    }
+    for (int i = 0; i < 1; i++) {
+      if (jj_la1[i] == jj_gen) {
+        for (int j = 0; j < 32; j++) {
+          if ((jj_la1_0[i] & (1<<j)) != 0) {
+            la1tokens[j] = true;
+          }
+        }
+      }
+    }
+    for (int i = 0; i < 24; i++) {
+      if (la1tokens[i]) {
+        jj_expentry = new int[1];
+        jj_expentry[0] = i;
+        jj_expentries.addElement(jj_expentry);
+      }
+    }
+    int[][] exptokseq = new int[jj_expentries.size()][];
+    for (int i = 0; i < jj_expentries.size(); i++) {
+      exptokseq[i] = (int[])jj_expentries.elementAt(i);
+    }
+    return new ParseException(token, exptokseq, tokenImage);
+  }
+
+  final public void enable_tracing() {
+  }
+
+  final public void disable_tracing() {
+  }
+
+}
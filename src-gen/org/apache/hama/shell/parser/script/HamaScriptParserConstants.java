@@ -0,0 +1,55 @@
+/* Generated By:JavaCC: Do not edit this line. HamaScriptParserConstants.java */
+package org.apache.hama.shell.parser.script;
+
+public interface HamaScriptParserConstants {
+
+  int EOF = 0;
+  int HELP = 3;
+  int QUIT = 4;
+  int HAMA = 10;
+  int EOL = 11;
+  int QUOTE = 12;
+  int SEMICOLON = 13;
+  int LETTER = 14;
+  int DIGIT = 15;
+  int SPECIALCHAR = 16;
+  int FSSPECIALCHAR = 17;
+  int FLOAT = 18;
+  int INTEGER = 19;
+  int NUMBER = 20;
+  int ID = 21;
+  int PATH = 22;
+  int QUOTEDSTRING = 23;
+
+  int DEFAULT = 0;
+  int HAMA_BEGIN = 1;
+  int HAMA_END = 2;
+
+  String[] tokenImage = {
+    "<EOF>",
+    "\" \"",
+    "\"\\t\"",
+    "\"help\"",
+    "\"quit\"",
+    "\"SAVE\"",
+    "<token of kind 6>",
+    "\";\"",
+    "<token of kind 8>",
+    "<token of kind 9>",
+    "\"\"",
+    "<EOL>",
+    "\"\\\'\"",
+    "\";\"",
+    "<LETTER>",
+    "<DIGIT>",
+    "<SPECIALCHAR>",
+    "<FSSPECIALCHAR>",
+    "<FLOAT>",
+    "<INTEGER>",
+    "<NUMBER>",
+    "<ID>",
+    "<PATH>",
+    "<QUOTEDSTRING>",
+  };
+
+}
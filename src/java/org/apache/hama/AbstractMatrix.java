@@ -21,9 +21,17 @@ package org.apache.hama;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.HColumnDescriptor;
@@ -34,6 +42,7 @@ import org.apache.hadoop.hbase.RegionException;
 import org.apache.hadoop.hbase.HColumnDescriptor.CompressionType;
 import org.apache.hadoop.hbase.client.HBaseAdmin;
 import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Scanner;
 import org.apache.hadoop.hbase.io.BatchUpdate;
 import org.apache.hadoop.hbase.io.Cell;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
@@ -46,28 +55,31 @@ import org.apache.hadoop.io.DoubleWritable;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.MapWritable;
 import org.apache.hadoop.io.SequenceFile;
-import org.apache.hadoop.mapred.FileOutputFormat;
+import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.MapReduceBase;
 import org.apache.hadoop.mapred.OutputCollector;
 import org.apache.hadoop.mapred.Reporter;
+import org.apache.hama.algebra.GramianMap;
 import org.apache.hama.algebra.JacobiEigenValue;
-import org.apache.hama.algebra.MatrixNormMapRed;
+import org.apache.hama.algebra.MatrixStatsMap;
+import org.apache.hama.algebra.MatrixStatsReduce;
+import org.apache.hama.algebra.MatrixVectorMultMap;
+import org.apache.hama.algebra.OuterProductMultiplyReduce;
+import org.apache.hama.algebra.ProjectionMap;
+import org.apache.hama.algebra.SparseMultiplyReduce;
+import org.apache.hama.algebra.TSQRMap;
+import org.apache.hama.algebra.TSQRQMap;
+import org.apache.hama.algebra.TransposeProjectionMap;
 import org.apache.hama.algebra.TransposeMap;
 import org.apache.hama.algebra.TransposeReduce;
-import org.apache.hama.algebra.MatrixNormMapRed.MatrixFrobeniusNormCombiner;
-import org.apache.hama.algebra.MatrixNormMapRed.MatrixFrobeniusNormMapper;
-import org.apache.hama.algebra.MatrixNormMapRed.MatrixFrobeniusNormReducer;
-import org.apache.hama.algebra.MatrixNormMapRed.MatrixInfinityNormMapper;
-import org.apache.hama.algebra.MatrixNormMapRed.MatrixInfinityNormReducer;
-import org.apache.hama.algebra.MatrixNormMapRed.MatrixMaxValueNormMapper;
-import org.apache.hama.algebra.MatrixNormMapRed.MatrixMaxValueNormReducer;
-import org.apache.hama.algebra.MatrixNormMapRed.MatrixOneNormCombiner;
-import org.apache.hama.algebra.MatrixNormMapRed.MatrixOneNormMapper;
-import org.apache.hama.algebra.MatrixNormMapRed.MatrixOneNormReducer;
+import org.apache.hama.io.BlockWritable;
+import org.apache.hama.io.DoubleEntry;
 import org.apache.hama.io.VectorUpdate;
 import org.apache.hama.util.BytesUtil;
 import org.apache.hama.util.JobManager;
+import org.apache.hama.util.MatrixKernels;
+import org.apache.hama.util.ParallelScanner;
 import org.apache.hama.util.RandomVariable;
 import org.apache.log4j.Logger;
 
@@ -77,6 +89,8 @@ import org.apache.log4j.Logger;
 public abstract class AbstractMatrix implements Matrix {
   static int tryPathLength = Constants.DEFAULT_PATH_LENGTH;
   static final Logger LOG = Logger.getLogger(AbstractMatrix.class);
+  // a Lanczos residual below this relative size ends the iterations
+  static final double LANCZOS_EPSILON = 1e-10;
 
   protected HamaConfiguration config;
   protected HBaseAdmin admin;
@@ -88,6 +102,10 @@ public abstract class AbstractMatrix implements Matrix {
   protected HamaAdmin hamaAdmin;
 
   protected boolean closed = true;
+  // a transposed view reads the table in the transposed orientation
+  protected boolean transposed = false;
+  // the column replica, if it is maintained by the writes of this handle
+  protected AbstractMatrix replica;
 
   /**
    * Sets the job configuration
@@ -183,162 +201,835 @@ public abstract class AbstractMatrix implements Matrix {
     return this.table;
   }
 
-  protected double getNorm1() throws IOException {
-    JobConf jobConf = new JobConf(config);
-    jobConf.setJobName("norm1 MR job : " + this.getPath());
+  /**
+   * Returns the statistics of the matrix: its four norms, and the number of
+   * non-zeros, minimum, maximum and sum of its entries. They are computed by
+   * a single job, and cached in the metadata row with the modification stamp
+   * of the matrix, so the job is run again only once the matrix is modified.
+   * Matrices of up to hama.stats.local.size cells are scanned by the client
+   * instead, with a scanner per region, since the setup of a job would cost
+   * more than the scan.
+   * 
+   * @return the statistics of the matrix
+   * @throws IOException
+   */
+  public MatrixStats getStats() throws IOException {
+    MatrixStats stats = MatrixStats.load(table, null);
+    if (stats != null)
+      return stats;
+
+    String stamp = MatrixStats.getStamp(table.get(Constants.METADATA,
+        Constants.METADATA_MODIFIED));
+    Cell rows = table.get(Constants.METADATA, Constants.METADATA_ROWS);
+    Cell columns = table.get(Constants.METADATA, Constants.METADATA_COLUMNS);
+    int n = BytesUtil.bytesToInt(columns.getValue());
+    long cells = (long) BytesUtil.bytesToInt(rows.getValue()) * n;
+    if (cells <= config.getInt(MatrixStats.LOCAL_SIZE,
+        MatrixStats.DEFAULT_LOCAL_SIZE)) {
+      stats = scanStats(n);
+      stats.store(table, stamp);
+      return stats;
+    }
 
+    JobConf jobConf = new JobConf(config);
+    jobConf.setJobName("statistics MR job : " + this.getPath());
     jobConf.setNumMapTasks(config.getNumMapTasks());
-    jobConf.setNumReduceTasks(1);
 
-    final FileSystem fs = FileSystem.get(jobConf);
-    Path outDir = new Path(new Path(getType() + "_TMP_norm1_dir_"
-        + System.currentTimeMillis()), "out");
-    if (fs.exists(outDir))
-      fs.delete(outDir, true);
+    MatrixStatsMap.initJob(this.getPath(), n, MatrixStatsMap.class, jobConf);
+    MatrixStatsReduce.initJob(this.getPath(), stamp, MatrixStatsReduce.class,
+        jobConf);
+    JobManager.execute(jobConf);
 
-    MatrixNormMapRed.initJob(this.getPath(), outDir.toString(),
-        MatrixOneNormMapper.class, MatrixOneNormCombiner.class,
-        MatrixOneNormReducer.class, jobConf);
+    stats = MatrixStats.load(table, stamp);
+    if (stats == null)
+      throw new IOException("The statistics of " + this.getPath()
+          + " weren't stored.");
+    return stats;
+  }
 
-    // update the out put dir of the job
-    outDir = FileOutputFormat.getOutputPath(jobConf);
-    JobManager.execute(jobConf);
+  /**
+   * Scans the statistics on the client, one region per thread, and merges
+   * the statistics of the regions.
+   * 
+   * @param columns the number of columns of the table
+   * @return the statistics
+   * @throws IOException
+   */
+  private MatrixStats scanStats(final int columns) throws IOException {
+    ParallelScanner parallel = new ParallelScanner(table, config.getInt(
+        ParallelScanner.THREADS, ParallelScanner.DEFAULT_THREADS));
+    List<MatrixStats> parts = parallel.scan(new byte[][] { Bytes
+        .toBytes(Constants.COLUMN) }, HConstants.EMPTY_START_ROW,
+        HConstants.EMPTY_END_ROW,
+        new ParallelScanner.RegionHandler<MatrixStats>() {
+          public MatrixStats handle(Scanner scanner) throws IOException {
+            MatrixStats stats = new MatrixStats(columns);
+            for (RowResult row : scanner) {
+              stats.add(new DenseVector(row).getEntries());
+            }
+            return stats;
+          }
+        });
+
+    MatrixStats stats = new MatrixStats(columns);
+    for (MatrixStats part : parts) {
+      stats.merge(part);
+    }
+    return stats;
+  }
+
+  /**
+   * Changes the modification stamp of the matrix, which invalidates its
+   * cached statistics and its column replica.
+   * 
+   * @throws IOException
+   */
+  protected void markModified() throws IOException {
+    markModified(false);
+  }
+
+  /**
+   * Changes the modification stamp of the matrix, which invalidates its
+   * cached statistics. If the write has been mirrored into the column replica
+   * of this handle, and the replica was up to date, the replica gets the new
+   * stamp too.
+   * 
+   * @param mirrored true if the write has been mirrored into the replica
+   * @throws IOException
+   */
+  protected void markModified(boolean mirrored) throws IOException {
+    byte[] stamp = Bytes.toBytes(newStamp());
+    BatchUpdate update = new BatchUpdate(Constants.METADATA);
+    update.put(Constants.METADATA_MODIFIED, stamp);
+    if (replica != null) {
+      if (mirrored && replica.getPath().equals(getReplicaPath(true)))
+        update.put(Constants.METADATA_REPLICA_STAMP, stamp);
+      else
+        replica = null;
+    }
+    table.commit(update);
+  }
+
+  private static String newStamp() {
+    return UUID.randomUUID().toString();
+  }
+
+  /**
+   * Reads the block (i0..i1, j0..j1) of the table into a local sub matrix.
+   * The range of rows is split at the region boundaries, and the regions are
+   * scanned concurrently, each into its own rows of the shared sub matrix.
+   * The column keys are computed once, and missing entries are zero.
+   * 
+   * @param i0 the start index of row
+   * @param i1 the end index of row
+   * @param j0 the start index of column
+   * @param j1 the end index of column
+   * @return the sub matrix
+   * @throws IOException
+   */
+  protected SubMatrix subTable(final int i0, int i1, int j0, int j1)
+      throws IOException {
+    final SubMatrix result = new SubMatrix(i1 - i0 + 1, j1 - j0 + 1);
+    final byte[][] columns = new byte[j1 - j0 + 1][];
+    for (int jj = 0; jj < columns.length; jj++) {
+      columns[jj] = BytesUtil.getColumnIndex(j0 + jj);
+    }
+
+    ParallelScanner parallel = new ParallelScanner(table, config.getInt(
+        ParallelScanner.THREADS, ParallelScanner.DEFAULT_THREADS));
+    parallel.scan(columns, BytesUtil.getRowIndex(i0), BytesUtil
+        .getRowIndex(i1 + 1), new ParallelScanner.RegionHandler<Integer>() {
+      public Integer handle(Scanner scanner) throws IOException {
+        int rows = 0;
+        for (RowResult row : scanner) {
+          int i = BytesUtil.getRowIndex(row.getRow()) - i0;
+          for (int jj = 0; jj < columns.length; jj++) {
+            Cell c = row.get(columns[jj]);
+            if (c != null)
+              result.set(i, jj, c.getValue());
+          }
+          rows++;
+        }
+        return rows;
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Builds the column replica of the matrix: a copy of its transpose, whose
+   * row j is the column j of the matrix, so a column is read with a single
+   * row lookup. The replica is kept up to date by the writes of this handle,
+   * and it is rebuilt on demand once the matrix is modified otherwise.
+   * 
+   * @throws IOException
+   */
+  public void buildColumnReplica() throws IOException {
+    if (transposed)
+      throw new IOException(
+          "The column replica of a transposed view is its table.");
+
+    String stamp = MatrixStats.getStamp(table.get(Constants.METADATA,
+        Constants.METADATA_MODIFIED));
+    dropColumnReplica();
+    AbstractMatrix result = (AbstractMatrix) transpose();
+
+    BatchUpdate update = new BatchUpdate(Constants.METADATA);
+    update.put(Constants.METADATA_REPLICA, Bytes.toBytes(result.getPath()));
+    update.put(Constants.METADATA_REPLICA_STAMP, Bytes.toBytes(stamp));
+    table.commit(update);
+    replica = result;
+  }
+
+  /**
+   * Deletes the column replica of the matrix, if there is one.
+   * 
+   * @throws IOException
+   */
+  public void dropColumnReplica() throws IOException {
+    Cell path = table.get(Constants.METADATA, Constants.METADATA_REPLICA);
+    replica = null;
+    if (path == null)
+      return;
+
+    deleteTable(Bytes.toString(path.getValue()));
+    BatchUpdate update = new BatchUpdate(Constants.METADATA);
+    update.delete(Constants.METADATA_REPLICA);
+    update.delete(Constants.METADATA_REPLICA_STAMP);
+    table.commit(update);
+  }
 
-    // read outputs
-    Path inFile = new Path(outDir, "reduce-out");
-    IntWritable numInside = new IntWritable();
-    DoubleWritable max = new DoubleWritable();
-    SequenceFile.Reader reader = new SequenceFile.Reader(fs, inFile, jobConf);
+  /**
+   * Returns the column replica of the matrix, which is rebuilt if the matrix
+   * has been modified since it was built. A transposed view doesn't rebuild
+   * the replica, and reads its table instead.
+   * 
+   * @return the column replica, or null if there is no current one
+   * @throws IOException
+   */
+  protected AbstractMatrix getColumnReplica() throws IOException {
+    if (getReplicaPath(false) == null) {
+      replica = null;
+      return null;
+    }
+
+    String path = getReplicaPath(true);
+    if (path == null) {
+      if (transposed)
+        return null;
+      buildColumnReplica();
+    } else if (replica == null || !replica.getPath().equals(path)) {
+      replica = this.getType().equals("SparseMatrix") ? new SparseMatrix(
+          config, path) : new DenseMatrix(config, path);
+    }
+    return replica;
+  }
+
+  /**
+   * Returns the path of the column replica.
+   * 
+   * @param current if true, only a replica which is up to date is returned
+   * @return the path, or null if there is no such replica
+   * @throws IOException
+   */
+  private String getReplicaPath(boolean current) throws IOException {
+    RowResult row = table.getRow(Constants.METADATA, new String[] {
+        Constants.METADATA_REPLICA, Constants.METADATA_REPLICA_STAMP,
+        Constants.METADATA_MODIFIED });
+    if (row == null || row.get(Constants.METADATA_REPLICA) == null)
+      return null;
+    if (current
+        && !MatrixStats.getStamp(row.get(Constants.METADATA_MODIFIED)).equals(
+            MatrixStats.getStamp(row.get(Constants.METADATA_REPLICA_STAMP))))
+      return null;
+    return Bytes.toString(row.get(Constants.METADATA_REPLICA).getValue());
+  }
+
+  /**
+   * Writes the entry (i, j) into the column replica, if this handle
+   * maintains it.
+   * 
+   * @param i the row index in the table
+   * @param j the column index in the table
+   * @param value
+   * @throws IOException
+   */
+  protected void updateReplica(int i, int j, double value) throws IOException {
+    if (replica == null)
+      return;
+    VectorUpdate update = new VectorUpdate(j);
+    update.put(i, value);
+    replica.table.commit(update.getBatchUpdate());
+  }
+
+  /**
+   * Writes the row i of the table into the column replica, as its column i.
+   * 
+   * @param i the row index in the table
+   * @param entries the entries of the row
+   * @throws IOException
+   */
+  protected void updateReplicaColumn(int i, MapWritable entries)
+      throws IOException {
+    if (replica == null)
+      return;
+    replica.table.setAutoFlush(false);
     try {
-      reader.next(numInside, max);
+      for (Map.Entry<Writable, Writable> e : entries.entrySet()) {
+        if (e.getKey() instanceof IntWritable)
+          updateReplica(i, ((IntWritable) e.getKey()).get(), ((DoubleEntry) e
+              .getValue()).getValue());
+      }
+      replica.table.flushCommits();
     } finally {
-      reader.close();
+      replica.table.setAutoFlush(true);
     }
+  }
 
-    fs.delete(outDir.getParent(), true);
-    return max.get();
+  /**
+   * Writes the column j of the table into the column replica, as its row j.
+   * 
+   * @param j the column index in the table
+   * @param entries the entries of the column
+   * @throws IOException
+   */
+  protected void updateReplicaRow(int j, MapWritable entries)
+      throws IOException {
+    if (replica == null)
+      return;
+    VectorUpdate update = new VectorUpdate(j);
+    for (Map.Entry<Writable, Writable> e : entries.entrySet()) {
+      if (e.getKey() instanceof IntWritable)
+        update.put(((IntWritable) e.getKey()).get(), ((DoubleEntry) e
+            .getValue()).getValue());
+    }
+    replica.table.commit(update.getBatchUpdate());
   }
 
-  protected double getMaxvalue() throws IOException {
-    JobConf jobConf = new JobConf(config);
-    jobConf.setJobName("MaxValue Norm MR job : " + this.getPath());
+  /**
+   * y = A * x using a single job. The vector is broadcast to the map tasks,
+   * which multiply it with the rows of A as they are scanned. For a transposed
+   * view, the rows of the table are scaled and summed into y instead.
+   * 
+   * @param x the vector
+   * @return y
+   * @throws IOException
+   */
+  protected DenseVector multVector(Vector x) throws IOException {
+    if (transposed) {
+      // the rows of the replica are the rows of the view
+      AbstractMatrix rows = getColumnReplica();
+      if (rows != null)
+        return rows.multVector(x);
+    }
 
+    JobConf jobConf = new JobConf(config);
+    jobConf.setJobName("matrix-vector multiplication MR job : "
+        + this.getPath());
     jobConf.setNumMapTasks(config.getNumMapTasks());
-    jobConf.setNumReduceTasks(1);
+    jobConf.setNumReduceTasks(config.getNumReduceTasks());
 
     final FileSystem fs = FileSystem.get(jobConf);
-    Path outDir = new Path(new Path(getType() + "_TMP_normMaxValue_dir_"
-        + System.currentTimeMillis()), "out");
-    if (fs.exists(outDir))
-      fs.delete(outDir, true);
+    Path tmpDir = new Path(getType() + "_TMP_MatVec_dir_"
+        + System.currentTimeMillis());
+    MatrixVectorMultMap.initJob(this.getPath(), transposed, this.getRows(), x,
+        this.getColumns(), tmpDir, MatrixVectorMultMap.class, jobConf);
+
+    try {
+      JobManager.execute(jobConf);
+
+      // read outputs, the rows without any entries are zero
+      DenseVector y = new DenseVector();
+      y.zeroFill(this.getRows());
+      IntWritable i = new IntWritable();
+      DoubleWritable value = new DoubleWritable();
+      for (FileStatus file : fs.listStatus(new Path(tmpDir, "out"))) {
+        if (!file.getPath().getName().startsWith("part-"))
+          continue;
+        SequenceFile.Reader reader = new SequenceFile.Reader(fs, file
+            .getPath(), jobConf);
+        try {
+          while (reader.next(i, value)) {
+            y.set(i.get(), value.get());
+          }
+        } finally {
+          reader.close();
+        }
+      }
+      return y;
+    } finally {
+      fs.delete(tmpDir, true);
+    }
+  }
 
-    MatrixNormMapRed.initJob(this.getPath(), outDir.toString(),
-        MatrixMaxValueNormMapper.class, MatrixMaxValueNormReducer.class,
-        MatrixMaxValueNormReducer.class, jobConf);
+  /**
+   * Computes the Gram matrix A' * A in a single pass over A. Each map task
+   * sums the outer products of the rows it reads in a local accumulator, and
+   * the partial sums are combined by the reducers. The result is a symmetric
+   * matrix of the same type as A. A * A' is the Gram matrix of the transposed
+   * view, whose rows are read from the column replica if there is a current
+   * one, or else from a transposed copy.
+   * 
+   * @return A' * A
+   * @throws IOException
+   */
+  public Matrix gramian() throws IOException {
+    boolean sparse = getType().equals("SparseMatrix");
+    AbstractMatrix rows = this;
+    AbstractMatrix copy = null;
+    if (transposed) {
+      rows = getColumnReplica();
+      if (rows == null) {
+        AbstractMatrix table = sparse ? new SparseMatrix(config, getPath())
+            : new DenseMatrix(config, getPath());
+        rows = copy = (AbstractMatrix) table.transpose();
+      }
+    }
 
-    // update the out put dir of the job
-    outDir = FileOutputFormat.getOutputPath(jobConf);
-    JobManager.execute(jobConf);
+    int n = this.getColumns();
+    AbstractMatrix result = sparse ? new SparseMatrix(config, n, n)
+        : new DenseMatrix(config, n, n);
+
+    JobConf jobConf = new JobConf(config);
+    jobConf.setJobName("gramian MR job : " + this.getPath());
+    jobConf.setNumMapTasks(config.getNumMapTasks());
+    jobConf.setNumReduceTasks(config.getNumReduceTasks());
+
+    GramianMap.initJob(rows.getPath(), n, !sparse, GramianMap.class,
+        jobConf);
+    if (sparse)
+      SparseMultiplyReduce.initJob(result.getPath(),
+          SparseMultiplyReduce.class, jobConf);
+    else
+      OuterProductMultiplyReduce.initJob(result.getPath(),
+          OuterProductMultiplyReduce.class, jobConf);
 
-    // read outputs
-    Path inFile = new Path(outDir, "part-00000");
-    IntWritable numInside = new IntWritable();
-    DoubleWritable max = new DoubleWritable();
-    SequenceFile.Reader reader = new SequenceFile.Reader(fs, inFile, jobConf);
     try {
-      reader.next(numInside, max);
+      JobManager.execute(jobConf);
     } finally {
-      reader.close();
+      if (copy != null)
+        copy.close();
     }
-
-    fs.delete(outDir.getParent(), true);
-    return max.get();
+    return result;
   }
 
-  protected double getInfinity() throws IOException {
-    JobConf jobConf = new JobConf(config);
-    jobConf.setJobName("Infinity Norm MR job : " + this.getPath());
+  /**
+   * Computes the thin QR factorization of a tall and skinny matrix by TSQR.
+   * Each map task reads a block of rows with one scan, and factors it locally
+   * by Householder reflections. The n-by-n R factors of the blocks are
+   * combined on the client in a binary tree. If Q is wanted, a second pass
+   * factors the blocks again, and multiplies the local Q of each block by its
+   * factor from the tree, so A is read twice. A transposed view is factored
+   * from its column replica.
+   * 
+   * @param computeQ true if Q should be computed
+   * @return the factorization, without Q if computeQ is false
+   * @throws IOException
+   */
+  public QRDecomposition tsqr(boolean computeQ) throws IOException {
+    AbstractMatrix rows = transposed ? getColumnReplica() : this;
+    if (rows == null)
+      throw new IOException("The transposed view has no column replica.");
 
+    int n = this.getColumns();
+    JobConf jobConf = new JobConf(config);
+    jobConf.setJobName("TSQR MR job : " + this.getPath());
     jobConf.setNumMapTasks(config.getNumMapTasks());
-    jobConf.setNumReduceTasks(1);
 
     final FileSystem fs = FileSystem.get(jobConf);
-    Path outDir = new Path(new Path(getType() + "_TMP_normInifity_dir_"
-        + System.currentTimeMillis()), "out");
-    if (fs.exists(outDir))
-      fs.delete(outDir, true);
+    Path tmpDir = new Path(getType() + "_TMP_TSQR_dir_"
+        + System.currentTimeMillis());
+    Path inDir = writeRowRanges(jobConf, "tsqr", config.getNumMapTasks());
+    TSQRMap.initJob(rows.getPath(), n, inDir, new Path(tmpDir, "out"),
+        TSQRMap.class, jobConf);
 
-    MatrixNormMapRed.initJob(this.getPath(), outDir.toString(),
-        MatrixInfinityNormMapper.class, MatrixInfinityNormReducer.class,
-        MatrixInfinityNormReducer.class, jobConf);
+    try {
+      JobManager.execute(jobConf);
+
+      // read the R factors of the blocks, in the order of their rows
+      TreeMap<Integer, double[][]> blocks = new TreeMap<Integer, double[][]>();
+      IntWritable start = new IntWritable();
+      BlockWritable block = new BlockWritable();
+      for (FileStatus file : fs.listStatus(new Path(tmpDir, "out"))) {
+        if (!file.getPath().getName().startsWith("part-"))
+          continue;
+        SequenceFile.Reader reader = new SequenceFile.Reader(fs, file
+            .getPath(), jobConf);
+        try {
+          while (reader.next(start, block)) {
+            blocks.put(start.get(), block.get(0).getDoubleArray());
+          }
+        } finally {
+          reader.close();
+        }
+      }
 
-    // update the out put dir of the job
-    outDir = FileOutputFormat.getOutputPath(jobConf);
+      int[] starts = new int[blocks.size()];
+      double[][][] r = new double[blocks.size()][][];
+      int b = 0;
+      for (Map.Entry<Integer, double[][]> e : blocks.entrySet()) {
+        starts[b] = e.getKey();
+        r[b++] = e.getValue();
+      }
+      int threads = config.getInt(LocalDenseMatrix.THREADS,
+          LocalDenseMatrix.DEFAULT_THREADS);
+      double[][][] factors = new double[r.length][][];
+      LocalDenseMatrix R = new LocalDenseMatrix(config, MatrixKernels
+          .combineQR(r, factors, threads));
+      if (!computeQ)
+        return new QRDecomposition(null, R);
+
+      DenseMatrix Q = new DenseMatrix(config, this.getRows(), n);
+      JobConf qConf = new JobConf(config);
+      qConf.setJobName("TSQR Q MR job : " + this.getPath());
+      qConf.setNumMapTasks(config.getNumMapTasks());
+      TSQRQMap.initJob(rows.getPath(), n, inDir, starts, factors, tmpDir, Q
+          .getPath(), TSQRQMap.class, qConf);
+      JobManager.execute(qConf);
+      return new QRDecomposition(Q, R);
+    } finally {
+      fs.delete(inDir, true);
+      fs.delete(tmpDir, true);
+    }
+  }
 
-    JobManager.execute(jobConf);
+  /**
+   * Computes the k eigen values of the largest magnitude of a symmetric
+   * matrix, and their eigen vectors, by the Lanczos method.
+   * 
+   * @param k the number of eigen values
+   * @return the eigen pairs
+   * @throws IOException
+   * @see #lanczosEigenValue(int, int)
+   */
+  public EigenDecomposition lanczosEigenValue(int k) throws IOException {
+    return lanczosEigenValue(k, Math.max(2 * k, k + 20));
+  }
+
+  /**
+   * Computes the k eigen values of the largest magnitude of a symmetric
+   * matrix, and their eigen vectors, by the Lanczos method. Each step is one
+   * matrix-vector multiplication, a single pass over the matrix (see
+   * {@link #multVector(Vector)}), so a sparse matrix is read as sparse. The
+   * Lanczos vectors are kept on the client, fully reorthogonalized, in
+   * O(n * steps) memory, and the eigen values of the small tridiagonal matrix
+   * are solved locally. Nothing is written to the table.
+   * 
+   * @param k the number of eigen values
+   * @param steps the number of Lanczos steps, at least k
+   * @return the eigen pairs
+   * @throws IOException
+   */
+  public EigenDecomposition lanczosEigenValue(int k, int steps)
+      throws IOException {
+    int n = this.getRows();
+    if (n != this.getColumns())
+      throw new IOException("A symmetric matrix is required.");
+    k = Math.min(k, n);
+    steps = Math.max(k, Math.min(steps, n));
+
+    double[][] v = new double[steps + 1][];
+    double[] alpha = new double[steps];
+    double[] beta = new double[steps];
+    v[0] = new double[n];
+    for (int i = 0; i < n; i++)
+      v[0][i] = RandomVariable.normal(0, 1);
+    MatrixKernels.normalize(v[0]);
+
+    int m = 0;
+    double scale = 0; // an estimate of the norm of the matrix
+    while (m < steps) {
+      double[] w = toArray(multVector(toVector(v[m])), n);
+      alpha[m] = MatrixKernels.dot(w, v[m]);
+      MatrixKernels.axpy(-alpha[m], v[m], w);
+      if (m > 0)
+        MatrixKernels.axpy(-beta[m - 1], v[m - 1], w);
+      // full reorthogonalization against the previous vectors
+      for (int j = 0; j <= m; j++)
+        MatrixKernels.axpy(-MatrixKernels.dot(w, v[j]), v[j], w);
+
+      beta[m] = MatrixKernels.normalize(w);
+      scale = Math.max(scale, Math.abs(alpha[m]) + beta[m]);
+      v[++m] = w;
+      if (beta[m - 1] <= LANCZOS_EPSILON * scale)
+        break; // the vectors span an invariant subspace
+    }
+
+    // the eigen pairs of the tridiagonal matrix T = V' * A * V
+    double[][] t = new double[m][m];
+    for (int i = 0; i < m; i++) {
+      t[i][i] = alpha[i];
+      if (i + 1 < m)
+        t[i][i + 1] = t[i + 1][i] = beta[i];
+    }
+    double[] theta = new double[m];
+    double[][] z = new double[m][m];
+    MatrixKernels.jacobiEigenValue(t, theta, z, 100 * m * m, 1);
+
+    // the Ritz vectors V * z of the k largest Ritz values
+    Integer[] order = new Integer[m];
+    for (int i = 0; i < m; i++)
+      order[i] = i;
+    final double[] values = theta;
+    Arrays.sort(order, new Comparator<Integer>() {
+      public int compare(Integer a, Integer b) {
+        return Double.compare(Math.abs(values[b]), Math.abs(values[a]));
+      }
+    });
+
+    k = Math.min(k, m);
+    double[] lambda = new double[k];
+    double[][] x = new double[n][k];
+    for (int j = 0; j < k; j++) {
+      lambda[j] = theta[order[j]];
+      double[] y = z[order[j]];
+      for (int i = 0; i < m; i++) {
+        for (int r = 0; r < n; r++)
+          x[r][j] += y[i] * v[i][r];
+      }
+    }
+    return new EigenDecomposition(lambda, new LocalDenseMatrix(config, x));
+  }
+
+  /**
+   * Computes the k singular triplets of the largest singular values by the
+   * randomized SVD, with 10 extra samples and 2 power iterations.
+   * 
+   * @param k the number of singular triplets
+   * @return the singular triplets
+   * @throws IOException
+   * @see #randomizedSvd(int, int, int)
+   */
+  public SingularValueDecomposition randomizedSvd(int k) throws IOException {
+    return randomizedSvd(k, 10, 2);
+  }
+
+  /**
+   * Computes the k singular triplets of the largest singular values by the
+   * randomized SVD. A is multiplied by an n-by-l Gaussian test matrix, l = k
+   * + oversampling, which each map task generates from a shared seed, so it
+   * is never stored. Each power iteration multiplies by A' and by A again,
+   * and orthonormalizes in between. The range of the samples is
+   * orthonormalized by TSQR (see {@link #tsqr(boolean)}) to Q, and the SVD of
+   * the small l-by-n B = Q' * A is solved locally by one-sided Jacobi
+   * rotations. A is read 2 * iterations + 2 times in all; a sparse matrix is
+   * read as sparse.
+   * 
+   * @param k the number of singular triplets
+   * @param oversampling the number of extra samples
+   * @param iterations the number of power iterations
+   * @return the singular triplets
+   * @throws IOException
+   */
+  public SingularValueDecomposition randomizedSvd(int k, int oversampling,
+      int iterations) throws IOException {
+    if (transposed)
+      throw new IOException(
+          "Transposed views should be materialized by transpose() before the SVD.");
+
+    int m = this.getRows();
+    int n = this.getColumns();
+    k = Math.min(k, Math.min(m, n));
+    int l = Math.min(k + oversampling, Math.min(m, n));
+
+    // Y = A * G, and (A * A')^t * Y
+    DenseMatrix y = project(getPath(), m, null, new Random().nextLong(), l);
+    for (int t = 0; t < iterations; t++) {
+      DenseMatrix q = orthonormalize(y);
+      double[][] z = projectTranspose(q, l);
+      q.close();
+
+      double[][] qz = new double[n][l];
+      MatrixKernels.householderQR(z, qz);
+      y = project(getPath(), m, qz, 0, l);
+    }
+
+    // B' = A' * Q = W * diag(s) * J', so A ~ (Q * J) * diag(s) * W'
+    DenseMatrix q = orthonormalize(y);
+    double[][] b = projectTranspose(q, l);
+    double[][] j = new double[l][l];
+    final double[] s = MatrixKernels.svd(b, j, 100);
+
+    Integer[] order = new Integer[l];
+    for (int i = 0; i < l; i++)
+      order[i] = i;
+    Arrays.sort(order, new Comparator<Integer>() {
+      public int compare(Integer a, Integer b) {
+        return Double.compare(s[b], s[a]);
+      }
+    });
+
+    double[] sigma = new double[k];
+    double[][] w = new double[n][k];
+    double[][] jk = new double[l][k];
+    for (int c = 0; c < k; c++) {
+      int p = order[c];
+      sigma[c] = s[p];
+      for (int i = 0; i < n; i++)
+        w[i][c] = (s[p] == 0) ? 0 : b[i][p] / s[p];
+      for (int i = 0; i < l; i++)
+        jk[i][c] = j[i][p];
+    }
 
-    // read outputs
-    Path inFile = new Path(outDir, "part-00000");
-    IntWritable numInside = new IntWritable();
-    DoubleWritable max = new DoubleWritable();
-    SequenceFile.Reader reader = new SequenceFile.Reader(fs, inFile, jobConf);
     try {
-      reader.next(numInside, max);
+      DenseMatrix u = project(q.getPath(), m, jk, 0, k);
+      return new SingularValueDecomposition(sigma, u, new LocalDenseMatrix(
+          config, w));
     } finally {
-      reader.close();
+      q.close();
     }
-
-    fs.delete(outDir.getParent(), true);
-    return max.get();
   }
 
-  protected double getFrobenius() throws IOException {
+  /**
+   * Y = M * G using a single map-only job. G is broadcast, or if it is null,
+   * it is a Gaussian test matrix generated from the seed.
+   */
+  private DenseMatrix project(String matrix, int rows, double[][] g,
+      long seed, int l) throws IOException {
+    DenseMatrix result = new DenseMatrix(config, rows, l);
     JobConf jobConf = new JobConf(config);
-    jobConf.setJobName("Frobenius Norm MR job : " + this.getPath());
-
+    jobConf.setJobName("projection MR job : " + matrix);
     jobConf.setNumMapTasks(config.getNumMapTasks());
-    jobConf.setNumReduceTasks(1);
 
     final FileSystem fs = FileSystem.get(jobConf);
-    Path outDir = new Path(new Path(getType() + "_TMP_normFrobenius_dir_"
-        + System.currentTimeMillis()), "out");
-    if (fs.exists(outDir))
-      fs.delete(outDir, true);
+    Path tmpDir = new Path(getType() + "_TMP_projection_dir_"
+        + System.currentTimeMillis());
+    if (g == null)
+      ProjectionMap.initJob(matrix, this.getColumns(), l, seed, result
+          .getPath(), ProjectionMap.class, jobConf);
+    else
+      ProjectionMap.initJob(matrix, g, tmpDir, result.getPath(),
+          ProjectionMap.class, jobConf);
 
-    MatrixNormMapRed.initJob(this.getPath(), outDir.toString(),
-        MatrixFrobeniusNormMapper.class, MatrixFrobeniusNormCombiner.class,
-        MatrixFrobeniusNormReducer.class, jobConf);
+    try {
+      JobManager.execute(jobConf);
+    } finally {
+      fs.delete(tmpDir, true);
+    }
+    return result;
+  }
 
-    // update the out put dir of the job
-    outDir = FileOutputFormat.getOutputPath(jobConf);
+  /**
+   * Z = A' * Q in a single pass over A, read back as an n-by-l array.
+   */
+  private double[][] projectTranspose(DenseMatrix q, int l)
+      throws IOException {
+    int n = this.getColumns();
+    DenseMatrix z = new DenseMatrix(config, n, l);
+    JobConf jobConf = new JobConf(config);
+    jobConf.setJobName("transposed projection MR job : " + this.getPath());
+    jobConf.setNumMapTasks(config.getNumMapTasks());
+    jobConf.setNumReduceTasks(config.getNumReduceTasks());
 
-    JobManager.execute(jobConf);
+    Path inDir = writeRowRanges(jobConf, "projection", config
+        .getNumMapTasks());
+    TransposeProjectionMap.initJob(this.getPath(), q.getPath(), n, l, inDir,
+        TransposeProjectionMap.class, jobConf);
+    OuterProductMultiplyReduce.initJob(z.getPath(),
+        OuterProductMultiplyReduce.class, jobConf);
+
+    try {
+      JobManager.execute(jobConf);
+      return z.subMatrix(0, n - 1, 0, l - 1).getDoubleArray();
+    } finally {
+      FileSystem.get(jobConf).delete(inDir, true);
+      z.close();
+    }
+  }
 
-    // read outputs
-    Path inFile = new Path(outDir, "part-00000");
-    IntWritable numInside = new IntWritable();
-    DoubleWritable sqrt = new DoubleWritable();
-    SequenceFile.Reader reader = new SequenceFile.Reader(fs, inFile, jobConf);
+  /**
+   * Returns the Q of the TSQR of y, and closes y.
+   */
+  private static DenseMatrix orthonormalize(DenseMatrix y) throws IOException {
     try {
-      reader.next(numInside, sqrt);
+      return y.tsqr(true).getQ();
     } finally {
-      reader.close();
+      y.close();
+    }
+  }
+
+  private static DenseVector toVector(double[] x) {
+    DenseVector v = new DenseVector();
+    for (int i = 0; i < x.length; i++)
+      v.set(i, x[i]);
+    return v;
+  }
+
+  private static double[] toArray(Vector v, int size) {
+    double[] x = new double[size];
+    for (int i = 0; i < size; i++)
+      x[i] = v.get(i);
+    return x;
+  }
+
+  /**
+   * Splits the rows into ranges, and writes an input file (start, end) for
+   * each map task.
+   * 
+   * @param jobConf
+   * @param name the name of the job
+   * @param tasks the number of map tasks
+   * @return the input directory
+   * @throws IOException
+   */
+  protected Path writeRowRanges(JobConf jobConf, String name, int tasks)
+      throws IOException {
+    return writeRanges(jobConf, name, this.getRows(), tasks);
+  }
+
+  /**
+   * Splits [0, count) into ranges, and writes an input file (start, end) for
+   * each map task.
+   * 
+   * @param jobConf
+   * @param name the name of the job
+   * @param count the number of items
+   * @param tasks the number of map tasks
+   * @return the input directory
+   * @throws IOException
+   */
+  protected Path writeRanges(JobConf jobConf, String name, int count,
+      int tasks) throws IOException {
+    tasks = Math.max(1, Math.min(tasks, count));
+    final FileSystem fs = FileSystem.get(jobConf);
+    Path inDir = new Path(getType() + "_TMP_" + name + "_dir_"
+        + System.currentTimeMillis());
+
+    for (int i = 0; i < tasks; i++) {
+      SequenceFile.Writer writer = SequenceFile.createWriter(fs, jobConf,
+          new Path(inDir, "part" + i), IntWritable.class, IntWritable.class,
+          SequenceFile.CompressionType.NONE);
+      try {
+        writer.append(new IntWritable((int) ((long) i * count / tasks)),
+            new IntWritable((int) ((long) (i + 1) * count / tasks) - 1));
+      } finally {
+        writer.close();
+      }
     }
+    return inDir;
+  }
 
-    fs.delete(outDir.getParent(), true);
-    return sqrt.get();
+  /**
+   * Returns true if this handle is a transposed view of its table.
+   * 
+   * @return true if the matrix is read in the transposed orientation
+   */
+  public boolean isTransposed() {
+    return transposed;
   }
 
   /** {@inheritDoc} */
   public int getRows() throws IOException {
     Cell rows = null;
-    rows = table.get(Constants.METADATA, Constants.METADATA_ROWS);
+    rows = table.get(Constants.METADATA, transposed ? Constants.METADATA_COLUMNS
+        : Constants.METADATA_ROWS);
     return (rows != null) ? BytesUtil.bytesToInt(rows.getValue()) : 0;
   }
 
   /** {@inheritDoc} */
   public int getColumns() throws IOException {
-    Cell columns = table.get(Constants.METADATA, Constants.METADATA_COLUMNS);
+    Cell columns = table.get(Constants.METADATA,
+        transposed ? Constants.METADATA_ROWS : Constants.METADATA_COLUMNS);
     return BytesUtil.bytesToInt(columns.getValue());
   }
 
@@ -368,26 +1059,40 @@ public abstract class AbstractMatrix implements Matrix {
   /** {@inheritDoc} */
   public void setDimension(int rows, int columns) throws IOException {
     VectorUpdate update = new VectorUpdate(Constants.METADATA);
-    update.put(Constants.METADATA_ROWS, rows);
-    update.put(Constants.METADATA_COLUMNS, columns);
+    update.put(Constants.METADATA_ROWS, transposed ? columns : rows);
+    update.put(Constants.METADATA_COLUMNS, transposed ? rows : columns);
+    update.put(Constants.METADATA_MODIFIED, newStamp());
 
     table.commit(update.getBatchUpdate());
   }
 
   /** {@inheritDoc} */
   public void add(int i, int j, double value) throws IOException {
+    double sum = value + this.get(i, j);
+    if (transposed) {
+      int t = i;
+      i = j;
+      j = t;
+    }
     VectorUpdate update = new VectorUpdate(i);
-    update.put(j, value + this.get(i, j));
+    update.put(j, sum);
     table.commit(update.getBatchUpdate());
-
+    updateReplica(i, j, sum);
+    markModified(true);
   }
 
   /**
-   * Just full scan a table.
+   * Just full scan a table. The cached attributes of the source matrix, its
+   * column replica, statistics and jacobi checkpoint, are not copied.
    */
   public static class TableReadMapper extends MapReduceBase implements
       TableMap<ImmutableBytesWritable, BatchUpdate> {
     private static List<Double> alpha = new ArrayList<Double>();
+    private static final Set<String> SKIPPED = new HashSet<String>(Arrays
+        .asList(Constants.METADATA_REPLICA, Constants.METADATA_REPLICA_STAMP,
+            Constants.METADATA_STATS, Constants.METADATA_STATS_STAMP,
+            Constants.METADATA_JACOBI_ITERATIONS,
+            Constants.METADATA_JACOBI_STATE, Constants.METADATA_JACOBI_STAMP));
 
     @SuppressWarnings("unchecked")
     public void map(ImmutableBytesWritable key, RowResult value,
@@ -397,6 +1102,8 @@ public abstract class AbstractMatrix implements Matrix {
 
       BatchUpdate update = new BatchUpdate(key.get());
       for (Map.Entry<byte[], Cell> e : value.entrySet()) {
+        if (SKIPPED.contains(new String(e.getKey())))
+          continue;
         if (alpha.size() == 0) {
           update.put(e.getKey(), e.getValue().getValue());
         } else {
@@ -422,6 +1129,7 @@ public abstract class AbstractMatrix implements Matrix {
 
   /** {@inheritDoc} */
   public Matrix set(Matrix B) throws IOException {
+    ensureForSet(B);
     JobConf jobConf = new JobConf(config);
     jobConf.setJobName("set MR job : " + this.getPath());
 
@@ -436,11 +1144,13 @@ public abstract class AbstractMatrix implements Matrix {
         IdentityTableReduce.class, jobConf);
 
     JobManager.execute(jobConf);
+    markModified();
     return this;
   }
 
   /** {@inheritDoc} */
   public Matrix set(double alpha, Matrix B) throws IOException {
+    ensureForSet(B);
     JobConf jobConf = new JobConf(config);
     jobConf.setJobName("set MR job : " + this.getPath());
 
@@ -456,9 +1166,22 @@ public abstract class AbstractMatrix implements Matrix {
         IdentityTableReduce.class, jobConf);
 
     JobManager.execute(jobConf);
+    markModified();
     return this;
   }
 
+  /**
+   * The set job copies the table of B as it is stored, so neither matrix can
+   * be a transposed view.
+   */
+  private void ensureForSet(Matrix B) throws IOException {
+    if (transposed
+        || (B instanceof AbstractMatrix && ((AbstractMatrix) B).isTransposed())) {
+      throw new IOException(
+          "Transposed views should be materialized by transpose() while A = B.");
+    }
+  }
+
   /** {@inheritDoc} */
   public void setColumnLabel(int column, String name) throws IOException {
     VectorUpdate update = new VectorUpdate(Constants.CINDEX);
@@ -515,29 +1238,36 @@ public abstract class AbstractMatrix implements Matrix {
     int reference = decrementAndGetRef();
     if (reference <= 0) { // no reference again.
       if (!hasAliaseName()) { // the table has not been aliased, we delete the
-        // table.
+        // table, and its column replica.
         if (admin.isTableEnabled(matrixPath)) {
-          while (admin.isTableEnabled(matrixPath)) {
-            try {
-              admin.disableTable(matrixPath);
-            } catch (RegionException e) {
-              LOG.warn(e);
-            }
-          }
-
-          admin.deleteTable(matrixPath);
+          dropColumnReplica();
+          deleteTable(matrixPath);
         }
       }
     }
     closed = true;
   }
 
+  private void deleteTable(String path) throws IOException {
+    if (admin.isTableEnabled(path)) {
+      while (admin.isTableEnabled(path)) {
+        try {
+          admin.disableTable(path);
+        } catch (RegionException e) {
+          LOG.warn(e);
+        }
+      }
+
+      admin.deleteTable(path);
+    }
+  }
+
   public Matrix transpose() throws IOException {
     Matrix result;
     if (this.getType().equals("SparseMatrix")) {
-      result = new SparseMatrix(config, this.getRows(), this.getColumns());
+      result = new SparseMatrix(config, this.getColumns(), this.getRows());
     } else {
-      result = new DenseMatrix(config, this.getRows(), this.getColumns());
+      result = new DenseMatrix(config, this.getColumns(), this.getRows());
     }
 
     JobConf jobConf = new JobConf(config);
@@ -554,6 +1284,32 @@ public abstract class AbstractMatrix implements Matrix {
     return result;
   }
 
+  /**
+   * Starts a chain of element-wise operations on the matrix, which runs in a
+   * single pass.
+   * 
+   * @return the chain
+   * @throws IOException
+   */
+  public ElementWise elementWise() throws IOException {
+    return new ElementWise(this);
+  }
+
+  /** {@inheritDoc} */
+  public Matrix apply(ElementFunction f) throws IOException {
+    return elementWise().apply(f).execute();
+  }
+
+  /** {@inheritDoc} */
+  public Matrix hadamard(Matrix B) throws IOException {
+    return elementWise().mult(B).execute();
+  }
+
+  /** {@inheritDoc} */
+  public Matrix divide(Matrix B) throws IOException {
+    return elementWise().divide(B).execute();
+  }
+
   public boolean save(String aliasename) throws IOException {
     // mark & update the aliase name in "alise:name" meta column.
     // ! one matrix has only one aliasename now.
@@ -43,6 +43,30 @@ public class Constants {
 
   /** The type of the matrix */
   public final static String METADATA_TYPE = "attribute:type";
+
+  /** The modification stamp of the matrix, changed by every write */
+  public final static String METADATA_MODIFIED = "attribute:modified";
+
+  /** The cached statistics of the matrix */
+  public final static String METADATA_STATS = "attribute:stats";
+
+  /** The modification stamp the statistics were computed at */
+  public final static String METADATA_STATS_STAMP = "attribute:stats.stamp";
+
+  /** The table of the column replica of the matrix */
+  public final static String METADATA_REPLICA = "attribute:replica";
+
+  /** The modification stamp the column replica is up to date with */
+  public final static String METADATA_REPLICA_STAMP = "attribute:replica.stamp";
+
+  /** The number of iterations of the checkpointed jacobi computation */
+  public final static String METADATA_JACOBI_ITERATIONS = "attribute:jacobi.iterations";
+
+  /** The rotation state of the checkpointed jacobi computation */
+  public final static String METADATA_JACOBI_STATE = "attribute:jacobi.state";
+
+  /** The modification stamp the jacobi checkpoint was taken at */
+  public final static String METADATA_JACOBI_STAMP = "attribute:jacobi.stamp";
   
   /** The reference of the matrix */
   /** (1) when we create a Matrix object, we set up a connection to hbase table,
@@ -20,20 +20,18 @@
 package org.apache.hama;
 
 import java.io.IOException;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.Map;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.hbase.HColumnDescriptor;
 import org.apache.hadoop.hbase.HConstants;
-import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.client.HTable;
 import org.apache.hadoop.hbase.client.Scanner;
+import org.apache.hadoop.hbase.io.BatchUpdate;
 import org.apache.hadoop.hbase.io.Cell;
 import org.apache.hadoop.hbase.io.RowResult;
 import org.apache.hadoop.hbase.util.Bytes;
-import org.apache.hadoop.io.DoubleWritable;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.MapWritable;
 import org.apache.hadoop.io.NullWritable;
@@ -41,38 +39,43 @@ import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.io.SequenceFile.CompressionType;
 import org.apache.hadoop.mapred.FileInputFormat;
-import org.apache.hadoop.mapred.FileOutputFormat;
 import org.apache.hadoop.mapred.JobClient;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.SequenceFileInputFormat;
-import org.apache.hadoop.mapred.SequenceFileOutputFormat;
 import org.apache.hadoop.mapred.lib.NullOutputFormat;
-import org.apache.hama.algebra.BlockMultiplyMap;
-import org.apache.hama.algebra.BlockMultiplyReduce;
+import org.apache.hama.algebra.BlockGrid;
+import org.apache.hama.algebra.BlockTransposeMap;
+import org.apache.hama.algebra.BlockTransposeReduce;
 import org.apache.hama.algebra.DenseMatrixVectorMultMap;
 import org.apache.hama.algebra.DenseMatrixVectorMultReduce;
 import org.apache.hama.algebra.JacobiEigenValue;
+import org.apache.hama.algebra.OuterProductMultiplyMap;
+import org.apache.hama.algebra.OuterProductMultiplyReduce;
 import org.apache.hama.algebra.RowCyclicAdditionMap;
 import org.apache.hama.algebra.RowCyclicAdditionReduce;
-import org.apache.hama.io.BlockID;
-import org.apache.hama.io.BlockWritable;
+import org.apache.hama.algebra.SummaMultiplyMap;
 import org.apache.hama.io.DoubleEntry;
-import org.apache.hama.io.Pair;
 import org.apache.hama.io.VectorUpdate;
 import org.apache.hama.mapred.CollectBlocksMapper;
 import org.apache.hama.mapred.DummyMapper;
 import org.apache.hama.mapred.RandomMatrixMap;
 import org.apache.hama.mapred.RandomMatrixReduce;
 import org.apache.hama.mapred.VectorInputFormat;
+import org.apache.hama.mapred.VectorOutputFormat;
+import org.apache.hama.util.BroadcastUtil;
 import org.apache.hama.util.BytesUtil;
 import org.apache.hama.util.JobManager;
+import org.apache.hama.util.MatrixKernels;
 import org.apache.hama.util.RandomVariable;
+import org.apache.hama.util.TournamentTree;
 
 /**
  * This class represents a dense matrix.
  */
 public class DenseMatrix extends AbstractMatrix implements Matrix {
   static private final String TABLE_PREFIX = DenseMatrix.class.getSimpleName();
+  // an off-diagonal entry below this relative size is taken as zero
+  static private final double JACOBI_EPSILON = 1e-12;
   static private final Path TMP_DIR = new Path(DenseMatrix.class
       .getSimpleName()
       + "_TMP_dir");
@@ -321,7 +324,12 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
   public double get(int i, int j) throws IOException {
     if (this.getRows() < i || this.getColumns() < j)
       throw new ArrayIndexOutOfBoundsException(i + ", " + j);
+    if (transposed)
+      return getCell(j, i);
+    return getCell(i, j);
+  }
 
+  private double getCell(int i, int j) throws IOException {
     Cell c = table.get(BytesUtil.getRowIndex(i), BytesUtil.getColumnIndex(j));
     if (c == null)
       throw new NullPointerException("Unexpected null");
@@ -337,6 +345,12 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
    * @throws IOException
    */
   public DenseVector getRow(int i) throws IOException {
+    if (transposed)
+      return getTableColumn(i);
+    return getTableRow(i);
+  }
+
+  private DenseVector getTableRow(int i) throws IOException {
     return new DenseVector(table.getRow(BytesUtil.getRowIndex(i),
         new byte[][] { Bytes.toBytes(Constants.COLUMN) }));
   }
@@ -349,6 +363,16 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
    * @throws IOException
    */
   public DenseVector getColumn(int j) throws IOException {
+    if (transposed)
+      return getTableRow(j);
+    return getTableColumn(j);
+  }
+
+  private DenseVector getTableColumn(int j) throws IOException {
+    DenseMatrix columns = (DenseMatrix) getColumnReplica();
+    if (columns != null)
+      return columns.getTableRow(j);
+
     byte[] columnKey = BytesUtil.getColumnIndex(j);
     byte[][] c = { columnKey };
     Scanner scan = table.getScanner(c, HConstants.EMPTY_START_ROW);
@@ -367,9 +391,16 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
   public void set(int i, int j, double value) throws IOException {
     if (this.getRows() < i || this.getColumns() < j)
       throw new ArrayIndexOutOfBoundsException(i + ", " + j);
+    if (transposed) {
+      int t = i;
+      i = j;
+      j = t;
+    }
     VectorUpdate update = new VectorUpdate(i);
     update.put(j, value);
     table.commit(update.getBatchUpdate());
+    updateReplica(i, j, value);
+    markModified(true);
   }
 
   /**
@@ -383,9 +414,52 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
     if (this.getRows() < row || this.getColumns() < vector.size())
       throw new ArrayIndexOutOfBoundsException(row);
 
+    if (transposed)
+      setTableColumn(row, vector);
+    else
+      setTableRow(row, vector);
+    markModified(true);
+  }
+
+  private void setTableRow(int row, Vector vector) throws IOException {
     VectorUpdate update = new VectorUpdate(row);
     update.putAll(vector.getEntries());
     table.commit(update.getBatchUpdate());
+    updateReplicaColumn(row, vector.getEntries());
+  }
+
+  /**
+   * Writes the rows of a local array, starting at row i0. The commits are
+   * buffered and flushed once at the end.
+   * 
+   * @param i0 the index of the first row
+   * @param rows the values of the rows
+   * @throws IOException
+   */
+  public void setRows(int i0, double[][] rows) throws IOException {
+    table.setAutoFlush(false);
+    try {
+      for (int i = 0; i < rows.length; i++) {
+        VectorUpdate update = new VectorUpdate(i0 + i);
+        for (int j = 0; j < rows[i].length; j++)
+          update.put(j, rows[i][j]);
+        table.commit(update.getBatchUpdate());
+      }
+      table.flushCommits();
+    } finally {
+      table.setAutoFlush(true);
+    }
+
+    if (replica != null) {
+      // the rows are the columns of the replica
+      for (int j = 0; rows.length > 0 && j < rows[0].length; j++) {
+        VectorUpdate update = new VectorUpdate(j);
+        for (int i = 0; i < rows.length; i++)
+          update.put(i0 + i, rows[i][j]);
+        replica.table.commit(update.getBatchUpdate());
+      }
+    }
+    markModified(true);
   }
 
   /**
@@ -399,6 +473,14 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
     if (this.getColumns() < column || this.getRows() < vector.size())
       throw new ArrayIndexOutOfBoundsException(column);
 
+    if (transposed)
+      setTableRow(column, vector);
+    else
+      setTableColumn(column, vector);
+    markModified(true);
+  }
+
+  private void setTableColumn(int column, Vector vector) throws IOException {
     for (Map.Entry<Writable, Writable> e : vector.getEntries().entrySet()) {
       int key = ((IntWritable) e.getKey()).get();
       double value = ((DoubleEntry) e.getValue()).getValue();
@@ -406,6 +488,7 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
       update.put(column, value);
       table.commit(update.getBatchUpdate());
     }
+    updateReplicaRow(column, vector.getEntries());
   }
 
   /**
@@ -488,10 +571,16 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
       throw new IOException(
           "Matrices' rows and columns should be same while A+B.");
     }
+    if (transposed || isTransposed(m)) {
+      throw new IOException(
+          "Transposed views should be materialized by transpose() while A+B.");
+    }
   }
 
   /**
-   * C = A*B using iterative method
+   * C = A*B using iterative method. If A is a transposed view, as in A'*B or
+   * A'*A, the outer-product method is used, and if B is one, the blocking
+   * method is used, so that neither is materialized.
    * 
    * @param B
    * @return C
@@ -499,6 +588,22 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
    */
   public DenseMatrix mult(Matrix B) throws IOException {
     ensureForMultiplication(B);
+    if (B.getColumns() == 1 && B instanceof DenseMatrix) {
+      DenseVector y = mult((DenseVector) B.getColumn(0));
+      double[][] rows = new double[this.getRows()][1];
+      for (int i = 0; i < rows.length; i++) {
+        rows[i][0] = y.get(i);
+      }
+
+      DenseMatrix result = new DenseMatrix(config, this.getRows(), 1);
+      result.setRows(0, rows);
+      return result;
+    }
+    if (isTransposed(B))
+      return mult(B, config.getNumMapTasks());
+    if (transposed)
+      return outerProductMult(B);
+
     int columns = 0;
     if(B.getColumns() == 1 || this.getColumns() == 1)
       columns = 1;
@@ -527,7 +632,56 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
   }
 
   /**
-   * C = A * B using Blocking algorithm
+   * y = A*x using a single map-only job. The vector is shipped once to every
+   * map task, so this is the cheap step of iterative methods.
+   * 
+   * @param x
+   * @return y
+   * @throws IOException
+   */
+  public DenseVector mult(DenseVector x) throws IOException {
+    return multVector(x);
+  }
+
+  /**
+   * C = A*B using the outer-product method. Column k of A is joined with row
+   * k of B in the map tasks, and the rank-1 products are summed by rows of C.
+   * The multiplication is done in a single job, with a single scan of each
+   * operand. If A is a transposed view, its columns are read as rows of its
+   * table; if B is one, the blocking method is used instead.
+   * 
+   * @param B
+   * @return C
+   * @throws IOException
+   */
+  public DenseMatrix outerProductMult(Matrix B) throws IOException {
+    ensureForMultiplication(B);
+    if (isTransposed(B))
+      return mult(B, config.getNumMapTasks());
+
+    DenseMatrix result = new DenseMatrix(config, this.getRows(), B
+        .getColumns());
+
+    JobConf jobConf = new JobConf(config);
+    jobConf.setJobName("outer-product multiplication MR job : "
+        + result.getPath());
+
+    jobConf.setNumMapTasks(config.getNumMapTasks());
+    jobConf.setNumReduceTasks(config.getNumReduceTasks());
+
+    OuterProductMultiplyMap.initJob(this.getPath(), transposed, B.getPath(),
+        B.getColumns(), OuterProductMultiplyMap.class, IntWritable.class,
+        MapWritable.class, jobConf);
+    OuterProductMultiplyReduce.initJob(result.getPath(),
+        OuterProductMultiplyReduce.class, jobConf);
+
+    JobManager.execute(jobConf);
+    return result;
+  }
+
+  /**
+   * C = A * B using Blocking algorithm. The grid is chosen from the shapes of
+   * A and B, so that C is split into at most the given number of blocks.
    * 
    * @param B
    * @param blocks the number of blocks
@@ -536,32 +690,65 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
    */
   public DenseMatrix mult(Matrix B, int blocks) throws IOException {
     ensureForMultiplication(B);
+    return mult(B, BlockGrid.choose(this.getRows(), this.getColumns(), B
+        .getColumns(), blocks, config.getInt(BlockGrid.BLOCK_SIZE,
+        BlockGrid.DEFAULT_BLOCK_SIZE)));
+  }
 
-    String collectionTable = "collect_" + RandomVariable.randMatrixPath();
-    HTableDescriptor desc = new HTableDescriptor(collectionTable);
-    desc.addFamily(new HColumnDescriptor(Bytes.toBytes(Constants.BLOCK)));
-    this.admin.createTable(desc);
-    LOG.info("Collect Blocks");
-
-    collectBlocksMapRed(this.getPath(), collectionTable, blocks, true);
-    collectBlocksMapRed(B.getPath(), collectionTable, blocks, false);
+  /**
+   * C = A * B using Blocking algorithm on a p x q x r grid. C is split into p
+   * x r blocks, each computed by a map task which streams through q panels of
+   * A's columns and B's rows.
+   * 
+   * @param B
+   * @param p the number of row blocks
+   * @param q the number of inner panels
+   * @param r the number of column blocks
+   * @return C
+   * @throws IOException
+   */
+  public DenseMatrix mult(Matrix B, int p, int q, int r) throws IOException {
+    ensureForMultiplication(B);
+    return mult(B, new BlockGrid(this.getRows(), this.getColumns(), B
+        .getColumns(), p, q, r));
+  }
 
-    DenseMatrix result = new DenseMatrix(config, this.getRows(), this
+  private DenseMatrix mult(Matrix B, BlockGrid grid) throws IOException {
+    DenseMatrix result = new DenseMatrix(config, this.getRows(), B
         .getColumns());
+    LOG.info("Multiply on the " + grid + " grid : " + result.getPath());
 
     JobConf jobConf = new JobConf(config);
     jobConf.setJobName("multiplication MR job : " + result.getPath());
+    jobConf.setNumMapTasks(grid.getRowBlocks() * grid.getColumnBlocks());
+    jobConf.setSpeculativeExecution(false);
 
-    jobConf.setNumMapTasks(config.getNumMapTasks());
-    jobConf.setNumReduceTasks(config.getNumReduceTasks());
+    // generate an input file for each block of C
+    final FileSystem fs = FileSystem.get(jobConf);
+    Path inDir = new Path(getType() + "_TMP_Blocks_dir_"
+        + System.currentTimeMillis());
+    for (int i = 0; i < grid.getRowBlocks(); i++) {
+      for (int j = 0; j < grid.getColumnBlocks(); j++) {
+        SequenceFile.Writer writer = SequenceFile.createWriter(fs, jobConf,
+            new Path(inDir, "block_" + i + "_" + j), IntWritable.class,
+            IntWritable.class, CompressionType.NONE);
+        try {
+          writer.append(new IntWritable(i), new IntWritable(j));
+        } finally {
+          writer.close();
+        }
+      }
+    }
 
-    BlockMultiplyMap.initJob(collectionTable, BlockMultiplyMap.class,
-        BlockID.class, BlockWritable.class, jobConf);
-    BlockMultiplyReduce.initJob(result.getPath(), BlockMultiplyReduce.class,
+    SummaMultiplyMap.initJob(this.getPath(), transposed, B.getPath(),
+        isTransposed(B), grid, inDir, result.getPath(), SummaMultiplyMap.class,
         jobConf);
 
-    JobManager.execute(jobConf);
-    hamaAdmin.delete(collectionTable);
+    try {
+      JobManager.execute(jobConf);
+    } finally {
+      fs.delete(inDir, true);
+    }
     return result;
   }
 
@@ -571,8 +758,15 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
     }
   }
 
+  private static boolean isTransposed(Matrix m) {
+    return m instanceof AbstractMatrix && ((AbstractMatrix) m).isTransposed();
+  }
+
   /**
-   * C = alpha*A*B + C
+   * C = alpha*A*B + C, in a single outer-product job. The scaling and the rows
+   * of C are folded into its reduce step, and C is updated in place. A may be
+   * a transposed view; a transposed view B is materialized for the job. C
+   * can't be a view, since its rows are written in the table orientation.
    * 
    * @param alpha
    * @param B
@@ -581,26 +775,118 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
    * @throws IOException
    */
   public Matrix multAdd(double alpha, Matrix B, Matrix C) throws IOException {
-    // TODO Auto-generated method stub
-    return null;
+    ensureForMultiplication(B);
+    if (C.getRows() != this.getRows() || C.getColumns() != B.getColumns()) {
+      throw new IOException(
+          "C's rows and columns should equal with A*B's while C += A*B.");
+    }
+    if (isTransposed(C)) {
+      throw new IOException(
+          "Transposed views should be materialized by transpose() while C += A*B.");
+    }
+
+    if (isTransposed(B)) {
+      DenseMatrix b = ((DenseMatrix) B).transposeView().transpose();
+      try {
+        return multAdd(alpha, b, C);
+      } finally {
+        b.close();
+      }
+    }
+
+    JobConf jobConf = new JobConf(config);
+    jobConf.setJobName("multiplication-addition MR job : " + C.getPath());
+
+    jobConf.setNumMapTasks(config.getNumMapTasks());
+    jobConf.setNumReduceTasks(config.getNumReduceTasks());
+
+    OuterProductMultiplyMap.initJob(this.getPath(), transposed, B.getPath(),
+        B.getColumns(), OuterProductMultiplyMap.class, IntWritable.class,
+        MapWritable.class, jobConf);
+    OuterProductMultiplyReduce.initJob(C.getPath(), alpha,
+        C instanceof SparseMatrix, OuterProductMultiplyReduce.class, jobConf);
+
+    JobManager.execute(jobConf);
+    if (C instanceof AbstractMatrix)
+      ((AbstractMatrix) C).markModified();
+    return C;
   }
 
   /**
-   * Computes the given norm of the matrix
+   * Computes the given norm of the matrix, from its cached statistics. The one
+   * and infinity norms of a transposed view are the infinity and one norms of
+   * its table.
    * 
    * @param type
    * @return norm of the matrix
    * @throws IOException
    */
   public double norm(Norm type) throws IOException {
-    if (type == Norm.One)
-      return getNorm1();
-    else if (type == Norm.Frobenius)
-      return getFrobenius();
-    else if (type == Norm.Infinity)
-      return getInfinity();
-    else
-      return getMaxvalue();
+    if (transposed && type == Norm.One)
+      type = Norm.Infinity;
+    else if (transposed && type == Norm.Infinity)
+      type = Norm.One;
+    return getStats().norm(type);
+  }
+
+  /**
+   * Transposes the matrix by tiles. The rows are cut into tile-size bands,
+   * each map task reads the tiles of its bands one at a time, and emits them
+   * transposed, to be written as blocks of rows of the result. The transpose
+   * of a transposed view is a copy of its table.
+   * 
+   * @return the transposed matrix
+   * @throws IOException
+   */
+  public DenseMatrix transpose() throws IOException {
+    if (transposed) {
+      DenseMatrix result = new DenseMatrix(config, this.getColumns(), this
+          .getRows());
+      // the table, read as it is stored
+      result.set(new DenseMatrix(config, getPath()));
+      return result;
+    }
+
+    int tileSize = config.getInt(BlockTransposeMap.TILE_SIZE,
+        BlockTransposeMap.DEFAULT_TILE_SIZE);
+    DenseMatrix result = new DenseMatrix(config, this.getColumns(), this
+        .getRows());
+
+    JobConf jobConf = new JobConf(config);
+    jobConf.setJobName("transpose MR job : " + result.getPath());
+
+    jobConf.setNumMapTasks(config.getNumMapTasks());
+    jobConf.setNumReduceTasks(config.getNumReduceTasks());
+
+    int bands = (this.getRows() + tileSize - 1) / tileSize;
+    Path inDir = writeRanges(jobConf, "transpose", bands, config
+        .getNumMapTasks());
+    BlockTransposeMap.initJob(this.getPath(), this.getRows(), this
+        .getColumns(), tileSize, inDir, BlockTransposeMap.class, jobConf);
+    BlockTransposeReduce.initJob(result.getPath(), BlockTransposeReduce.class,
+        jobConf);
+
+    try {
+      JobManager.execute(jobConf);
+    } finally {
+      FileSystem.get(jobConf).delete(inDir, true);
+    }
+    return result;
+  }
+
+  /**
+   * Returns a transposed view of the matrix, which shares its table. The view
+   * reads the table in the transposed orientation, so A'*B, A'*A and A'*x
+   * need no transpose job or temporary table. The view of a view is a plain
+   * handle of the table, and closing a view doesn't release the table.
+   * 
+   * @return the transposed view
+   * @throws IOException
+   */
+  public DenseMatrix transposeView() throws IOException {
+    DenseMatrix view = new DenseMatrix(config, matrixPath);
+    view.transposed = !transposed;
+    return view;
   }
 
   /**
@@ -622,29 +908,17 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
    * @throws IOException
    */
   public SubMatrix subMatrix(int i0, int i1, int j0, int j1) throws IOException {
-    int columnSize = (j1 - j0) + 1;
-    SubMatrix result = new SubMatrix((i1 - i0) + 1, columnSize);
-
-    byte[][] cols = new byte[columnSize][];
-    for (int j = j0, jj = 0; j <= j1; j++, jj++) {
-      cols[jj] = BytesUtil.getColumnIndex(j);
-    }
-
-    Scanner scan = table.getScanner(cols, BytesUtil.getRowIndex(i0), BytesUtil
-        .getRowIndex(i1 + 1));
-    Iterator<RowResult> it = scan.iterator();
-    int i = 0;
-    RowResult rs = null;
-    while (it.hasNext()) {
-      rs = it.next();
-      for (int j = j0, jj = 0; j <= j1; j++, jj++) {
-        result.set(i, jj, rs.get(BytesUtil.getColumnIndex(j)).getValue());
+    if (transposed) {
+      double[][] block = subTable(j0, j1, i0, i1).getDoubleArray();
+      SubMatrix result = new SubMatrix(i1 - i0 + 1, j1 - j0 + 1);
+      for (int i = 0; i < block.length; i++) {
+        for (int j = 0; j < block[i].length; j++) {
+          result.set(j, i, block[i][j]);
+        }
       }
-      i++;
+      return result;
     }
-
-    scan.close();
-    return result;
+    return subTable(i0, i1, j0, j1);
   }
 
   /**
@@ -688,36 +962,43 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
    * TODO: we may need to expose the interface to access the eigen values and
    * vectors
    * 
+   * A matrix which fits in memory (see {@link LocalDenseMatrix#MAX_CELLS}) is
+   * read once, solved on the client, and written back in one bulk write.
+   * 
    * @param imax limit the loops of the computation
    * @throws IOException
    */
   public void jacobiEigenValue(int imax) throws IOException {
-    JobConf jobConf = new JobConf(config);
-
-    /***************************************************************************
-     * Initialization
-     * 
-     * A M/R job is used for initialization(such as, preparing a matrx copy of
-     * the original in "eicol:" family.)
-     **************************************************************************/
-    // initialization
-    jobConf.setJobName("JacobiEigen initialization MR job" + getPath());
-
-    jobConf.setMapperClass(JacobiEigenValue.InitMapper.class);
-    jobConf.setInputFormat(VectorInputFormat.class);
-    jobConf.set(VectorInputFormat.COLUMN_LIST, Constants.COLUMN);
-
-    FileInputFormat.addInputPaths(jobConf, getPath());
-    jobConf.set(JacobiEigenValue.MATRIX, getPath());
-    jobConf.setOutputFormat(NullOutputFormat.class);
-    jobConf.setMapOutputKeyClass(IntWritable.class);
-    jobConf.setMapOutputValueClass(MapWritable.class);
+    jacobiEigenValue(imax, Long.MAX_VALUE);
+  }
 
-    JobManager.execute(jobConf);
+  /**
+   * Compute all the eigen values in a bounded time slice. The distributed
+   * iterations checkpoint their state (the iteration count and the rotation
+   * state) to the matrix metadata after every iteration, and a later call
+   * resumes from the checkpoint instead of starting over, as long as the
+   * matrix hasn't been modified since. So a long computation may be run in
+   * slices, and survives a crash of the client. An iteration interrupted
+   * half-way invalidates the checkpoint.
+   * 
+   * @param imax limit the loops of the whole computation
+   * @param timeout the time slice in milliseconds, checked between the
+   *          iterations; a slice runs at least one iteration
+   * @return true if the computation is done, false if the slice ran out first
+   * @throws IOException
+   */
+  public boolean jacobiEigenValue(int imax, long timeout) throws IOException {
+    long start = System.currentTimeMillis();
+    int n = this.getRows();
+    if (n > 0
+        && (long) n * n <= config.getInt(LocalDenseMatrix.MAX_CELLS,
+            LocalDenseMatrix.DEFAULT_MAX_CELLS)) {
+      clearJacobiCheckpoint();
+      localJacobiEigenValue(n, imax);
+      return true;
+    }
 
-    final FileSystem fs = FileSystem.get(jobConf);
-    Pair pivotPair = new Pair();
-    DoubleWritable pivotWritable = new DoubleWritable();
+    JobConf jobConf;
     VectorUpdate vu;
 
     // loop
@@ -728,55 +1009,38 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
     double s, c, t, y;
 
     int icount = 0;
+    int[] checkpoint = loadJacobiCheckpoint();
+    if (checkpoint != null) {
+      icount = checkpoint[0];
+      state = checkpoint[1];
+      LOG.info("resuming jacobi eigen value from the iteration " + icount);
+    } else {
+      initJacobi();
+    }
+
+    TournamentTree pivots = buildPivots(size);
+
+    int slice = 0;
     while (state != 0  && icount < imax) {
+      if (slice > 0 && System.currentTimeMillis() - start >= timeout)
+        return false; // resumed from the checkpoint by the next call
+      slice = slice + 1;
       icount = icount + 1;
       /*************************************************************************
        * Find the pivot and its index(pivot_row, pivot_col)
        * 
-       * A M/R job is used to scan all the "eival:ind" to get the max absolute
-       * value of each row, and do a MAX aggregation of these max values to get
-       * the max value in the matrix.
+       * The entries (i, "eival:ind") of the rows are kept in a tournament
+       * tree, whose root is the max absolute value in the matrix.
        ************************************************************************/
-      jobConf = new JobConf(config);
-      jobConf.setJobName("Find Pivot MR job" + getPath());
-
-      jobConf.setNumReduceTasks(1);
-
-      Path outDir = new Path(new Path(getType() + "_TMP_FindPivot_dir_"
-          + System.currentTimeMillis()), "out");
-      if (fs.exists(outDir))
-        fs.delete(outDir, true);
-
-      jobConf.setMapperClass(JacobiEigenValue.PivotMapper.class);
-      jobConf.setInputFormat(JacobiEigenValue.PivotInputFormat.class);
-      jobConf.set(JacobiEigenValue.PivotInputFormat.COLUMN_LIST,
-          JacobiEigenValue.EIIND);
-      FileInputFormat.addInputPaths(jobConf, getPath());
-      jobConf.setMapOutputKeyClass(Pair.class);
-      jobConf.setMapOutputValueClass(DoubleWritable.class);
-
-      jobConf.setOutputKeyClass(Pair.class);
-      jobConf.setOutputValueClass(DoubleWritable.class);
-      jobConf.setOutputFormat(SequenceFileOutputFormat.class);
-      FileOutputFormat.setOutputPath(jobConf, outDir);
-
-      // update the out put dir of the job
-      outDir = FileOutputFormat.getOutputPath(jobConf);
-
-      JobManager.execute(jobConf);
-
-      // read outputs
-      Path inFile = new Path(outDir, "part-00000");
-      SequenceFile.Reader reader = new SequenceFile.Reader(fs, inFile, jobConf);
-      try {
-        reader.next(pivotPair, pivotWritable);
-        pivot_row = pivotPair.getRow();
-        pivot_col = pivotPair.getColumn();
-        pivot = pivotWritable.get();
-      } finally {
-        reader.close();
+      int m = pivots.max();
+      if (m < 0 || pivots.getValue(m) == 0) {
+        pivot_row = pivot_col = 0;
+        pivot = 0;
+      } else {
+        pivot_row = m;
+        pivot_col = pivots.getColumn(m);
+        pivot = pivots.getValue(m);
       }
-      fs.delete(outDir.getParent(), true);
 
       /*************************************************************************
        * Calculation
@@ -804,6 +1068,11 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
         t = -t;
       }
 
+      // the tables are inconsistent until the iteration is done
+      BatchUpdate open = new BatchUpdate(Constants.METADATA);
+      open.delete(Constants.METADATA_JACOBI_STAMP);
+      table.commit(open);
+
       /*************************************************************************
        * Upate the pivot and the eigen values indexed by the pivot
        ************************************************************************/
@@ -838,47 +1107,296 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
 
       JobManager.execute(jobConf);
 
-      // rotate eigenvectors
+      // rotate eigenvectors, reading and writing each of the two rows at once
       LOG.info("rotating eigenvector");
+      double[] v1 = getJacobiRow(pivot_row, JacobiEigenValue.EIVEC, size);
+      double[] v2 = getJacobiRow(pivot_col, JacobiEigenValue.EIVEC, size);
+      VectorUpdate vu1 = new VectorUpdate(pivot_row);
+      VectorUpdate vu2 = new VectorUpdate(pivot_col);
       for (int i = 0; i < size; i++) {
-        e1 = BytesUtil.bytesToDouble(table.get(
-            BytesUtil.getRowIndex(pivot_row),
-            Bytes.toBytes(JacobiEigenValue.EIVEC + i)).getValue());
-        e2 = BytesUtil.bytesToDouble(table.get(
-            BytesUtil.getRowIndex(pivot_col),
-            Bytes.toBytes(JacobiEigenValue.EIVEC + i)).getValue());
-
-        vu = new VectorUpdate(pivot_row);
-        vu.put(JacobiEigenValue.EIVEC, i, c * e1 - s * e2);
-        table.commit(vu.getBatchUpdate());
-
-        vu = new VectorUpdate(pivot_col);
-        vu.put(JacobiEigenValue.EIVEC, i, s * e1 + c * e2);
-        table.commit(vu.getBatchUpdate());
+        vu1.put(JacobiEigenValue.EIVEC, i, c * v1[i] - s * v2[i]);
+        vu2.put(JacobiEigenValue.EIVEC, i, s * v1[i] + c * v2[i]);
       }
+      table.commit(vu1.getBatchUpdate());
+      table.commit(vu2.getBatchUpdate());
 
       LOG.info("update index...");
       // update index array
-      maxind(pivot_row, size);
-      maxind(pivot_col, size);
+      maxind(pivot_row, size, pivots);
+      maxind(pivot_col, size, pivots);
+
+      // the rotation changed the entries of the other rows in the pivot
+      // columns, so the rows indexed on them are read again
+      for (int i = 0; i < pivots.size(); i++) {
+        int j = pivots.getColumn(i);
+        if (i != pivot_row && i != pivot_col
+            && (j == pivot_row || j == pivot_col)) {
+          Cell cell = table.get(BytesUtil.getRowIndex(i), Bytes
+              .toBytes(JacobiEigenValue.EICOL + j));
+          pivots.set(i, j, (cell != null) ? BytesUtil.bytesToDouble(cell
+              .getValue()) : 0);
+        }
+      }
+
+      saveJacobiCheckpoint(icount, state);
     }
+
+    clearJacobiCheckpoint();
+    return true;
+  }
+
+  /**
+   * Reads the checkpoint of the jacobi computation.
+   * 
+   * @return the iteration count and the rotation state, or null if there is
+   *         no checkpoint of the current version of the matrix
+   * @throws IOException
+   */
+  private int[] loadJacobiCheckpoint() throws IOException {
+    RowResult row = table.getRow(Constants.METADATA, new String[] {
+        Constants.METADATA_JACOBI_ITERATIONS, Constants.METADATA_JACOBI_STATE,
+        Constants.METADATA_JACOBI_STAMP, Constants.METADATA_MODIFIED });
+    if (row == null || row.get(Constants.METADATA_JACOBI_STAMP) == null
+        || row.get(Constants.METADATA_JACOBI_ITERATIONS) == null
+        || row.get(Constants.METADATA_JACOBI_STATE) == null)
+      return null;
+    if (!MatrixStats.getStamp(row.get(Constants.METADATA_MODIFIED)).equals(
+        MatrixStats.getStamp(row.get(Constants.METADATA_JACOBI_STAMP))))
+      return null;
+
+    return new int[] {
+        BytesUtil.bytesToInt(row.get(Constants.METADATA_JACOBI_ITERATIONS)
+            .getValue()),
+        BytesUtil.bytesToInt(row.get(Constants.METADATA_JACOBI_STATE)
+            .getValue()) };
+  }
+
+  /**
+   * Writes the checkpoint of the jacobi computation, stamped with the current
+   * version of the matrix.
+   * 
+   * @throws IOException
+   */
+  private void saveJacobiCheckpoint(int icount, int state) throws IOException {
+    Cell stamp = table.get(Constants.METADATA, Constants.METADATA_MODIFIED);
+    VectorUpdate update = new VectorUpdate(Constants.METADATA);
+    update.put(Constants.METADATA_JACOBI_ITERATIONS, icount);
+    update.put(Constants.METADATA_JACOBI_STATE, state);
+    update.put(Constants.METADATA_JACOBI_STAMP, MatrixStats.getStamp(stamp));
+    table.commit(update.getBatchUpdate());
   }
 
-  void maxind(int row, int size) throws IOException {
+  private void clearJacobiCheckpoint() throws IOException {
+    BatchUpdate update = new BatchUpdate(Constants.METADATA);
+    update.delete(Constants.METADATA_JACOBI_ITERATIONS);
+    update.delete(Constants.METADATA_JACOBI_STATE);
+    update.delete(Constants.METADATA_JACOBI_STAMP);
+    table.commit(update);
+  }
+
+  /**
+   * Builds the tournament tree of the pivot candidates (i, "eival:ind") of
+   * the rows but the last, with a single scan of the "eicol" family.
+   * 
+   * @param size the number of rows
+   * @return the tournament tree
+   * @throws IOException
+   */
+  private TournamentTree buildPivots(int size) throws IOException {
+    TournamentTree pivots = new TournamentTree(Math.max(0, size - 1));
+    Scanner scan = table.getScanner(new byte[][] {
+        Bytes.toBytes(JacobiEigenValue.EIIND),
+        Bytes.toBytes(JacobiEigenValue.EICOL) }, HConstants.EMPTY_START_ROW);
+    try {
+      for (RowResult row : scan) {
+        Cell ind = row.get(Bytes.toBytes(JacobiEigenValue.EIIND));
+        int i = BytesUtil.getRowIndex(row.getRow());
+        if (ind == null || i >= pivots.size())
+          continue;
+
+        int j = BytesUtil.bytesToInt(ind.getValue());
+        Cell cell = row.get(Bytes.toBytes(JacobiEigenValue.EICOL + j));
+        pivots.set(i, j, (cell != null) ? BytesUtil.bytesToDouble(cell
+            .getValue()) : 0);
+      }
+    } finally {
+      scan.close();
+    }
+    return pivots;
+  }
+
+  /**
+   * Initialization
+   * 
+   * A M/R job is used for initialization(such as, preparing a matrx copy of
+   * the original in "eicol:" family.)
+   */
+  private void initJacobi() throws IOException {
+    clearJacobiCheckpoint();
+
+    JobConf jobConf = new JobConf(config);
+    jobConf.setJobName("JacobiEigen initialization MR job" + getPath());
+
+    jobConf.setMapperClass(JacobiEigenValue.InitMapper.class);
+    jobConf.setInputFormat(VectorInputFormat.class);
+    jobConf.set(VectorInputFormat.COLUMN_LIST, Constants.COLUMN);
+
+    FileInputFormat.addInputPaths(jobConf, getPath());
+    jobConf.set(JacobiEigenValue.MATRIX, getPath());
+    jobConf.setOutputFormat(NullOutputFormat.class);
+    jobConf.setMapOutputKeyClass(IntWritable.class);
+    jobConf.setMapOutputValueClass(MapWritable.class);
+
+    JobManager.execute(jobConf);
+  }
+
+  /**
+   * Compute all the eigen values by the parallel ordering of the cyclic
+   * Jacobi method. Each round applies n/2 disjoint rotations, which zero the
+   * entries of the pairs of a round-robin schedule, in a single map-only pass
+   * over the "eicol" and "eivec" families. A sweep of n - 1 rounds meets
+   * every pair once, and the iterations stop when a sweep has nothing left to
+   * rotate. The eigen values and vectors are collected in the same columns as
+   * {@link #jacobiEigenValue(int)}.
+   * 
+   * @param sweeps limit the sweeps of the computation
+   * @return the number of sweeps
+   * @throws IOException
+   */
+  public int parallelJacobiEigenValue(int sweeps) throws IOException {
+    initJacobi();
+
+    int n = this.getRows();
+    int rounds = n - 1 + (n % 2);
+    JobConf rangeConf = new JobConf(config);
+    Path inDir = writeRanges(rangeConf, "jacobi", (n + 1) / 2, config
+        .getNumMapTasks());
+    Path angles = new Path(getType() + "_TMP_jacobi_angles_"
+        + System.currentTimeMillis());
+
+    int sweep = 0;
+    try {
+      boolean rotated = true;
+      while (rotated && sweep < sweeps) {
+        sweep++;
+        rotated = false;
+        for (int round = 0; round < rounds; round++) {
+          double[][] cs = roundAngles(n, round);
+          if (cs == null)
+            continue;
+          rotated = true;
+
+          JobConf jobConf = new JobConf(config);
+          jobConf.setJobName("Jacobi round MR job : " + getPath());
+          jobConf.setNumMapTasks(config.getNumMapTasks());
+          jobConf.set(JacobiEigenValue.MATRIX, getPath());
+          jobConf.setInt(JacobiEigenValue.ROUND, round);
+          BroadcastUtil.broadcast(jobConf, JacobiEigenValue.ROUND_ANGLES,
+              angles, cs);
+
+          jobConf.setMapperClass(JacobiEigenValue.RoundMapper.class);
+          jobConf.setInputFormat(SequenceFileInputFormat.class);
+          FileInputFormat.setInputPaths(jobConf, inDir);
+          jobConf.setNumReduceTasks(0);
+          jobConf.setOutputFormat(VectorOutputFormat.class);
+          jobConf.set(VectorOutputFormat.OUTPUT_TABLE, getPath());
+          jobConf.setOutputKeyClass(IntWritable.class);
+          jobConf.setOutputValueClass(VectorUpdate.class);
+
+          JobManager.execute(jobConf);
+        }
+      }
+    } finally {
+      FileSystem fs = FileSystem.get(config);
+      fs.delete(inDir, true);
+      fs.delete(angles, true);
+    }
+    return sweep;
+  }
+
+  /**
+   * Computes the rotations of a round from the entries (p, p), (q, q) and
+   * (p, q) of its pairs, which are read with one lookup per index.
+   * 
+   * @return the cosines and sines, or null if no pair needs a rotation
+   */
+  private double[][] roundAngles(int n, int round) throws IOException {
+    double[][] cs = new double[2][n];
+    Arrays.fill(cs[0], 1);
+    boolean rotated = false;
+    for (int[] pair : JacobiEigenValue.roundRobin(n, round)) {
+      int p = pair[0], q = pair[1];
+      if (q < 0)
+        continue;
+
+      RowResult row = table.getRow(BytesUtil.getRowIndex(p), new byte[][] {
+          Bytes.toBytes(JacobiEigenValue.EICOL + p),
+          Bytes.toBytes(JacobiEigenValue.EICOL + q) });
+      double app = BytesUtil.bytesToDouble(row.get(
+          Bytes.toBytes(JacobiEigenValue.EICOL + p)).getValue());
+      double apq = BytesUtil.bytesToDouble(row.get(
+          Bytes.toBytes(JacobiEigenValue.EICOL + q)).getValue());
+      double aqq = BytesUtil.bytesToDouble(table.get(
+          BytesUtil.getRowIndex(q), Bytes.toBytes(JacobiEigenValue.EICOL + q))
+          .getValue());
+      if (Math.abs(apq) <= JACOBI_EPSILON * Math.sqrt(Math.abs(app * aqq)))
+        continue;
+
+      double y = (aqq - app) / 2;
+      double t = Math.abs(y) + Math.sqrt(apq * apq + y * y);
+      double s = Math.sqrt(apq * apq + t * t);
+      double c = t / s;
+      s = apq / s;
+      if (y < 0)
+        s = -s;
+
+      cs[0][p] = cs[0][q] = c;
+      cs[1][p] = cs[1][q] = s;
+      rotated = true;
+    }
+    return rotated ? cs : null;
+  }
+
+  /**
+   * Runs the Jacobi iterations on a local copy of the matrix, with the
+   * rotations split over {@link LocalDenseMatrix#THREADS} threads, and writes
+   * the eigen values and vectors back with buffered commits.
+   */
+  private void localJacobiEigenValue(int size, int imax) throws IOException {
+    double[][] a = subMatrix(0, size - 1, 0, size - 1).getDoubleArray();
+    double[] e = new double[size];
+    double[][] v = new double[size][size];
+    int icount = MatrixKernels.jacobiEigenValue(a, e, v, imax, config.getInt(
+        LocalDenseMatrix.THREADS, LocalDenseMatrix.DEFAULT_THREADS));
+    LOG.info("local jacobi eigen value : " + icount + " iterations");
+
+    table.setAutoFlush(false);
+    try {
+      for (int i = 0; i < size; i++) {
+        VectorUpdate vu = new VectorUpdate(i);
+        vu.put(JacobiEigenValue.EIVAL, e[i]);
+        for (int j = 0; j < size; j++)
+          vu.put(JacobiEigenValue.EIVEC, j, v[i][j]);
+        table.commit(vu.getBatchUpdate());
+      }
+      table.flushCommits();
+    } finally {
+      table.setAutoFlush(true);
+    }
+  }
+
+  void maxind(int row, int size, TournamentTree pivots) throws IOException {
     int m = row + 1;
-    if (row + 2 < size) {
-      double max = BytesUtil.bytesToDouble(table
-          .get(BytesUtil.getRowIndex(row),
-              Bytes.toBytes(JacobiEigenValue.EICOL + m)).getValue());
-      double val;
+    if (row + 1 < size) {
+      double[] a = getJacobiRow(row, JacobiEigenValue.EICOL, size);
+      double max = a[m];
       for (int i = row + 2; i < size; i++) {
-        val = BytesUtil.bytesToDouble(table.get(BytesUtil.getRowIndex(row),
-            Bytes.toBytes(JacobiEigenValue.EICOL + i)).getValue());
-        if (Math.abs(val) > Math.abs(max)) {
+        if (Math.abs(a[i]) > Math.abs(max)) {
           m = i;
-          max = val;
+          max = a[i];
         }
       }
+      pivots.set(row, m, max);
     }
 
     VectorUpdate vu = new VectorUpdate(row);
@@ -886,6 +1404,24 @@ public class DenseMatrix extends AbstractMatrix implements Matrix {
     table.commit(vu.getBatchUpdate());
   }
 
+  /**
+   * Reads a row of a family of the jacobi computation, such as "eicol" or
+   * "eivec", with a single lookup.
+   * 
+   * @param row the row index
+   * @param family the family
+   * @param size the number of columns
+   * @return the row, with missing cells as zero
+   * @throws IOException
+   */
+  private double[] getJacobiRow(int row, String family, int size)
+      throws IOException {
+    double[] x = new double[size];
+    JacobiEigenValue.decodeRow(table.getRow(BytesUtil.getRowIndex(row),
+        new byte[][] { Bytes.toBytes(family) }), family, x);
+    return x;
+  }
+
   int update(int row, double value, int state) throws IOException {
     double e = BytesUtil.bytesToDouble(table.get(BytesUtil.getRowIndex(row),
         Bytes.toBytes(JacobiEigenValue.EIVAL)).getValue());
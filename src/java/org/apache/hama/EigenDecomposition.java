@@ -0,0 +1,64 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama;
+
+/**
+ * The k eigen pairs of a symmetric matrix: the eigen values, in decreasing
+ * order of their magnitude, and the eigen vectors, as the columns of an n-by-k
+ * matrix.
+ */
+public class EigenDecomposition {
+  private double[] values;
+  private LocalDenseMatrix vectors;
+
+  /**
+   * Constructor
+   *
+   * @param values the eigen values
+   * @param vectors the eigen vectors, one per column
+   */
+  public EigenDecomposition(double[] values, LocalDenseMatrix vectors) {
+    this.values = values;
+    this.vectors = vectors;
+  }
+
+  /** @return the number of eigen pairs */
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * @param i the index of the eigen pair
+   * @return the eigen value
+   */
+  public double getEigenValue(int i) {
+    return values[i];
+  }
+
+  /** @return the eigen values */
+  public double[] getEigenValues() {
+    return values;
+  }
+
+  /** @return the eigen vectors, one per column */
+  public LocalDenseMatrix getEigenVectors() {
+    return vectors;
+  }
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama;
+
+import java.io.IOException;
+
+/**
+ * A function applied to each entry of a matrix. The built-in functions are
+ * encoded by name and parameter, so they can be shipped to the map tasks
+ * through the job configuration. Other functions extend this class with a
+ * public constructor without arguments, and implement {@link #apply(double)}.
+ */
+public abstract class ElementFunction {
+  public static final ElementFunction ABS = new Builtin(Op.ABS, 0);
+  public static final ElementFunction SQRT = new Builtin(Op.SQRT, 0);
+  public static final ElementFunction EXP = new Builtin(Op.EXP, 0);
+  public static final ElementFunction LOG = new Builtin(Op.LOG, 0);
+  public static final ElementFunction SQUARE = new Builtin(Op.SQUARE, 0);
+  public static final ElementFunction NEGATE = new Builtin(Op.NEGATE, 0);
+  public static final ElementFunction RECIPROCAL = new Builtin(Op.RECIPROCAL,
+      0);
+  public static final ElementFunction SIGNUM = new Builtin(Op.SIGNUM, 0);
+
+  /**
+   * x * alpha
+   * 
+   * @param alpha
+   * @return the function
+   */
+  public static ElementFunction scale(double alpha) {
+    return new Builtin(Op.SCALE, alpha);
+  }
+
+  /**
+   * x + alpha
+   * 
+   * @param alpha
+   * @return the function
+   */
+  public static ElementFunction shift(double alpha) {
+    return new Builtin(Op.SHIFT, alpha);
+  }
+
+  /**
+   * x ^ p
+   * 
+   * @param p
+   * @return the function
+   */
+  public static ElementFunction pow(double p) {
+    return new Builtin(Op.POW, p);
+  }
+
+  /**
+   * max(x, alpha)
+   * 
+   * @param alpha
+   * @return the function
+   */
+  public static ElementFunction max(double alpha) {
+    return new Builtin(Op.MAX, alpha);
+  }
+
+  /**
+   * min(x, alpha)
+   * 
+   * @param alpha
+   * @return the function
+   */
+  public static ElementFunction min(double alpha) {
+    return new Builtin(Op.MIN, alpha);
+  }
+
+  /**
+   * Applies the function to an entry.
+   * 
+   * @param x the value of the entry
+   * @return the new value of the entry
+   */
+  public abstract double apply(double x);
+
+  /**
+   * Returns the encoded function, which is decoded by {@link #decode(String)}.
+   * 
+   * @return the name of the function, and its parameter if it has one
+   */
+  public String encode() {
+    return getClass().getName();
+  }
+
+  /**
+   * Decodes a function encoded by {@link #encode()}.
+   * 
+   * @param function the encoded function
+   * @return the function
+   * @throws IOException if the function is unknown
+   */
+  public static ElementFunction decode(String function) throws IOException {
+    int p = function.indexOf('(');
+    boolean parameterized = p > 0 && function.endsWith(")");
+    Op op = Op.forName(parameterized ? function.substring(0, p) : function);
+    if (op != null && op.parameterized == parameterized) {
+      return new Builtin(op, parameterized ? Double.parseDouble(function
+          .substring(p + 1, function.length() - 1)) : 0);
+    }
+
+    try {
+      return Class.forName(function).asSubclass(ElementFunction.class)
+          .getDeclaredConstructor().newInstance();
+    } catch (Exception e) {
+      throw new IOException("Unknown element function : " + function);
+    }
+  }
+
+  public String toString() {
+    return encode();
+  }
+
+  /** The built-in functions, and whether they take a parameter. */
+  private enum Op {
+    ABS(false) {
+      double apply(double x, double alpha) {
+        return Math.abs(x);
+      }
+    },
+    SQRT(false) {
+      double apply(double x, double alpha) {
+        return Math.sqrt(x);
+      }
+    },
+    EXP(false) {
+      double apply(double x, double alpha) {
+        return Math.exp(x);
+      }
+    },
+    LOG(false) {
+      double apply(double x, double alpha) {
+        return Math.log(x);
+      }
+    },
+    SQUARE(false) {
+      double apply(double x, double alpha) {
+        return x * x;
+      }
+    },
+    NEGATE(false) {
+      double apply(double x, double alpha) {
+        return -x;
+      }
+    },
+    RECIPROCAL(false) {
+      double apply(double x, double alpha) {
+        return 1 / x;
+      }
+    },
+    SIGNUM(false) {
+      double apply(double x, double alpha) {
+        return Math.signum(x);
+      }
+    },
+    SCALE(true) {
+      double apply(double x, double alpha) {
+        return x * alpha;
+      }
+    },
+    SHIFT(true) {
+      double apply(double x, double alpha) {
+        return x + alpha;
+      }
+    },
+    POW(true) {
+      double apply(double x, double alpha) {
+        return Math.pow(x, alpha);
+      }
+    },
+    MAX(true) {
+      double apply(double x, double alpha) {
+        return Math.max(x, alpha);
+      }
+    },
+    MIN(true) {
+      double apply(double x, double alpha) {
+        return Math.min(x, alpha);
+      }
+    };
+
+    private final boolean parameterized;
+
+    private Op(boolean parameterized) {
+      this.parameterized = parameterized;
+    }
+
+    abstract double apply(double x, double alpha);
+
+    String getName() {
+      return name().toLowerCase();
+    }
+
+    static Op forName(String name) {
+      for (Op op : values()) {
+        if (op.getName().equals(name))
+          return op;
+      }
+      return null;
+    }
+  }
+
+  /** A built-in function with its parameter. */
+  private static final class Builtin extends ElementFunction {
+    private final Op op;
+    private final double alpha;
+
+    private Builtin(Op op, double alpha) {
+      this.op = op;
+      this.alpha = alpha;
+    }
+
+    public double apply(double x) {
+      return op.apply(x, alpha);
+    }
+
+    public String encode() {
+      return op.parameterized ? op.getName() + "(" + alpha + ")" : op
+          .getName();
+    }
+  }
+}
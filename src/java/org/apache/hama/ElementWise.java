@@ -0,0 +1,169 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama;
+
+import java.io.IOException;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hama.algebra.ElementWiseMap;
+import org.apache.hama.util.JobManager;
+
+/**
+ * A chain of element-wise operations on a matrix. The operations are only
+ * recorded until {@link #execute()}, which runs the whole chain in a single
+ * map-only pass, so the intermediate matrices are never written.
+ * 
+ * <pre>
+ * Matrix c = a.elementWise().mult(b).apply(ElementFunction.SQRT).scale(2)
+ *     .execute();
+ * </pre>
+ * 
+ * The operations are applied to the stored entries of the matrix, so the
+ * zeros of a sparse matrix stay zero. A chain which maps zero to a non-zero
+ * value, such as a shift or exp, is therefore rejected for a sparse matrix.
+ */
+public class ElementWise {
+  private AbstractMatrix matrix;
+  private StringBuilder steps = new StringBuilder();
+  // the value of the chain on a zero entry of the matrix
+  private double zero = 0;
+
+  ElementWise(AbstractMatrix matrix) throws IOException {
+    if (matrix.isTransposed())
+      throw new IOException(
+          "Transposed views should be materialized by transpose() "
+              + "for element-wise operations.");
+    this.matrix = matrix;
+  }
+
+  /**
+   * Applies the function to each entry.
+   * 
+   * @param f the function
+   * @return this chain
+   */
+  public ElementWise apply(ElementFunction f) {
+    zero = f.apply(zero);
+    return append(ElementWiseMap.APPLY, f.encode());
+  }
+
+  /**
+   * Multiplies each entry by alpha.
+   * 
+   * @param alpha
+   * @return this chain
+   */
+  public ElementWise scale(double alpha) {
+    return apply(ElementFunction.scale(alpha));
+  }
+
+  /**
+   * Adds alpha to each entry.
+   * 
+   * @param alpha
+   * @return this chain
+   */
+  public ElementWise shift(double alpha) {
+    return apply(ElementFunction.shift(alpha));
+  }
+
+  /**
+   * Multiplies each entry by the entry of B, which is the Hadamard product.
+   * 
+   * @param B
+   * @return this chain
+   * @throws IOException
+   */
+  public ElementWise mult(Matrix B) throws IOException {
+    ensureForElementWise(B);
+    return append(ElementWiseMap.MULTIPLY, B.getPath());
+  }
+
+  /**
+   * Divides each entry by the entry of B.
+   * 
+   * @param B
+   * @return this chain
+   * @throws IOException
+   */
+  public ElementWise divide(Matrix B) throws IOException {
+    ensureForElementWise(B);
+    return append(ElementWiseMap.DIVIDE, B.getPath());
+  }
+
+  /**
+   * Runs the chain.
+   * 
+   * @return the result, of the type of the matrix
+   * @throws IOException if the matrix is sparse, and the chain doesn't map
+   *           zero to zero
+   */
+  public Matrix execute() throws IOException {
+    if (steps.length() == 0)
+      apply(ElementFunction.scale(1));
+
+    boolean sparse = matrix.getType().equals("SparseMatrix");
+    if (sparse && zero != 0)
+      throw new IOException("Element-wise operations which don't map zero to "
+          + "zero should be applied to a dense matrix : " + steps);
+
+    HamaConfiguration conf = matrix.config;
+    AbstractMatrix result = sparse ? new SparseMatrix(conf, matrix.getRows(),
+        matrix.getColumns()) : new DenseMatrix(conf, matrix.getRows(), matrix
+        .getColumns());
+
+    JobConf jobConf = new JobConf(conf);
+    jobConf.setJobName("element-wise MR job : " + result.getPath());
+    jobConf.setNumMapTasks(conf.getNumMapTasks());
+
+    Path inDir = matrix.writeRowRanges(jobConf, "elementwise", conf
+        .getNumMapTasks());
+    ElementWiseMap.initJob(inDir, matrix.getPath(), steps.toString(), sparse,
+        result.getPath(), ElementWiseMap.class, jobConf);
+
+    try {
+      JobManager.execute(jobConf);
+    } finally {
+      FileSystem.get(jobConf).delete(inDir, true);
+    }
+    return result;
+  }
+
+  private ElementWise append(char type, String arg) {
+    if (steps.length() > 0)
+      steps.append(';');
+    steps.append(type).append(':').append(arg);
+    return this;
+  }
+
+  private void ensureForElementWise(Matrix B) throws IOException {
+    if (matrix.getRows() != B.getRows()
+        || matrix.getColumns() != B.getColumns())
+      throw new IOException(
+          "Matrices' rows and columns should be same for element-wise "
+              + "operations.");
+    if (B instanceof AbstractMatrix && ((AbstractMatrix) B).isTransposed())
+      throw new IOException(
+          "Transposed views should be materialized by transpose() "
+              + "for element-wise operations.");
+  }
+}
@@ -176,18 +176,33 @@ public class HamaAdminImpl implements HamaAdmin {
       clearAliaseInfo(tablename);
 
       if (getReference(tablename) <= 0) { // no reference, do gc!!
-        if (admin.isTableEnabled(tablename)) {
-          while (admin.isTableEnabled(tablename)) {
-            try {
-              admin.disableTable(tablename);
-            } catch (RegionException e) {
-              LOG.warn(e);
-            }
-          }
-
-          admin.deleteTable(tablename);
+        // the column replica goes with the matrix table.
+        String replica = getReplica(tablename);
+        if (replica != null && admin.tableExists(replica))
+          deleteTable(replica);
+        deleteTable(tablename);
+      }
+    }
+  }
+
+  private String getReplica(String tableName) throws IOException {
+    HTable matrix = new HTable(conf, tableName);
+
+    Cell replica = matrix.get(Constants.METADATA, Constants.METADATA_REPLICA);
+    return (replica == null) ? null : Bytes.toString(replica.getValue());
+  }
+
+  private void deleteTable(String tableName) throws IOException {
+    if (admin.isTableEnabled(tableName)) {
+      while (admin.isTableEnabled(tableName)) {
+        try {
+          admin.disableTable(tableName);
+        } catch (RegionException e) {
+          LOG.warn(e);
         }
       }
+
+      admin.deleteTable(tableName);
     }
   }
 
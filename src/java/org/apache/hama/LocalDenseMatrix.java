@@ -0,0 +1,519 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hama.io.DoubleEntry;
+import org.apache.hama.util.MatrixKernels;
+import org.apache.log4j.Logger;
+
+/**
+ * A dense matrix held in a local two dimensional array. The arithmetic runs on
+ * multithreaded in-process kernels, so small and temporary matrices never pay
+ * for the creation of an HBase table.
+ *
+ * The matrix is materialized to a {@link DenseMatrix} table only when it grows
+ * beyond {@link #MAX_CELLS} cells, when it is saved under an aliase name, or
+ * when its path is requested by a map/reduce operation. After that, every
+ * operation is delegated to the table.
+ */
+public class LocalDenseMatrix implements Matrix {
+  static final Logger LOG = Logger.getLogger(LocalDenseMatrix.class);
+  /** The maximum number of cells which is kept in memory */
+  public static final String MAX_CELLS = "hama.local.matrix.max.cells";
+  public static final int DEFAULT_MAX_CELLS = 1024 * 1024;
+  /** The number of threads used by the local kernels */
+  public static final String THREADS = "hama.local.matrix.threads";
+  public static final int DEFAULT_THREADS = 1;
+
+  protected HamaConfiguration config;
+  private double[][] matrix;
+  private Map<Integer, String> rowLabels = new HashMap<Integer, String>();
+  private Map<Integer, String> columnLabels = new HashMap<Integer, String>();
+  private DenseMatrix table;
+  private int threads;
+
+  /**
+   * Construct an m-by-n zero matrix.
+   *
+   * @param conf configuration object
+   * @param m the number of rows.
+   * @param n the number of columns.
+   * @throws IOException
+   */
+  public LocalDenseMatrix(HamaConfiguration conf, int m, int n)
+      throws IOException {
+    this.config = conf;
+    this.threads = conf.getInt(THREADS, DEFAULT_THREADS);
+    if (fitsInMemory(m, n))
+      this.matrix = new double[m][n];
+    else
+      this.table = new DenseMatrix(conf, m, n);
+  }
+
+  /**
+   * Construct a matrix over the given array. The array is not copied.
+   *
+   * @param conf configuration object
+   * @param c a two dimensional double array
+   * @throws IOException
+   */
+  public LocalDenseMatrix(HamaConfiguration conf, double[][] c)
+      throws IOException {
+    this.config = conf;
+    this.threads = conf.getInt(THREADS, DEFAULT_THREADS);
+    this.matrix = c;
+    if (!fitsInMemory(getRows(), getColumns()))
+      materialize();
+  }
+
+  /**
+   * Returns true if the matrix is still held in memory.
+   *
+   * @return true if the matrix is local
+   */
+  public boolean isLocal() {
+    return table == null;
+  }
+
+  /**
+   * Returns the backing array of a local matrix.
+   *
+   * @return the 2d double array, or null if the matrix has been materialized
+   */
+  public double[][] getDoubleArray() {
+    return matrix;
+  }
+
+  /**
+   * Writes the matrix to a new {@link DenseMatrix} table, if it hasn't been
+   * written yet, and releases the local array.
+   *
+   * @return the table of the matrix
+   * @throws IOException
+   */
+  public DenseMatrix materialize() throws IOException {
+    if (table != null)
+      return table;
+
+    int m = getRows(), n = getColumns();
+    LOG.info("Materialize the " + m + " * " + n + " local matrix");
+    DenseMatrix result = new DenseMatrix(config, m, n);
+    result.setRows(0, matrix);
+
+    for (Map.Entry<Integer, String> e : rowLabels.entrySet())
+      result.setRowLabel(e.getKey(), e.getValue());
+    for (Map.Entry<Integer, String> e : columnLabels.entrySet())
+      result.setColumnLabel(e.getKey(), e.getValue());
+
+    table = result;
+    matrix = null;
+    return table;
+  }
+
+  private boolean fitsInMemory(int m, int n) {
+    return (long) m * n <= config.getInt(MAX_CELLS, DEFAULT_MAX_CELLS);
+  }
+
+  /**
+   * Returns the in-memory array of the given matrix, reading a small table
+   * into memory if needed.
+   *
+   * @return the 2d double array, or null if the matrix is too large
+   */
+  private double[][] toArray(Matrix B) throws IOException {
+    if (B instanceof LocalDenseMatrix && ((LocalDenseMatrix) B).isLocal())
+      return ((LocalDenseMatrix) B).getDoubleArray();
+
+    int m = B.getRows(), n = B.getColumns();
+    if (m == 0 || n == 0 || !fitsInMemory(m, n))
+      return null;
+
+    return B.subMatrix(0, m - 1, 0, n - 1).getDoubleArray();
+  }
+
+  private static DenseVector toVector(double[] row) {
+    DenseVector v = new DenseVector();
+    for (int j = 0; j < row.length; j++)
+      v.set(j, row[j]);
+    return v;
+  }
+
+  /** {@inheritDoc} */
+  public double get(int i, int j) throws IOException {
+    if (table != null)
+      return table.get(i, j);
+    return matrix[i][j];
+  }
+
+  /** {@inheritDoc} */
+  public DenseVector getRow(int i) throws IOException {
+    if (table != null)
+      return table.getRow(i);
+    return toVector(matrix[i]);
+  }
+
+  /** {@inheritDoc} */
+  public DenseVector getColumn(int j) throws IOException {
+    if (table != null)
+      return table.getColumn(j);
+
+    DenseVector v = new DenseVector();
+    for (int i = 0; i < matrix.length; i++)
+      v.set(i, matrix[i][j]);
+    return v;
+  }
+
+  /** {@inheritDoc} */
+  public int getRows() throws IOException {
+    if (table != null)
+      return table.getRows();
+    return matrix.length;
+  }
+
+  /** {@inheritDoc} */
+  public int getColumns() throws IOException {
+    if (table != null)
+      return table.getColumns();
+    return (matrix.length == 0) ? 0 : matrix[0].length;
+  }
+
+  /** {@inheritDoc} */
+  public String getRowLabel(int i) throws IOException {
+    if (table != null)
+      return table.getRowLabel(i);
+    return rowLabels.get(i);
+  }
+
+  /** {@inheritDoc} */
+  public String getColumnLabel(int j) throws IOException {
+    if (table != null)
+      return table.getColumnLabel(j);
+    return columnLabels.get(j);
+  }
+
+  /**
+   * Returns the path of the table. A local matrix is materialized first, so
+   * that the path can be handed to a map/reduce job.
+   *
+   * @return the name of the table
+   */
+  public String getPath() {
+    try {
+      return materialize().getPath();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void setRowLabel(int i, String name) throws IOException {
+    if (table != null)
+      table.setRowLabel(i, name);
+    else
+      rowLabels.put(i, name);
+  }
+
+  /** {@inheritDoc} */
+  public void setColumnLabel(int j, String name) throws IOException {
+    if (table != null)
+      table.setColumnLabel(j, name);
+    else
+      columnLabels.put(j, name);
+  }
+
+  /** {@inheritDoc} */
+  public void set(int i, int j, double value) throws IOException {
+    if (table != null)
+      table.set(i, j, value);
+    else
+      matrix[i][j] = value;
+  }
+
+  /** {@inheritDoc} */
+  public Matrix set(double alpha, Matrix B) throws IOException {
+    if (table != null)
+      return table.set(alpha, B);
+
+    double[][] b = toArray(B);
+    if (b == null)
+      return materialize().set(alpha, B);
+
+    matrix = MatrixKernels.scale(alpha, b, threads);
+    return this;
+  }
+
+  /** {@inheritDoc} */
+  public Matrix set(Matrix B) throws IOException {
+    return set(1.0, B);
+  }
+
+  /** {@inheritDoc} */
+  public void setRow(int row, Vector vector) throws IOException {
+    if (table != null) {
+      table.setRow(row, vector);
+      return;
+    }
+
+    for (Map.Entry<Writable, Writable> e : vector.getEntries().entrySet()) {
+      if (e.getKey() instanceof IntWritable)
+        matrix[row][((IntWritable) e.getKey()).get()] = ((DoubleEntry) e
+            .getValue()).getValue();
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void setColumn(int column, Vector vector) throws IOException {
+    if (table != null) {
+      table.setColumn(column, vector);
+      return;
+    }
+
+    for (Map.Entry<Writable, Writable> e : vector.getEntries().entrySet()) {
+      if (e.getKey() instanceof IntWritable)
+        matrix[((IntWritable) e.getKey()).get()][column] = ((DoubleEntry) e
+            .getValue()).getValue();
+    }
+  }
+
+  /**
+   * Sets the dimension of matrix. The entries inside of the new dimension are
+   * kept, and the matrix is materialized if it doesn't fit in memory anymore.
+   *
+   * @param rows the number of rows
+   * @param columns the number of columns
+   * @throws IOException
+   */
+  public void setDimension(int rows, int columns) throws IOException {
+    if (table == null && !fitsInMemory(rows, columns))
+      materialize();
+
+    if (table != null) {
+      table.setDimension(rows, columns);
+      return;
+    }
+
+    double[][] resized = new double[rows][columns];
+    for (int i = 0; i < Math.min(rows, matrix.length); i++) {
+      System.arraycopy(matrix[i], 0, resized[i], 0, Math.min(columns,
+          matrix[i].length));
+    }
+    matrix = resized;
+  }
+
+  /** {@inheritDoc} */
+  public void add(int i, int j, double value) throws IOException {
+    if (table != null)
+      table.add(i, j, value);
+    else
+      matrix[i][j] += value;
+  }
+
+  /**
+   * C = B + A
+   *
+   * @param B
+   * @return C
+   * @throws IOException
+   */
+  public Matrix add(Matrix B) throws IOException {
+    return add(1.0, B);
+  }
+
+  /**
+   * C = alpha*B + A
+   *
+   * @param alpha
+   * @param B
+   * @return C
+   * @throws IOException
+   */
+  public Matrix add(double alpha, Matrix B) throws IOException {
+    if (getRows() != B.getRows() || getColumns() != B.getColumns()) {
+      throw new IOException(
+          "Matrices' rows and columns should be same while A+B.");
+    }
+    if (table != null)
+      return table.add(alpha, B);
+
+    double[][] b = toArray(B);
+    if (b == null)
+      return materialize().add(alpha, B);
+
+    return new LocalDenseMatrix(config, MatrixKernels.add(matrix, alpha, b,
+        threads));
+  }
+
+  /** {@inheritDoc} */
+  public Matrix apply(ElementFunction f) throws IOException {
+    if (table != null)
+      return table.apply(f);
+
+    double[][] c = new double[matrix.length][];
+    for (int i = 0; i < c.length; i++) {
+      c[i] = new double[matrix[i].length];
+      for (int j = 0; j < c[i].length; j++)
+        c[i][j] = f.apply(matrix[i][j]);
+    }
+    return new LocalDenseMatrix(config, c);
+  }
+
+  /** {@inheritDoc} */
+  public Matrix hadamard(Matrix B) throws IOException {
+    return elementWise(B, false);
+  }
+
+  /** {@inheritDoc} */
+  public Matrix divide(Matrix B) throws IOException {
+    return elementWise(B, true);
+  }
+
+  private Matrix elementWise(Matrix B, boolean divide) throws IOException {
+    if (getRows() != B.getRows() || getColumns() != B.getColumns()) {
+      throw new IOException(
+          "Matrices' rows and columns should be same for element-wise "
+              + "operations.");
+    }
+    if (table != null)
+      return divide ? table.divide(B) : table.hadamard(B);
+
+    double[][] b = toArray(B);
+    if (b == null) {
+      DenseMatrix a = materialize();
+      return divide ? a.divide(B) : a.hadamard(B);
+    }
+
+    double[][] c = new double[matrix.length][];
+    for (int i = 0; i < c.length; i++) {
+      c[i] = new double[matrix[i].length];
+      for (int j = 0; j < c[i].length; j++)
+        c[i][j] = divide ? matrix[i][j] / b[i][j] : matrix[i][j] * b[i][j];
+    }
+    return new LocalDenseMatrix(config, c);
+  }
+
+  /**
+   * C = A*B
+   *
+   * @param B
+   * @return C
+   * @throws IOException
+   */
+  public Matrix mult(Matrix B) throws IOException {
+    if (getColumns() != B.getRows()) {
+      throw new IOException("A's columns should equal with B's rows while A*B.");
+    }
+    if (table != null)
+      return table.mult(B);
+
+    double[][] b = toArray(B);
+    if (b == null)
+      return materialize().mult(B);
+
+    return new LocalDenseMatrix(config, MatrixKernels.mult(matrix, b, threads));
+  }
+
+  /**
+   * C = alpha*A*B + C. A local C is updated in place.
+   *
+   * @param alpha
+   * @param B
+   * @param C
+   * @return C
+   * @throws IOException
+   */
+  public Matrix multAdd(double alpha, Matrix B, Matrix C) throws IOException {
+    if (getColumns() != B.getRows()) {
+      throw new IOException(
+          "A's columns should equal with B's rows while C += A*B.");
+    }
+    if (C.getRows() != getRows() || C.getColumns() != B.getColumns()) {
+      throw new IllegalArgumentException(
+          "C's rows and columns should equal with A*B's while C += A*B.");
+    }
+    if (table != null)
+      return table.multAdd(alpha, B, C);
+
+    double[][] b = toArray(B);
+    if (b == null || !(C instanceof LocalDenseMatrix)
+        || !((LocalDenseMatrix) C).isLocal())
+      return materialize().multAdd(alpha, B, C);
+
+    MatrixKernels.multAdd(alpha, matrix, b, ((LocalDenseMatrix) C)
+        .getDoubleArray(), threads);
+    return C;
+  }
+
+  /** {@inheritDoc} */
+  public double norm(Norm type) throws IOException {
+    if (table != null)
+      return table.norm(type);
+    return MatrixKernels.norm(matrix, type, threads);
+  }
+
+  /** {@inheritDoc} */
+  public Matrix transpose() throws IOException {
+    if (table != null)
+      return table.transpose();
+    return new LocalDenseMatrix(config, MatrixKernels.transpose(matrix,
+        threads));
+  }
+
+  /**
+   * Materializes the matrix and saves the table under the aliase name.
+   *
+   * @param aliasename
+   * @return true if saved
+   * @throws IOException
+   */
+  public boolean save(String aliasename) throws IOException {
+    return materialize().save(aliasename);
+  }
+
+  /** {@inheritDoc} */
+  public String getType() {
+    return this.getClass().getSimpleName();
+  }
+
+  /** {@inheritDoc} */
+  public SubMatrix subMatrix(int i0, int i1, int j0, int j1) throws IOException {
+    if (table != null)
+      return table.subMatrix(i0, i1, j0, j1);
+
+    SubMatrix result = new SubMatrix((i1 - i0) + 1, (j1 - j0) + 1);
+    double[][] c = result.getDoubleArray();
+    for (int i = i0; i <= i1; i++) {
+      System.arraycopy(matrix[i], j0, c[i - i0], 0, (j1 - j0) + 1);
+    }
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  public void close() throws IOException {
+    if (table != null)
+      table.close();
+    matrix = null;
+  }
+}
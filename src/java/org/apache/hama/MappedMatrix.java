@@ -0,0 +1,712 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hama.io.DoubleEntry;
+import org.apache.hama.util.MatrixKernels;
+import org.apache.log4j.Logger;
+
+/**
+ * A dense matrix stored row by row in a local file, which is memory-mapped
+ * through {@link FileChannel#map}. It is meant for single-node runs over
+ * matrices which don't fit in the heap.
+ *
+ * The file starts with a 16 bytes header holding the number of rows and
+ * columns, followed by the entries in row-major order. The file is mapped in
+ * bands of whole rows, so that each row can be handed out as a
+ * {@link DoubleBuffer} view without copying. The arithmetic runs tile by tile,
+ * and keeps at most a few tiles in the heap.
+ */
+public class MappedMatrix implements Matrix {
+  static final Logger LOG = Logger.getLogger(MappedMatrix.class);
+  /** The size of a mapped band in bytes */
+  public static final String BAND_SIZE = "hama.mapped.matrix.band.size";
+  public static final int DEFAULT_BAND_SIZE = 64 * 1024 * 1024;
+  /** The edge length of the tiles used by the out-of-core kernels */
+  public static final String TILE_SIZE = "hama.mapped.matrix.tile.size";
+  public static final int DEFAULT_TILE_SIZE = 512;
+  /** The directory of the files created by the operations */
+  public static final String TMP_DIR = "hama.mapped.matrix.tmp.dir";
+
+  static final int HEADER = 16;
+  static final int SIZEOF_DOUBLE = 8;
+
+  protected HamaConfiguration config;
+  private File file;
+  private RandomAccessFile raf;
+  private FileChannel channel;
+  private MappedByteBuffer[] bands;
+  private int rowsPerBand;
+  private int rows;
+  private int columns;
+  private boolean temporary = false;
+  private Map<Integer, String> rowLabels = new HashMap<Integer, String>();
+  private Map<Integer, String> columnLabels = new HashMap<Integer, String>();
+
+  /**
+   * Create an m-by-n zero matrix stored in the given file. An existing file is
+   * overwritten.
+   *
+   * @param conf configuration object
+   * @param file the file of the matrix
+   * @param m the number of rows.
+   * @param n the number of columns.
+   * @throws IOException
+   */
+  public MappedMatrix(HamaConfiguration conf, File file, int m, int n)
+      throws IOException {
+    this.config = conf;
+    this.file = file;
+    this.raf = new RandomAccessFile(file, "rw");
+    this.raf.setLength(0);
+    this.raf.setLength(HEADER + (long) m * n * SIZEOF_DOUBLE);
+    this.raf.writeInt(m);
+    this.raf.writeInt(n);
+    this.channel = raf.getChannel();
+    map(m, n);
+  }
+
+  /**
+   * Open a matrix stored in the given file.
+   *
+   * @param conf configuration object
+   * @param file the file of the matrix
+   * @throws IOException
+   */
+  public MappedMatrix(HamaConfiguration conf, File file) throws IOException {
+    this.config = conf;
+    this.file = file;
+    this.raf = new RandomAccessFile(file, "rw");
+    int m = raf.readInt();
+    int n = raf.readInt();
+    this.channel = raf.getChannel();
+    map(m, n);
+  }
+
+  /**
+   * Create an m-by-n zero matrix in a temporary file, which is deleted when
+   * the matrix is closed.
+   *
+   * @param conf configuration object
+   * @param m the number of rows.
+   * @param n the number of columns.
+   * @return the matrix
+   * @throws IOException
+   */
+  public static MappedMatrix createTemporary(HamaConfiguration conf, int m,
+      int n) throws IOException {
+    String dir = conf.get(TMP_DIR, System.getProperty("java.io.tmpdir"));
+    File file = File.createTempFile(MappedMatrix.class.getSimpleName() + "_",
+        ".mat", new File(dir));
+    file.deleteOnExit();
+    MappedMatrix result = new MappedMatrix(conf, file, m, n);
+    result.temporary = true;
+    return result;
+  }
+
+  /**
+   * Copies a matrix of any kind into a new file. A table-backed matrix is
+   * read with one sub matrix scan per band of rows.
+   *
+   * @param conf configuration object
+   * @param source the matrix to copy
+   * @param file the file of the new matrix
+   * @return the new matrix
+   * @throws IOException
+   */
+  public static MappedMatrix copyOf(HamaConfiguration conf, Matrix source,
+      File file) throws IOException {
+    int m = source.getRows(), n = source.getColumns();
+    MappedMatrix result = (file == null) ? createTemporary(conf, m, n)
+        : new MappedMatrix(conf, file, m, n);
+    if (m == 0 || n == 0)
+      return result;
+
+    int band = Math.max(1, result.getTileSize() * result.getTileSize() / n);
+    for (int i0 = 0; i0 < m; i0 += band) {
+      int i1 = Math.min(m, i0 + band) - 1;
+      double[][] block = source.subMatrix(i0, i1, 0, n - 1).getDoubleArray();
+      for (int i = i0; i <= i1; i++) {
+        result.getRowBuffer(i).put(block[i - i0]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Copies the matrix into a new {@link DenseMatrix} table.
+   *
+   * @return the new table-backed matrix
+   * @throws IOException
+   */
+  public DenseMatrix toDenseMatrix() throws IOException {
+    DenseMatrix result = new DenseMatrix(config, rows, columns);
+    int band = Math.max(1, getTileSize() * getTileSize() / Math.max(1, columns));
+    for (int i0 = 0; i0 < rows; i0 += band) {
+      int i1 = Math.min(rows, i0 + band) - 1;
+      result.setRows(i0, subMatrix(i0, i1, 0, columns - 1).getDoubleArray());
+    }
+    for (Map.Entry<Integer, String> e : rowLabels.entrySet())
+      result.setRowLabel(e.getKey(), e.getValue());
+    for (Map.Entry<Integer, String> e : columnLabels.entrySet())
+      result.setColumnLabel(e.getKey(), e.getValue());
+    return result;
+  }
+
+  private void map(int m, int n) throws IOException {
+    long rowBytes = (long) n * SIZEOF_DOUBLE;
+    long bandSize = config.getInt(BAND_SIZE, DEFAULT_BAND_SIZE);
+    if (rowBytes > Integer.MAX_VALUE)
+      throw new IOException("A row of " + n + " columns can't be mapped.");
+
+    this.rows = m;
+    this.columns = n;
+    this.rowsPerBand = (int) Math.max(1, bandSize / Math.max(1, rowBytes));
+    this.rowsPerBand = (int) Math.min(rowsPerBand, Integer.MAX_VALUE / Math
+        .max(1, rowBytes));
+
+    int count = (m + rowsPerBand - 1) / rowsPerBand;
+    this.bands = new MappedByteBuffer[count];
+    for (int b = 0; b < count; b++) {
+      int bandRows = Math.min(rowsPerBand, m - b * rowsPerBand);
+      bands[b] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER
+          + (long) b * rowsPerBand * rowBytes, bandRows * rowBytes);
+    }
+  }
+
+  private int getTileSize() {
+    return config.getInt(TILE_SIZE, DEFAULT_TILE_SIZE);
+  }
+
+  private int getThreads() {
+    return config.getInt(LocalDenseMatrix.THREADS,
+        LocalDenseMatrix.DEFAULT_THREADS);
+  }
+
+  private void checkIndex(int i, int j) {
+    if (i < 0 || i >= rows || j < 0 || j >= columns)
+      throw new ArrayIndexOutOfBoundsException(i + ", " + j);
+  }
+
+  private int offset(int i, int j) {
+    return ((i % rowsPerBand) * columns + j) * SIZEOF_DOUBLE;
+  }
+
+  /**
+   * Returns a view of the row. Writes to the view go to the file.
+   *
+   * @param i the row index of the matrix
+   * @return the view of the row
+   */
+  public DoubleBuffer getRowBuffer(int i) {
+    return getRowBuffer(i, 0, columns - 1);
+  }
+
+  /**
+   * Returns a view of the columns j0 to j1 of the row. Writes to the view go
+   * to the file.
+   *
+   * @param i the row index of the matrix
+   * @param j0 the start index of column
+   * @param j1 the end index of column
+   * @return the view of the row segment
+   */
+  public DoubleBuffer getRowBuffer(int i, int j0, int j1) {
+    checkIndex(i, j0);
+    checkIndex(i, j1);
+    ByteBuffer band = bands[i / rowsPerBand].duplicate();
+    band.position(offset(i, j0));
+    band.limit(offset(i, j1) + SIZEOF_DOUBLE);
+    return band.slice().asDoubleBuffer();
+  }
+
+  /** {@inheritDoc} */
+  public double get(int i, int j) throws IOException {
+    checkIndex(i, j);
+    return bands[i / rowsPerBand].getDouble(offset(i, j));
+  }
+
+  /** {@inheritDoc} */
+  public DenseVector getRow(int i) throws IOException {
+    DoubleBuffer row = getRowBuffer(i);
+    DenseVector v = new DenseVector();
+    for (int j = 0; j < columns; j++)
+      v.set(j, row.get(j));
+    return v;
+  }
+
+  /** {@inheritDoc} */
+  public DenseVector getColumn(int j) throws IOException {
+    DenseVector v = new DenseVector();
+    for (int i = 0; i < rows; i++)
+      v.set(i, get(i, j));
+    return v;
+  }
+
+  /** {@inheritDoc} */
+  public int getRows() throws IOException {
+    return rows;
+  }
+
+  /** {@inheritDoc} */
+  public int getColumns() throws IOException {
+    return columns;
+  }
+
+  /** {@inheritDoc} */
+  public String getRowLabel(int i) throws IOException {
+    return rowLabels.get(i);
+  }
+
+  /** {@inheritDoc} */
+  public String getColumnLabel(int j) throws IOException {
+    return columnLabels.get(j);
+  }
+
+  /**
+   * Returns the path of the file
+   *
+   * @return the path of the file
+   */
+  public String getPath() {
+    return file.getPath();
+  }
+
+  /** {@inheritDoc} */
+  public void setRowLabel(int i, String name) throws IOException {
+    rowLabels.put(i, name);
+  }
+
+  /** {@inheritDoc} */
+  public void setColumnLabel(int j, String name) throws IOException {
+    columnLabels.put(j, name);
+  }
+
+  /** {@inheritDoc} */
+  public void set(int i, int j, double value) throws IOException {
+    checkIndex(i, j);
+    bands[i / rowsPerBand].putDouble(offset(i, j), value);
+  }
+
+  /** {@inheritDoc} */
+  public Matrix set(double alpha, Matrix B) throws IOException {
+    ensureForAddition(B);
+    MappedMatrix b = asMapped(B);
+    for (int i = 0; i < rows; i++) {
+      DoubleBuffer src = b.getRowBuffer(i), dst = getRowBuffer(i);
+      for (int j = 0; j < columns; j++)
+        dst.put(j, alpha * src.get(j));
+    }
+    release(b, B);
+    return this;
+  }
+
+  /** {@inheritDoc} */
+  public Matrix set(Matrix B) throws IOException {
+    return set(1.0, B);
+  }
+
+  /** {@inheritDoc} */
+  public void setRow(int row, Vector vector) throws IOException {
+    DoubleBuffer dst = getRowBuffer(row);
+    for (Map.Entry<Writable, Writable> e : vector.getEntries().entrySet()) {
+      if (e.getKey() instanceof IntWritable)
+        dst.put(((IntWritable) e.getKey()).get(), ((DoubleEntry) e.getValue())
+            .getValue());
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void setColumn(int column, Vector vector) throws IOException {
+    for (Map.Entry<Writable, Writable> e : vector.getEntries().entrySet()) {
+      if (e.getKey() instanceof IntWritable)
+        set(((IntWritable) e.getKey()).get(), column, ((DoubleEntry) e
+            .getValue()).getValue());
+    }
+  }
+
+  /**
+   * Sets the dimension of matrix. The file is rewritten, keeping the entries
+   * inside of the new dimension.
+   *
+   * @param m the number of rows
+   * @param n the number of columns
+   * @throws IOException
+   */
+  public void setDimension(int m, int n) throws IOException {
+    if (m == rows && n == columns)
+      return;
+
+    File resized = new File(file.getPath() + ".resize");
+    MappedMatrix copy = new MappedMatrix(config, resized, m, n);
+    int width = Math.min(n, columns);
+    double[] buffer = new double[width];
+    for (int i = 0; i < Math.min(m, rows) && width > 0; i++) {
+      getRowBuffer(i, 0, width - 1).get(buffer);
+      copy.getRowBuffer(i, 0, width - 1).put(buffer);
+    }
+    copy.unmap();
+    unmap();
+
+    if (!file.delete() || !resized.renameTo(file))
+      throw new IOException("Can't replace " + file);
+    raf = new RandomAccessFile(file, "rw");
+    channel = raf.getChannel();
+    map(m, n);
+  }
+
+  /** {@inheritDoc} */
+  public void add(int i, int j, double value) throws IOException {
+    set(i, j, get(i, j) + value);
+  }
+
+  /**
+   * C = B + A
+   *
+   * @param B
+   * @return C
+   * @throws IOException
+   */
+  public MappedMatrix add(Matrix B) throws IOException {
+    return add(1.0, B);
+  }
+
+  /**
+   * C = alpha*B + A. The result is stored in a temporary file.
+   *
+   * @param alpha
+   * @param B
+   * @return C
+   * @throws IOException
+   */
+  public MappedMatrix add(double alpha, Matrix B) throws IOException {
+    ensureForAddition(B);
+    MappedMatrix b = asMapped(B);
+    MappedMatrix result = createTemporary(config, rows, columns);
+    for (int i = 0; i < rows; i++) {
+      DoubleBuffer x = getRowBuffer(i), y = b.getRowBuffer(i);
+      DoubleBuffer dst = result.getRowBuffer(i);
+      for (int j = 0; j < columns; j++)
+        dst.put(j, x.get(j) + alpha * y.get(j));
+    }
+    release(b, B);
+    return result;
+  }
+
+  /**
+   * C(i, j) = f(A(i, j)). The result is stored in a temporary file.
+   *
+   * @param f the function
+   * @return C
+   * @throws IOException
+   */
+  public MappedMatrix apply(ElementFunction f) throws IOException {
+    MappedMatrix result = createTemporary(config, rows, columns);
+    for (int i = 0; i < rows; i++) {
+      DoubleBuffer x = getRowBuffer(i), dst = result.getRowBuffer(i);
+      for (int j = 0; j < columns; j++)
+        dst.put(j, f.apply(x.get(j)));
+    }
+    return result;
+  }
+
+  /**
+   * C(i, j) = A(i, j) * B(i, j). The result is stored in a temporary file.
+   *
+   * @param B
+   * @return C
+   * @throws IOException
+   */
+  public MappedMatrix hadamard(Matrix B) throws IOException {
+    return elementWise(B, false);
+  }
+
+  /**
+   * C(i, j) = A(i, j) / B(i, j). The result is stored in a temporary file.
+   *
+   * @param B
+   * @return C
+   * @throws IOException
+   */
+  public MappedMatrix divide(Matrix B) throws IOException {
+    return elementWise(B, true);
+  }
+
+  private MappedMatrix elementWise(Matrix B, boolean divide)
+      throws IOException {
+    if (rows != B.getRows() || columns != B.getColumns()) {
+      throw new IOException(
+          "Matrices' rows and columns should be same for element-wise "
+              + "operations.");
+    }
+    MappedMatrix b = asMapped(B);
+    MappedMatrix result = createTemporary(config, rows, columns);
+    for (int i = 0; i < rows; i++) {
+      DoubleBuffer x = getRowBuffer(i), y = b.getRowBuffer(i);
+      DoubleBuffer dst = result.getRowBuffer(i);
+      for (int j = 0; j < columns; j++)
+        dst.put(j, divide ? x.get(j) / y.get(j) : x.get(j) * y.get(j));
+    }
+    release(b, B);
+    return result;
+  }
+
+  /**
+   * C = A*B. The product is computed tile by tile; each output tile is
+   * accumulated in the heap from the tiles of A and B, and written once. The
+   * result is stored in a temporary file.
+   *
+   * @param B
+   * @return C
+   * @throws IOException
+   */
+  public MappedMatrix mult(Matrix B) throws IOException {
+    ensureForMultiplication(B);
+    MappedMatrix b = asMapped(B);
+    int n = b.getColumns();
+    MappedMatrix result = createTemporary(config, rows, n);
+    multAdd(1.0, b, result);
+    release(b, B);
+    return result;
+  }
+
+  /**
+   * C = alpha*A*B + C, tile by tile.
+   *
+   * @param alpha
+   * @param B
+   * @param C
+   * @return C
+   * @throws IOException
+   */
+  public Matrix multAdd(double alpha, Matrix B, Matrix C) throws IOException {
+    ensureForMultiplication(B);
+    if (C.getRows() != rows || C.getColumns() != B.getColumns()) {
+      throw new IllegalArgumentException(
+          "C's rows and columns should equal with A*B's while C += A*B.");
+    }
+    if (!(C instanceof MappedMatrix)) {
+      throw new IOException("C should be a " + getType() + " while C += A*B.");
+    }
+    MappedMatrix b = asMapped(B);
+    multAdd(alpha, b, (MappedMatrix) C);
+    release(b, B);
+    return C;
+  }
+
+  private void multAdd(double alpha, MappedMatrix b, MappedMatrix c)
+      throws IOException {
+    int tile = getTileSize();
+    int n = b.getColumns();
+    int threads = getThreads();
+    for (int i0 = 0; i0 < rows; i0 += tile) {
+      int i1 = Math.min(rows, i0 + tile) - 1;
+      for (int j0 = 0; j0 < n; j0 += tile) {
+        int j1 = Math.min(n, j0 + tile) - 1;
+        double[][] acc = c.subMatrix(i0, i1, j0, j1).getDoubleArray();
+        for (int k0 = 0; k0 < columns; k0 += tile) {
+          int k1 = Math.min(columns, k0 + tile) - 1;
+          MatrixKernels.multAdd(alpha, subMatrix(i0, i1, k0, k1)
+              .getDoubleArray(), b.subMatrix(k0, k1, j0, j1).getDoubleArray(),
+              acc, threads);
+        }
+        c.setSubMatrix(i0, j0, acc);
+      }
+    }
+  }
+
+  /**
+   * Computes the given norm of the matrix, streaming over the rows.
+   *
+   * @param type
+   * @return norm of the matrix
+   * @throws IOException
+   */
+  public double norm(Norm type) throws IOException {
+    double result = 0;
+    double[] columnSums = (type == Norm.One) ? new double[columns] : null;
+    for (int i = 0; i < rows; i++) {
+      DoubleBuffer row = getRowBuffer(i);
+      double rowSum = 0;
+      for (int j = 0; j < columns; j++) {
+        double v = Math.abs(row.get(j));
+        if (type == Norm.One)
+          columnSums[j] += v;
+        else if (type == Norm.Frobenius)
+          result += v * v;
+        else if (type == Norm.Infinity)
+          rowSum += v;
+        else
+          result = Math.max(result, v);
+      }
+      if (type == Norm.Infinity)
+        result = Math.max(result, rowSum);
+    }
+
+    if (type == Norm.One) {
+      for (int j = 0; j < columns; j++)
+        result = Math.max(result, columnSums[j]);
+    } else if (type == Norm.Frobenius) {
+      result = Math.sqrt(result);
+    }
+    return result;
+  }
+
+  /**
+   * Transposes the matrix tile by tile into a temporary file.
+   *
+   * @return the transposed matrix
+   * @throws IOException
+   */
+  public MappedMatrix transpose() throws IOException {
+    MappedMatrix result = createTemporary(config, columns, rows);
+    int tile = getTileSize();
+    for (int i0 = 0; i0 < rows; i0 += tile) {
+      int i1 = Math.min(rows, i0 + tile) - 1;
+      for (int j0 = 0; j0 < columns; j0 += tile) {
+        int j1 = Math.min(columns, j0 + tile) - 1;
+        double[][] t = MatrixKernels.transpose(subMatrix(i0, i1, j0, j1)
+            .getDoubleArray(), 1);
+        result.setSubMatrix(j0, i0, t);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Flushes the matrix and copies the file to the given path.
+   *
+   * @param path the path of the copy
+   * @return true if saved
+   * @throws IOException
+   */
+  public boolean save(String path) throws IOException {
+    for (MappedByteBuffer band : bands)
+      band.force();
+
+    File target = new File(path);
+    if (target.getAbsoluteFile().equals(file.getAbsoluteFile()))
+      return true;
+
+    FileChannel out = new RandomAccessFile(target, "rw").getChannel();
+    try {
+      out.truncate(0);
+      long size = channel.size();
+      for (long pos = 0; pos < size;)
+        pos += channel.transferTo(pos, size - pos, out);
+    } finally {
+      out.close();
+    }
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  public String getType() {
+    return this.getClass().getSimpleName();
+  }
+
+  /**
+   * Returns the sub matrix, copied from the row views with bulk gets.
+   *
+   * @param i0 the start index of row
+   * @param i1 the end index of row
+   * @param j0 the start index of column
+   * @param j1 the end index of column
+   * @return the sub matrix of matrix
+   * @throws IOException
+   */
+  public SubMatrix subMatrix(int i0, int i1, int j0, int j1) throws IOException {
+    SubMatrix result = new SubMatrix((i1 - i0) + 1, (j1 - j0) + 1);
+    double[][] c = result.getDoubleArray();
+    for (int i = i0; i <= i1; i++) {
+      getRowBuffer(i, j0, j1).get(c[i - i0]);
+    }
+    return result;
+  }
+
+  /**
+   * Writes a block of entries, with its upper left corner at (i0, j0).
+   *
+   * @param i0 the start index of row
+   * @param j0 the start index of column
+   * @param block the entries
+   */
+  public void setSubMatrix(int i0, int j0, double[][] block) {
+    for (int i = 0; i < block.length; i++) {
+      getRowBuffer(i0 + i, j0, j0 + block[i].length - 1).put(block[i]);
+    }
+  }
+
+  /**
+   * Unmaps the file, and deletes it if it was created by an operation.
+   */
+  public void close() throws IOException {
+    if (channel == null)
+      return;
+    unmap();
+    if (temporary)
+      file.delete();
+  }
+
+  private void unmap() throws IOException {
+    for (MappedByteBuffer band : bands)
+      band.force();
+    bands = null;
+    channel.close();
+    raf.close();
+    channel = null;
+  }
+
+  private void ensureForAddition(Matrix m) throws IOException {
+    if (rows != m.getRows() || columns != m.getColumns()) {
+      throw new IOException(
+          "Matrices' rows and columns should be same while A+B.");
+    }
+  }
+
+  private void ensureForMultiplication(Matrix m) throws IOException {
+    if (columns != m.getRows()) {
+      throw new IOException("A's columns should equal with B's rows while A*B.");
+    }
+  }
+
+  private MappedMatrix asMapped(Matrix B) throws IOException {
+    if (B instanceof MappedMatrix)
+      return (MappedMatrix) B;
+    return copyOf(config, B, null);
+  }
+
+  private void release(MappedMatrix copy, Matrix B) throws IOException {
+    if (copy != B)
+      copy.close();
+  }
+}
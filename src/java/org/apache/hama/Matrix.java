@@ -241,6 +241,33 @@ public interface Matrix {
     Maxvalue
   }
 
+  /**
+   * C(i, j) = f(A(i, j)), for the stored entries of A.
+   * 
+   * @param f the function
+   * @return C
+   * @throws IOException if A is sparse, and f(0) is not zero
+   */
+  public Matrix apply(ElementFunction f) throws IOException;
+
+  /**
+   * C(i, j) = A(i, j) * B(i, j), the Hadamard product.
+   * 
+   * @param B
+   * @return C
+   * @throws IOException
+   */
+  public Matrix hadamard(Matrix B) throws IOException;
+
+  /**
+   * C(i, j) = A(i, j) / B(i, j)
+   * 
+   * @param B
+   * @return C
+   * @throws IOException
+   */
+  public Matrix divide(Matrix B) throws IOException;
+
   /**
    * Transposes the matrix. In most cases, the matrix must be square
    * for this to work.
@@ -0,0 +1,258 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.io.BatchUpdate;
+import org.apache.hadoop.hbase.io.Cell;
+import org.apache.hadoop.hbase.io.RowResult;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Writables;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hama.Matrix.Norm;
+import org.apache.hama.io.DoubleEntry;
+
+/**
+ * The statistics of a matrix: its four norms, and the number of non-zeros,
+ * minimum, maximum and sum of its stored entries. They are accumulated row by
+ * row, and the partial statistics of several scans are merged.
+ *
+ * The statistics are stored in the metadata row of the matrix, along with the
+ * modification stamp of the matrix they were computed at.
+ */
+public class MatrixStats implements Writable {
+  /** The number of cells below which the statistics are scanned locally */
+  public static final String LOCAL_SIZE = "hama.stats.local.size";
+  public static final int DEFAULT_LOCAL_SIZE = 4 * 1024 * 1024;
+
+  private long nnz;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+  private double sum;
+  private double sumOfSquares;
+  private double maxAbs;
+  private double maxRowSum;
+  private double maxColumnSum;
+  // the absolute column sums, while the statistics are accumulated
+  private double[] columnSums;
+
+  public MatrixStats() {
+    this(0);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param columns the number of columns of the matrix
+   */
+  public MatrixStats(int columns) {
+    columnSums = new double[columns];
+  }
+
+  /**
+   * Accumulates the entries of a row.
+   *
+   * @param row the entries of the row
+   */
+  public void add(MapWritable row) {
+    double rowSum = 0;
+    for (Map.Entry<Writable, Writable> e : row.entrySet()) {
+      if (!(e.getKey() instanceof IntWritable))
+        continue;
+      double value = ((DoubleEntry) e.getValue()).getValue();
+      double abs = Math.abs(value);
+      if (value != 0)
+        nnz++;
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+      sum += value;
+      sumOfSquares += value * value;
+      maxAbs = Math.max(maxAbs, abs);
+      rowSum += abs;
+      columnSums[((IntWritable) e.getKey()).get()] += abs;
+    }
+    maxRowSum = Math.max(maxRowSum, rowSum);
+  }
+
+  /**
+   * Merges the statistics of another part of the matrix.
+   *
+   * @param other
+   */
+  public void merge(MatrixStats other) {
+    nnz += other.nnz;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+    sum += other.sum;
+    sumOfSquares += other.sumOfSquares;
+    maxAbs = Math.max(maxAbs, other.maxAbs);
+    maxRowSum = Math.max(maxRowSum, other.maxRowSum);
+    maxColumnSum = Math.max(maxColumnSum, other.maxColumnSum);
+    if (columnSums.length < other.columnSums.length) {
+      double[] sums = new double[other.columnSums.length];
+      System.arraycopy(columnSums, 0, sums, 0, columnSums.length);
+      columnSums = sums;
+    }
+    for (int j = 0; j < other.columnSums.length; j++) {
+      columnSums[j] += other.columnSums[j];
+    }
+  }
+
+  /**
+   * Folds the column sums into the one norm, once all the parts are merged.
+   */
+  public void finish() {
+    for (int j = 0; j < columnSums.length; j++) {
+      maxColumnSum = Math.max(maxColumnSum, columnSums[j]);
+    }
+    columnSums = new double[0];
+  }
+
+  /**
+   * Returns the given norm of the matrix.
+   *
+   * @param type
+   * @return the norm
+   */
+  public double norm(Norm type) {
+    if (type == Norm.One) {
+      double norm = maxColumnSum;
+      for (int j = 0; j < columnSums.length; j++) {
+        norm = Math.max(norm, columnSums[j]);
+      }
+      return norm;
+    } else if (type == Norm.Frobenius)
+      return Math.sqrt(sumOfSquares);
+    else if (type == Norm.Infinity)
+      return maxRowSum;
+    else
+      return maxAbs;
+  }
+
+  /** @return the number of non-zero entries */
+  public long getNnz() {
+    return nnz;
+  }
+
+  /** @return the minimum of the stored entries */
+  public double getMin() {
+    return min;
+  }
+
+  /** @return the maximum of the stored entries */
+  public double getMax() {
+    return max;
+  }
+
+  /** @return the sum of the entries */
+  public double getSum() {
+    return sum;
+  }
+
+  /**
+   * Stores the statistics in the metadata row of the table.
+   *
+   * @param table
+   * @param stamp the modification stamp they were computed at
+   * @throws IOException
+   */
+  public void store(HTable table, String stamp) throws IOException {
+    finish();
+    BatchUpdate update = new BatchUpdate(Constants.METADATA);
+    update.put(Constants.METADATA_STATS, Writables.getBytes(this));
+    update.put(Constants.METADATA_STATS_STAMP, Bytes.toBytes(stamp));
+    table.commit(update);
+  }
+
+  /**
+   * Loads the statistics stored in the metadata row of the table.
+   *
+   * @param table
+   * @param stamp the modification stamp they should have been computed at, or
+   *                null for the current stamp of the matrix
+   * @return the statistics, or null if there are none for the stamp
+   * @throws IOException
+   */
+  public static MatrixStats load(HTable table, String stamp)
+      throws IOException {
+    RowResult row = table.getRow(Constants.METADATA, new String[] {
+        Constants.METADATA_STATS, Constants.METADATA_STATS_STAMP,
+        Constants.METADATA_MODIFIED });
+    if (row == null)
+      return null;
+    if (stamp == null)
+      stamp = getStamp(row.get(Constants.METADATA_MODIFIED));
+
+    Cell stats = row.get(Constants.METADATA_STATS);
+    if (stats == null
+        || !stamp.equals(getStamp(row.get(Constants.METADATA_STATS_STAMP))))
+      return null;
+
+    return (MatrixStats) Writables.getWritable(stats.getValue(),
+        new MatrixStats());
+  }
+
+  /**
+   * Returns the value of a stamp cell, which is empty if the cell is missing.
+   *
+   * @param cell
+   * @return the stamp
+   */
+  public static String getStamp(Cell cell) {
+    return (cell != null) ? Bytes.toString(cell.getValue()) : "";
+  }
+
+  public void write(DataOutput out) throws IOException {
+    out.writeLong(nnz);
+    out.writeDouble(min);
+    out.writeDouble(max);
+    out.writeDouble(sum);
+    out.writeDouble(sumOfSquares);
+    out.writeDouble(maxAbs);
+    out.writeDouble(maxRowSum);
+    out.writeDouble(maxColumnSum);
+    out.writeInt(columnSums.length);
+    for (int j = 0; j < columnSums.length; j++) {
+      out.writeDouble(columnSums[j]);
+    }
+  }
+
+  public void readFields(DataInput in) throws IOException {
+    nnz = in.readLong();
+    min = in.readDouble();
+    max = in.readDouble();
+    sum = in.readDouble();
+    sumOfSquares = in.readDouble();
+    maxAbs = in.readDouble();
+    maxRowSum = in.readDouble();
+    maxColumnSum = in.readDouble();
+    columnSums = new double[in.readInt()];
+    for (int j = 0; j < columnSums.length; j++) {
+      columnSums[j] = in.readDouble();
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama;
+
+/**
+ * The thin QR factorization A = Q * R of an m-by-n matrix: Q, an m-by-n
+ * matrix with orthonormal columns, and R, an n-by-n upper triangular matrix.
+ */
+public class QRDecomposition {
+  private DenseMatrix q;
+  private LocalDenseMatrix r;
+
+  /**
+   * Constructor
+   *
+   * @param q the orthonormal factor, or null if it wasn't computed
+   * @param r the upper triangular factor
+   */
+  public QRDecomposition(DenseMatrix q, LocalDenseMatrix r) {
+    this.q = q;
+    this.r = r;
+  }
+
+  /** @return the orthonormal factor, or null if it wasn't computed */
+  public DenseMatrix getQ() {
+    return q;
+  }
+
+  /** @return the upper triangular factor */
+  public LocalDenseMatrix getR() {
+    return r;
+  }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama;
+
+/**
+ * The k singular triplets of the largest singular values of an m-by-n
+ * matrix, A ~ U * S * V': the singular values, in decreasing order, the left
+ * singular vectors, as the columns of an m-by-k matrix, and the right
+ * singular vectors, as the columns of an n-by-k matrix.
+ */
+public class SingularValueDecomposition {
+  private double[] values;
+  private DenseMatrix u;
+  private LocalDenseMatrix v;
+
+  /**
+   * Constructor
+   *
+   * @param values the singular values
+   * @param u the left singular vectors, one per column
+   * @param v the right singular vectors, one per column
+   */
+  public SingularValueDecomposition(double[] values, DenseMatrix u,
+      LocalDenseMatrix v) {
+    this.values = values;
+    this.u = u;
+    this.v = v;
+  }
+
+  /** @return the number of singular triplets */
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * @param i the index of the singular triplet
+   * @return the singular value
+   */
+  public double getSingularValue(int i) {
+    return values[i];
+  }
+
+  /** @return the singular values */
+  public double[] getSingularValues() {
+    return values;
+  }
+
+  /** @return the left singular vectors, one per column */
+  public DenseMatrix getU() {
+    return u;
+  }
+
+  /** @return the right singular vectors, one per column */
+  public LocalDenseMatrix getV() {
+    return v;
+  }
+}
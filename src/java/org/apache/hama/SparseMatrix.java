@@ -20,23 +20,32 @@
 package org.apache.hama;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Random;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Scanner;
 import org.apache.hadoop.hbase.io.Cell;
+import org.apache.hadoop.hbase.io.RowResult;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.MapWritable;
 import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.io.SequenceFile.CompressionType;
 import org.apache.hadoop.mapred.FileInputFormat;
 import org.apache.hadoop.mapred.JobClient;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.SequenceFileInputFormat;
-import org.apache.hama.algebra.SparseMatrixVectorMultMap;
-import org.apache.hama.algebra.SparseMatrixVectorMultReduce;
+import org.apache.hadoop.mapred.lib.IdentityMapper;
+import org.apache.hama.algebra.RowRangeAdditionMap;
+import org.apache.hama.algebra.SparseMultiplyJoinReduce;
+import org.apache.hama.algebra.SparseMultiplyMap;
+import org.apache.hama.algebra.SparseMultiplyReduce;
+import org.apache.hama.io.DoubleEntry;
 import org.apache.hama.io.VectorUpdate;
 import org.apache.hama.mapred.RandomMatrixMap;
 import org.apache.hama.mapred.RandomMatrixReduce;
@@ -162,16 +171,56 @@ public class SparseMatrix extends AbstractMatrix implements Matrix {
     return rand;
   }
   
-  @Override
-  public Matrix add(Matrix B) throws IOException {
-    // TODO Auto-generated method stub
-    return null;
+  /**
+   * C = B + A
+   * 
+   * @param B
+   * @return C
+   * @throws IOException
+   */
+  public SparseMatrix add(Matrix B) throws IOException {
+    return add(1.0, B);
   }
 
-  @Override
-  public Matrix add(double alpha, Matrix B) throws IOException {
-    // TODO Auto-generated method stub
-    return null;
+  /**
+   * C = alpha*B + A. The rows of A and B are merged by row ranges in a
+   * map-only job, and only the non-zero entries of C are written.
+   * 
+   * @param alpha
+   * @param B
+   * @return C
+   * @throws IOException
+   */
+  public SparseMatrix add(double alpha, Matrix B) throws IOException {
+    ensureForAddition(B);
+
+    SparseMatrix result = new SparseMatrix(config, this.getRows(), this
+        .getColumns());
+    JobConf jobConf = new JobConf(config);
+    jobConf.setJobName("addition MR job : " + result.getPath());
+    jobConf.setNumMapTasks(config.getNumMapTasks());
+
+    Path inDir = writeRowRanges(jobConf, "addition", config.getNumMapTasks());
+    RowRangeAdditionMap.initJob(inDir, this.getPath() + "," + B.getPath(),
+        "1," + alpha, result.getPath(), RowRangeAdditionMap.class, jobConf);
+
+    try {
+      JobManager.execute(jobConf);
+    } finally {
+      FileSystem.get(jobConf).delete(inDir, true);
+    }
+    return result;
+  }
+
+  private void ensureForAddition(Matrix m) throws IOException {
+    if (getRows() != m.getRows() || getColumns() != m.getColumns()) {
+      throw new IOException(
+          "Matrices' rows and columns should be same while A+B.");
+    }
+    if (isTransposed(m)) {
+      throw new IOException(
+          "Transposed views should be materialized by transpose() while A+B.");
+    }
   }
 
   @Override
@@ -183,10 +232,33 @@ public class SparseMatrix extends AbstractMatrix implements Matrix {
     return (c != null) ? BytesUtil.bytesToDouble(c.getValue()) : 0.0;
   }
 
-  @Override
-  public Vector getColumn(int j) throws IOException {
-    // TODO Auto-generated method stub
-    return null;
+  /**
+   * Gets the vector of column. The column is read from the column replica
+   * with a single row lookup if the matrix has one, otherwise the column is
+   * scanned.
+   * 
+   * @param j the column index of the matrix
+   * @return the vector of column
+   * @throws IOException
+   */
+  public SparseVector getColumn(int j) throws IOException {
+    SparseMatrix columns = (SparseMatrix) getColumnReplica();
+    if (columns != null)
+      return columns.getRow(j);
+
+    byte[] columnKey = BytesUtil.getColumnIndex(j);
+    Scanner scan = table.getScanner(new byte[][] { columnKey },
+        HConstants.EMPTY_START_ROW);
+    MapWritable trunk = new MapWritable();
+    try {
+      for (RowResult row : scan) {
+        trunk.put(new IntWritable(BytesUtil.getRowIndex(row.getRow())),
+            new DoubleEntry(row.get(columnKey)));
+      }
+    } finally {
+      scan.close();
+    }
+    return new SparseVector(trunk);
   }
 
   /**
@@ -206,6 +278,8 @@ public class SparseMatrix extends AbstractMatrix implements Matrix {
       VectorUpdate update = new VectorUpdate(i);
       update.put(j, value);
       table.commit(update.getBatchUpdate());
+      updateReplica(i, j, value);
+      markModified(true);
     }
   }
   
@@ -217,60 +291,170 @@ public class SparseMatrix extends AbstractMatrix implements Matrix {
   }
 
   /**
-   * C = A*B using iterative method
+   * C = A*B using the row-wise sparse method, in two jobs whose cost follows
+   * the number of flops on the non-zero entries. The first job sends column k
+   * of A to the reducer of k, which joins it with row k of B in a single scan
+   * over its range of B, and emits the scaled rows A(i, k) * B(k, :). The
+   * second job sums the scaled rows by rows of C in sparse accumulators.
    * 
    * @param B
    * @return C
    * @throws IOException
    */
   public SparseMatrix mult(Matrix B) throws IOException {
-    SparseMatrix result = new SparseMatrix(config, this.getRows(), this.getColumns());
+    ensureForMultiplication(B);
+    if (B.getColumns() == 1 && B instanceof DenseMatrix) {
+      DenseVector y = mult((DenseVector) B.getColumn(0));
+      SparseMatrix result = new SparseMatrix(config, this.getRows(), 1);
+      result.setColumn(0, y);
+      return result;
+    }
 
-    for(int i = 0; i < this.getRows(); i++) {
-      JobConf jobConf = new JobConf(config);
-      jobConf.setJobName("multiplication MR job : " + result.getPath() + " " + i);
+    SparseMatrix result = new SparseMatrix(config, this.getRows(), B
+        .getColumns());
+    multAdd(B, result.getPath(), 1.0, false, false);
+    return result;
+  }
+
+  /**
+   * C = alpha*A*B + C using the row-wise sparse method. The scaling and the
+   * rows of C are folded into the reduce step of the accumulation job, and C is
+   * updated in place.
+   * 
+   * @param alpha
+   * @param B
+   * @param C
+   * @return C
+   * @throws IOException
+   */
+  public Matrix multAdd(double alpha, Matrix B, Matrix C) throws IOException {
+    ensureForMultiplication(B);
+    if (C.getRows() != this.getRows() || C.getColumns() != B.getColumns()) {
+      throw new IOException(
+          "C's rows and columns should equal with A*B's while C += A*B.");
+    }
+    if (isTransposed(C)) {
+      throw new IOException(
+          "Transposed views should be materialized by transpose() while C += A*B.");
+    }
 
+    multAdd(B, C.getPath(), alpha, true, !(C instanceof SparseMatrix));
+    if (C instanceof AbstractMatrix)
+      ((AbstractMatrix) C).markModified();
+    return C;
+  }
+
+  private void multAdd(Matrix B, String output, double alpha,
+      boolean accumulate, boolean dense) throws IOException {
+    final FileSystem fs = FileSystem.get(config);
+    Path tmpDir = new Path(getType() + "_TMP_SpGEMM_dir_"
+        + System.currentTimeMillis());
+
+    try {
+      JobConf jobConf = new JobConf(config);
+      jobConf.setJobName("sparse multiplication expand MR job : " + output);
       jobConf.setNumMapTasks(config.getNumMapTasks());
       jobConf.setNumReduceTasks(config.getNumReduceTasks());
-      
-      SparseMatrixVectorMultMap.initJob(i, this.getPath(), B.getPath(), SparseMatrixVectorMultMap.class,
-          IntWritable.class, MapWritable.class, jobConf);
-      SparseMatrixVectorMultReduce.initJob(result.getPath(), SparseMatrixVectorMultReduce.class,
+
+      SparseMultiplyMap.initJob(this.getPath(), B.getPath(), B.getRows(),
+          SparseMultiplyMap.class, IntWritable.class, MapWritable.class,
           jobConf);
+      SparseMultiplyJoinReduce.initJob(new Path(tmpDir, "expand"),
+          SparseMultiplyJoinReduce.class, jobConf);
       JobManager.execute(jobConf);
+
+      jobConf = new JobConf(config);
+      jobConf.setJobName("sparse multiplication accumulate MR job : "
+          + output);
+      jobConf.setNumMapTasks(config.getNumMapTasks());
+      jobConf.setNumReduceTasks(config.getNumReduceTasks());
+
+      jobConf.setInputFormat(SequenceFileInputFormat.class);
+      FileInputFormat.setInputPaths(jobConf, new Path(tmpDir, "expand"));
+      jobConf.setMapperClass(IdentityMapper.class);
+      jobConf.setMapOutputKeyClass(IntWritable.class);
+      jobConf.setMapOutputValueClass(MapWritable.class);
+      if (accumulate)
+        SparseMultiplyReduce.initJob(output, alpha, dense,
+            SparseMultiplyReduce.class, jobConf);
+      else
+        SparseMultiplyReduce.initJob(output, SparseMultiplyReduce.class,
+            jobConf);
+      JobManager.execute(jobConf);
+    } finally {
+      fs.delete(tmpDir, true);
     }
+  }
 
-    return result;
+  private void ensureForMultiplication(Matrix m) throws IOException {
+    if (getColumns() != m.getRows()) {
+      throw new IOException("A's columns should equal with B's rows while A*B.");
+    }
+    if (isTransposed(m)) {
+      throw new IOException(
+          "Transposed views should be materialized by transpose() while A*B.");
+    }
   }
 
-  @Override
-  public Matrix multAdd(double alpha, Matrix B, Matrix C) throws IOException {
-    // TODO Auto-generated method stub
-    return null;
+  private static boolean isTransposed(Matrix m) {
+    return m instanceof AbstractMatrix && ((AbstractMatrix) m).isTransposed();
   }
 
   /**
-   * Computes the given norm of the matrix
+   * y = A*x using a single map-only job. The rows of A are streamed against
+   * the broadcast dense vector, so only the stored entries are visited.
+   * 
+   * @param x
+   * @return y
+   * @throws IOException
+   */
+  public DenseVector mult(DenseVector x) throws IOException {
+    return multVector(x);
+  }
+
+  /**
+   * Computes the given norm of the matrix, from its cached statistics
    * 
    * @param type
    * @return norm of the matrix
    * @throws IOException
    */
   public double norm(Norm type) throws IOException {
-    if (type == Norm.One)
-      return getNorm1();
-    else if (type == Norm.Frobenius)
-      return getFrobenius();
-    else if (type == Norm.Infinity)
-      return getInfinity();
-    else
-      return getMaxvalue();
+    return getStats().norm(type);
   }
 
-  @Override
+  /**
+   * Set the column of a matrix to a given vector. Only the non-zero entries
+   * are stored, with a commit per row, and the commits are buffered and
+   * flushed once at the end.
+   * 
+   * @param column
+   * @param vector
+   * @throws IOException
+   */
   public void setColumn(int column, Vector vector) throws IOException {
-    // TODO Auto-generated method stub
-    
+    if (this.getColumns() < column)
+      throw new ArrayIndexOutOfBoundsException(column);
+
+    table.setAutoFlush(false);
+    try {
+      for (Map.Entry<Writable, Writable> e : vector.getEntries().entrySet()) {
+        if (!(e.getKey() instanceof IntWritable))
+          continue;
+        double value = ((DoubleEntry) e.getValue()).getValue();
+        if (value != 0) {
+          VectorUpdate update = new VectorUpdate(((IntWritable) e.getKey())
+              .get());
+          update.put(column, value);
+          table.commit(update.getBatchUpdate());
+        }
+      }
+      table.flushCommits();
+    } finally {
+      table.setAutoFlush(true);
+    }
+    updateReplicaRow(column, vector.getEntries());
+    markModified(true);
   }
 
   @Override
@@ -282,13 +466,29 @@ public class SparseMatrix extends AbstractMatrix implements Matrix {
       VectorUpdate update = new VectorUpdate(row);
       update.putAll(((SparseVector) vector).getEntries());
       table.commit(update.getBatchUpdate());
+      updateReplicaColumn(row, vector.getEntries());
+      markModified(true);
     }
   }
 
-  @Override
+  /**
+   * Returns the sub matrix formed by selecting certain rows and columns from a
+   * bigger matrix, with the missing entries as zero. The sub matrix is a
+   * in-memory operation only.
+   * 
+   * @param i0 the start index of row
+   * @param i1 the end index of row
+   * @param j0 the start index of column
+   * @param j1 the end index of column
+   * @return the sub matrix of matrix
+   * @throws IOException
+   */
   public SubMatrix subMatrix(int i0, int i1, int j0, int j1) throws IOException {
-    // TODO Auto-generated method stub
-    return null;
+    if (i0 < 0 || i0 > i1 || j0 < 0 || j0 > j1 || this.getRows() <= i1
+        || this.getColumns() <= j1)
+      throw new ArrayIndexOutOfBoundsException(i0 + ".." + i1 + ", " + j0
+          + ".." + j1);
+    return subTable(i0, i1, j0, j1);
   }
 
 }
\ No newline at end of file
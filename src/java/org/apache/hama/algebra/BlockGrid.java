@@ -0,0 +1,137 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import org.apache.hadoop.mapred.JobConf;
+
+/**
+ * A p x q x r block grid for C = A * B, where A is m-by-k and B is k-by-n. C
+ * is split into p x r blocks, one per task, and the inner dimension is split
+ * into q panels which a task streams through in rounds.
+ */
+public class BlockGrid {
+  public static final String GRID = "hama.multiplication.grid";
+  /** The maximum number of cells in a block of A or B */
+  public static final String BLOCK_SIZE = "hama.multiplication.block.size";
+  public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+  private int m, k, n;
+  private int p, q, r;
+
+  /**
+   * Constructor
+   *
+   * @param m the number of rows of A
+   * @param k the number of columns of A
+   * @param n the number of columns of B
+   * @param p the number of row blocks
+   * @param q the number of inner panels
+   * @param r the number of column blocks
+   */
+  public BlockGrid(int m, int k, int n, int p, int q, int r) {
+    this.m = m;
+    this.k = k;
+    this.n = n;
+    this.p = Math.max(1, Math.min(p, m));
+    this.q = Math.max(1, Math.min(q, k));
+    this.r = Math.max(1, Math.min(r, n));
+  }
+
+  /**
+   * Chooses a grid with at most the given number of blocks of C. The blocks of
+   * C are kept close to square, and the inner dimension is split so that a
+   * block of A or B holds at most blockSize cells.
+   *
+   * @param m the number of rows of A
+   * @param k the number of columns of A
+   * @param n the number of columns of B
+   * @param slots the number of tasks
+   * @param blockSize the maximum number of cells in a block of A or B
+   * @return the grid
+   */
+  public static BlockGrid choose(int m, int k, int n, int slots, int blockSize) {
+    slots = Math.max(1, slots);
+    int p = (int) Math.round(Math.sqrt((double) slots * m / n));
+    p = Math.max(1, Math.min(Math.min(p, m), slots));
+    int r = Math.max(1, Math.min(n, slots / p));
+
+    long height = (m + p - 1) / p;
+    long width = (n + r - 1) / r;
+    long cells = Math.max(height, width) * (long) k;
+    int q = (int) Math.min(k, (cells + blockSize - 1) / blockSize);
+    return new BlockGrid(m, k, n, p, q, r);
+  }
+
+  /**
+   * Reads the grid from the job configuration.
+   *
+   * @param job
+   * @return the grid
+   */
+  public static BlockGrid get(JobConf job) {
+    String[] v = job.get(GRID).split(",");
+    return new BlockGrid(Integer.parseInt(v[0]), Integer.parseInt(v[1]),
+        Integer.parseInt(v[2]), Integer.parseInt(v[3]), Integer.parseInt(v[4]),
+        Integer.parseInt(v[5]));
+  }
+
+  /**
+   * Stores the grid into the job configuration.
+   *
+   * @param job
+   */
+  public void set(JobConf job) {
+    job.set(GRID, m + "," + k + "," + n + "," + p + "," + q + "," + r);
+  }
+
+  /** @return the number of row blocks */
+  public int getRowBlocks() {
+    return p;
+  }
+
+  /** @return the number of inner panels */
+  public int getInnerBlocks() {
+    return q;
+  }
+
+  /** @return the number of column blocks */
+  public int getColumnBlocks() {
+    return r;
+  }
+
+  /** @return the first row of the ith row block */
+  public int rowStart(int i) {
+    return (int) ((long) i * m / p);
+  }
+
+  /** @return the first index of the sth inner panel */
+  public int innerStart(int s) {
+    return (int) ((long) s * k / q);
+  }
+
+  /** @return the first column of the jth column block */
+  public int columnStart(int j) {
+    return (int) ((long) j * n / r);
+  }
+
+  public String toString() {
+    return p + " x " + q + " x " + r;
+  }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Scanner;
+import org.apache.hadoop.hbase.io.Cell;
+import org.apache.hadoop.hbase.io.RowResult;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.Mapper;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapred.SequenceFileInputFormat;
+import org.apache.hama.HamaConfiguration;
+import org.apache.hama.SubMatrix;
+import org.apache.hama.io.BlockID;
+import org.apache.hama.io.BlockWritable;
+import org.apache.hama.util.BytesUtil;
+import org.apache.log4j.Logger;
+
+/**
+ * Transposes a dense matrix by tiles. The rows are cut into tile-size bands,
+ * and the input of a map task is a range of bands (first, last). Each tile of
+ * a band is read by a scan over the rows of the band and the columns of the
+ * tile, and is transposed and emitted keyed by its place in the result, so a
+ * task holds a single tile at a time however wide the matrix is.
+ */
+public class BlockTransposeMap extends MapReduceBase implements
+    Mapper<IntWritable, IntWritable, BlockID, BlockWritable> {
+  static final Logger LOG = Logger.getLogger(BlockTransposeMap.class);
+  public static final String MATRIX = "hama.transpose.matrix";
+  public static final String TILE_SIZE = "hama.transpose.tile.size";
+  public static final int DEFAULT_TILE_SIZE = 128;
+  public static final String ROWS = "hama.transpose.rows";
+  public static final String COLUMNS = "hama.transpose.columns";
+
+  protected HTable matrix;
+  protected int tileSize;
+  protected int rows;
+  protected int columns;
+
+  /**
+   * Sets up the job.
+   * 
+   * @param path the matrix
+   * @param rows the number of rows of the matrix
+   * @param columns the number of columns of the matrix
+   * @param tileSize the edge length of the tiles
+   * @param bands the input directory of the ranges of bands
+   * @param map
+   * @param jobConf
+   */
+  public static void initJob(String path, int rows, int columns, int tileSize,
+      Path bands, Class<BlockTransposeMap> map, JobConf jobConf) {
+
+    jobConf.setMapOutputValueClass(BlockWritable.class);
+    jobConf.setMapOutputKeyClass(BlockID.class);
+    jobConf.setMapperClass(map);
+    jobConf.set(MATRIX, path);
+    jobConf.setInt(ROWS, rows);
+    jobConf.setInt(COLUMNS, columns);
+    jobConf.setInt(TILE_SIZE, tileSize);
+
+    jobConf.setInputFormat(SequenceFileInputFormat.class);
+    FileInputFormat.setInputPaths(jobConf, bands);
+  }
+
+  public void configure(JobConf job) {
+    tileSize = job.getInt(TILE_SIZE, DEFAULT_TILE_SIZE);
+    rows = job.getInt(ROWS, 0);
+    columns = job.getInt(COLUMNS, 0);
+    try {
+      matrix = new HTable(new HamaConfiguration(job), job.get(MATRIX, ""));
+    } catch (IOException e) {
+      LOG.error(e);
+    }
+  }
+
+  @Override
+  public void map(IntWritable first, IntWritable last,
+      OutputCollector<BlockID, BlockWritable> output, Reporter reporter)
+      throws IOException {
+    for (int band = first.get(); band <= last.get(); band++) {
+      int i0 = band * tileSize;
+      int height = Math.min(tileSize, rows - i0);
+      for (int j0 = 0; j0 < columns; j0 += tileSize) {
+        int width = Math.min(tileSize, columns - j0);
+        output.collect(new BlockID(j0 / tileSize, band), new BlockWritable(
+            readTile(i0, height, j0, width)));
+        reporter.progress();
+      }
+    }
+  }
+
+  /**
+   * Reads the tile with one scan, and returns its transpose.
+   */
+  private SubMatrix readTile(int i0, int height, int j0, int width)
+      throws IOException {
+    byte[][] cols = new byte[width][];
+    for (int j = 0; j < width; j++) {
+      cols[j] = BytesUtil.getColumnIndex(j0 + j);
+    }
+
+    SubMatrix tile = new SubMatrix(width, height);
+    Scanner scan = matrix.getScanner(cols, BytesUtil.getRowIndex(i0),
+        BytesUtil.getRowIndex(i0 + height));
+    try {
+      for (RowResult row : scan) {
+        int i = BytesUtil.getRowIndex(row.getRow()) - i0;
+        for (int j = 0; j < width; j++) {
+          Cell c = row.get(cols[j]);
+          if (c != null)
+            tile.set(j, i, c.getValue());
+        }
+      }
+    } finally {
+      scan.close();
+    }
+    return tile;
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.hadoop.hbase.io.BatchUpdate;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reducer;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hama.SubMatrix;
+import org.apache.hama.io.BlockID;
+import org.apache.hama.io.BlockWritable;
+import org.apache.hama.io.VectorUpdate;
+import org.apache.hama.mapred.VectorOutputFormat;
+
+/**
+ * Writes a transposed tile into its rows of the result. If a tile was emitted
+ * in several parts, the parts are summed first.
+ */
+public class BlockTransposeReduce extends MapReduceBase implements
+    Reducer<BlockID, BlockWritable, IntWritable, VectorUpdate> {
+  protected int tileSize;
+
+  public static void initJob(String path, Class<BlockTransposeReduce> reducer,
+      JobConf jobConf) {
+    jobConf.setOutputFormat(VectorOutputFormat.class);
+    jobConf.setReducerClass(reducer);
+    jobConf.set(VectorOutputFormat.OUTPUT_TABLE, path);
+    jobConf.setOutputKeyClass(IntWritable.class);
+    jobConf.setOutputValueClass(BatchUpdate.class);
+  }
+
+  public void configure(JobConf job) {
+    tileSize = job.getInt(BlockTransposeMap.TILE_SIZE,
+        BlockTransposeMap.DEFAULT_TILE_SIZE);
+  }
+
+  @Override
+  public void reduce(BlockID key, Iterator<BlockWritable> values,
+      OutputCollector<IntWritable, VectorUpdate> output, Reporter reporter)
+      throws IOException {
+    SubMatrix tile = values.next().get(0);
+    while (values.hasNext()) {
+      tile = tile.add(values.next().get(0));
+    }
+
+    int i0 = key.getRow() * tileSize;
+    int j0 = key.getColumn() * tileSize;
+    for (int i = 0; i < tile.getRows(); i++) {
+      VectorUpdate update = new VectorUpdate(i0 + i);
+      for (int j = 0; j < tile.getColumns(); j++) {
+        update.put(j0 + j, tile.get(i, j));
+      }
+      output.collect(new IntWritable(i0 + i), update);
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Scanner;
+import org.apache.hadoop.hbase.io.RowResult;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.Mapper;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapred.SequenceFileInputFormat;
+import org.apache.hama.Constants;
+import org.apache.hama.ElementFunction;
+import org.apache.hama.HamaConfiguration;
+import org.apache.hama.SparseVector;
+import org.apache.hama.io.DoubleEntry;
+import org.apache.hama.io.VectorUpdate;
+import org.apache.hama.mapred.VectorOutputFormat;
+import org.apache.hama.util.BytesUtil;
+import org.apache.log4j.Logger;
+
+/**
+ * Applies a chain of element-wise operations to a matrix in a single
+ * map-only pass. The input of a map task is a range of rows (start, end). The
+ * task scans the range of the matrix, and the same range of every operand of
+ * the binary steps, which are merged with the matrix by row. Each step is
+ * applied to the stored entries of the matrix, in order, and the row is
+ * written once to the result.
+ */
+public class ElementWiseMap extends MapReduceBase implements
+    Mapper<IntWritable, IntWritable, IntWritable, VectorUpdate> {
+  static final Logger LOG = Logger.getLogger(ElementWiseMap.class);
+  public static final String MATRIX = "hama.elementwise.matrix";
+  /** The steps, separated by ';' */
+  public static final String STEPS = "hama.elementwise.steps";
+  /** If true, the zero entries of the result aren't written */
+  public static final String SPARSE = "hama.elementwise.sparse";
+
+  /** A step applying a function: "f:" + the encoded function */
+  public static final char APPLY = 'f';
+  /** A step multiplying by the entries of an operand: "m:" + its table */
+  public static final char MULTIPLY = 'm';
+  /** A step dividing by the entries of an operand: "d:" + its table */
+  public static final char DIVIDE = 'd';
+
+  protected HTable matrix;
+  protected char[] types;
+  protected ElementFunction[] functions;
+  protected HTable[] operands;
+  protected boolean sparse;
+
+  public static void initJob(Path ranges, String matrix, String steps,
+      boolean sparse, String output, Class<ElementWiseMap> map,
+      JobConf jobConf) {
+
+    jobConf.setMapperClass(map);
+    jobConf.set(MATRIX, matrix);
+    jobConf.set(STEPS, steps);
+    jobConf.setBoolean(SPARSE, sparse);
+
+    jobConf.setInputFormat(SequenceFileInputFormat.class);
+    FileInputFormat.setInputPaths(jobConf, ranges);
+
+    jobConf.setNumReduceTasks(0);
+    jobConf.setOutputFormat(VectorOutputFormat.class);
+    jobConf.set(VectorOutputFormat.OUTPUT_TABLE, output);
+    jobConf.setOutputKeyClass(IntWritable.class);
+    jobConf.setOutputValueClass(VectorUpdate.class);
+  }
+
+  public void configure(JobConf job) {
+    String[] steps = job.get(STEPS, "").split(";");
+    sparse = job.getBoolean(SPARSE, false);
+    types = new char[steps.length];
+    functions = new ElementFunction[steps.length];
+    operands = new HTable[steps.length];
+    try {
+      HamaConfiguration conf = new HamaConfiguration(job);
+      matrix = new HTable(conf, job.get(MATRIX, ""));
+      for (int s = 0; s < steps.length; s++) {
+        types[s] = steps[s].charAt(0);
+        String arg = steps[s].substring(2);
+        if (types[s] == APPLY)
+          functions[s] = ElementFunction.decode(arg);
+        else
+          operands[s] = new HTable(conf, arg);
+      }
+    } catch (IOException e) {
+      LOG.warn("Load the operands failed : " + e.getMessage());
+    }
+  }
+
+  @Override
+  public void map(IntWritable start, IntWritable end,
+      OutputCollector<IntWritable, VectorUpdate> output, Reporter reporter)
+      throws IOException {
+    byte[][] columns = new byte[][] { Bytes.toBytes(Constants.COLUMN) };
+    byte[] startRow = BytesUtil.getRowIndex(start.get());
+    byte[] stopRow = BytesUtil.getRowIndex(end.get() + 1);
+
+    int n = types.length;
+    Scanner scan = null;
+    Scanner[] scans = new Scanner[n];
+    RowResult[] rows = new RowResult[n];
+    try {
+      scan = matrix.getScanner(columns, startRow, stopRow);
+      for (int s = 0; s < n; s++) {
+        if (operands[s] != null) {
+          scans[s] = operands[s].getScanner(columns, startRow, stopRow);
+          rows[s] = scans[s].next();
+        }
+      }
+
+      MapWritable[] entries = new MapWritable[n];
+      for (RowResult row : scan) {
+        int i = BytesUtil.getRowIndex(row.getRow());
+        for (int s = 0; s < n; s++) {
+          if (scans[s] == null)
+            continue;
+          while (rows[s] != null && BytesUtil.getRowIndex(rows[s].getRow()) < i)
+            rows[s] = scans[s].next();
+          entries[s] = (rows[s] != null && BytesUtil.getRowIndex(rows[s]
+              .getRow()) == i) ? new SparseVector(rows[s]).getEntries()
+              : new MapWritable();
+        }
+
+        VectorUpdate update = new VectorUpdate(i);
+        int written = 0;
+        for (Map.Entry<Writable, Writable> e : new SparseVector(row)
+            .getEntries().entrySet()) {
+          if (!(e.getKey() instanceof IntWritable))
+            continue;
+          double value = apply(((DoubleEntry) e.getValue()).getValue(), e
+              .getKey(), entries);
+          if (!sparse || value != 0) {
+            update.put(((IntWritable) e.getKey()).get(), value);
+            written++;
+          }
+        }
+        if (written > 0)
+          output.collect(new IntWritable(i), update);
+        reporter.progress();
+      }
+    } finally {
+      if (scan != null)
+        scan.close();
+      for (Scanner s : scans) {
+        if (s != null)
+          s.close();
+      }
+    }
+  }
+
+  private double apply(double value, Writable column, MapWritable[] entries) {
+    for (int s = 0; s < types.length; s++) {
+      if (types[s] == APPLY) {
+        value = functions[s].apply(value);
+      } else {
+        DoubleEntry b = (DoubleEntry) entries[s].get(column);
+        double operand = (b != null) ? b.getValue() : 0;
+        value = (types[s] == MULTIPLY) ? value * operand : value / operand;
+      }
+    }
+    return value;
+  }
+}
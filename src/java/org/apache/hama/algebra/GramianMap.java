@@ -0,0 +1,154 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.Mapper;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hama.Constants;
+import org.apache.hama.io.DoubleEntry;
+import org.apache.hama.mapred.VectorInputFormat;
+import org.apache.hama.util.SparseAccumulator;
+
+/**
+ * G = A' * A in a single pass over A. Each map task adds the outer products
+ * a_k' * a_k of the rows it reads into a local symmetric accumulator, and
+ * emits the rows of its partial G when it closes. The partial rows are summed
+ * by the combiner and the reducer of the outer product multiplication, or of
+ * the sparse multiplication.
+ * 
+ * The accumulator is the dense upper triangle of G if it fits in
+ * {@link #DENSE_CELLS}, and a sparse accumulator per row of G otherwise. If G
+ * is a dense matrix, every row of it is emitted, so that the rows for the zero
+ * columns of A are written too.
+ */
+public class GramianMap extends MapReduceBase implements
+    Mapper<IntWritable, MapWritable, IntWritable, MapWritable> {
+  /** The maximum number of cells of a dense accumulator */
+  public static final String DENSE_CELLS = "hama.gramian.dense.cells";
+  public static final int DEFAULT_DENSE_CELLS = 4 * 1024 * 1024;
+  /** Emits the zero rows of G too if true, as G is a dense matrix */
+  public static final String DENSE_OUTPUT = "hama.gramian.dense.output";
+
+  protected int columns;
+  // the upper triangle, row i holds the columns j >= i at j - i
+  protected double[][] dense;
+  protected SparseAccumulator[] sparse;
+  protected boolean denseOutput;
+  protected OutputCollector<IntWritable, MapWritable> collector;
+
+  public static void initJob(String matrix_a, int columns, boolean dense,
+      Class<GramianMap> map, JobConf jobConf) {
+    jobConf.setMapperClass(map);
+    jobConf.setBoolean(DENSE_OUTPUT, dense);
+    jobConf.setInputFormat(VectorInputFormat.class);
+    FileInputFormat.addInputPaths(jobConf, matrix_a);
+    jobConf.set(VectorInputFormat.COLUMN_LIST, Constants.COLUMN);
+    jobConf.setInt(OuterProductMultiplyMap.COLUMNS, columns);
+    jobConf.setMapOutputKeyClass(IntWritable.class);
+    jobConf.setMapOutputValueClass(MapWritable.class);
+  }
+
+  public void configure(JobConf job) {
+    columns = job.getInt(OuterProductMultiplyMap.COLUMNS, 0);
+    denseOutput = job.getBoolean(DENSE_OUTPUT, false);
+    if ((long) columns * (columns + 1) / 2 <= job.getInt(DENSE_CELLS,
+        DEFAULT_DENSE_CELLS))
+      dense = new double[columns][];
+    else
+      sparse = new SparseAccumulator[columns];
+  }
+
+  @Override
+  public void map(IntWritable key, MapWritable value,
+      OutputCollector<IntWritable, MapWritable> output, Reporter reporter)
+      throws IOException {
+    this.collector = output;
+
+    int nnz = 0;
+    int[] index = new int[value.size()];
+    double[] entry = new double[value.size()];
+    for (Map.Entry<Writable, Writable> e : value.entrySet()) {
+      if (!(e.getKey() instanceof IntWritable))
+        continue;
+      double v = ((DoubleEntry) e.getValue()).getValue();
+      if (v != 0) {
+        index[nnz] = ((IntWritable) e.getKey()).get();
+        entry[nnz++] = v;
+      }
+    }
+
+    for (int p = 0; p < nnz; p++) {
+      int i = index[p];
+      if (dense != null) {
+        if (dense[i] == null)
+          dense[i] = new double[columns - i];
+        for (int q = 0; q < nnz; q++) {
+          if (index[q] >= i)
+            dense[i][index[q] - i] += entry[p] * entry[q];
+        }
+      } else {
+        if (sparse[i] == null)
+          sparse[i] = new SparseAccumulator();
+        for (int q = 0; q < nnz; q++)
+          sparse[i].add(index[q], entry[p] * entry[q]);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (collector == null)
+      return;
+
+    for (int i = 0; i < columns; i++) {
+      MapWritable row;
+      if (dense != null) {
+        row = new MapWritable();
+        for (int j = 0; j < columns; j++) {
+          double v = 0;
+          if (j < i && dense[j] != null)
+            v = dense[j][i - j];
+          else if (j >= i && dense[i] != null)
+            v = dense[i][j - i];
+          if (v != 0)
+            row.put(new IntWritable(j), new DoubleEntry(v));
+        }
+      } else if (sparse[i] != null) {
+        row = sparse[i].getEntries();
+      } else {
+        row = new MapWritable();
+      }
+
+      // the reducer writes a full row of a dense G, even for a zero column of A
+      if (denseOutput || row.size() > 0)
+        collector.collect(new IntWritable(i), row);
+    }
+  }
+}
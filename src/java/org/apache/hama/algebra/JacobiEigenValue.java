@@ -2,7 +2,6 @@ package org.apache.hama.algebra;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -11,11 +10,11 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.UnknownScannerException;
 import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.io.BatchUpdate;
 import org.apache.hadoop.hbase.io.Cell;
 import org.apache.hadoop.hbase.io.RowResult;
 import org.apache.hadoop.hbase.mapred.TableSplit;
 import org.apache.hadoop.hbase.util.Bytes;
-import org.apache.hadoop.io.DoubleWritable;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.MapWritable;
 import org.apache.hadoop.io.NullWritable;
@@ -28,15 +27,14 @@ import org.apache.hadoop.mapred.MapReduceBase;
 import org.apache.hadoop.mapred.Mapper;
 import org.apache.hadoop.mapred.OutputCollector;
 import org.apache.hadoop.mapred.RecordReader;
-import org.apache.hadoop.mapred.Reducer;
 import org.apache.hadoop.mapred.Reporter;
 import org.apache.hadoop.util.StringUtils;
 import org.apache.hama.Constants;
 import org.apache.hama.io.DoubleEntry;
-import org.apache.hama.io.Pair;
 import org.apache.hama.io.VectorUpdate;
 import org.apache.hama.mapred.HTableInputFormatBase;
 import org.apache.hama.mapred.HTableRecordReaderBase;
+import org.apache.hama.util.BroadcastUtil;
 import org.apache.hama.util.BytesUtil;
 
 /**
@@ -64,8 +62,165 @@ public class JacobiEigenValue {
   public static final String PIVOTSIN = "hama.jacobi.pivot.sin";
   public static final String PIVOTCOS = "hama.jacobi.pivot.cos";
 
+  /** parameters for a round of the parallel ordering * */
+  public static final String ROUND = "hama.jacobi.round";
+  public static final String ROUND_ANGLES = "hama.jacobi.round.angles";
+
   static final Log LOG = LogFactory.getLog(JacobiEigenValue.class);
 
+  /**
+   * Decodes the cells of a family of the jacobi computation, such as "eicol"
+   * or "eivec", into an array indexed by column. The cells of the other
+   * families of the row are skipped, and missing cells are left as they are.
+   * 
+   * @param r the row, or null
+   * @param family the family
+   * @param x the array of the columns
+   */
+  public static void decodeRow(RowResult r, String family, double[] x) {
+    if (r == null)
+      return;
+    for (Map.Entry<byte[], Cell> e : r.entrySet()) {
+      String column = Bytes.toString(e.getKey());
+      if (column.startsWith(family))
+        x[Integer.parseInt(column.substring(family.length()))] = BytesUtil
+            .bytesToDouble(e.getValue().getValue());
+    }
+  }
+
+  /**
+   * Returns the disjoint pairs (p, q), p < q, of a round of the round-robin
+   * ordering. Over n - 1 rounds (n if n is odd), every pair of indices meets
+   * exactly once. If n is odd, one index is idle in each round, and its pair
+   * is (p, -1).
+   * 
+   * @param n the number of indices
+   * @param round the round
+   * @return the pairs of the round
+   */
+  public static int[][] roundRobin(int n, int round) {
+    int players = n + (n % 2);
+    int rounds = players - 1;
+    int[][] pairs = new int[players / 2][];
+    for (int slot = 0; slot < pairs.length; slot++) {
+      int p, q;
+      if (slot == 0) {
+        p = round % rounds;
+        q = players - 1;
+      } else {
+        p = (round + slot) % rounds;
+        q = (round + rounds - slot) % rounds;
+      }
+      if (q >= n) // paired with the dummy index
+        pairs[slot] = new int[] { p, -1 };
+      else
+        pairs[slot] = new int[] { Math.min(p, q), Math.max(p, q) };
+    }
+    return pairs;
+  }
+
+  /**
+   * Applies all the rotations of a round of the parallel ordering, A = J' A J
+   * and V' = J' V', in one pass. The input of a map task is a range of the
+   * pairs (start, end) of the round. For a pair (p, q), the task reads the
+   * rows p and q of "eicol" and "eivec" with one lookup each, rotates their
+   * columns by every rotation of the round, then combines the two rows by the
+   * rotation of the pair, and writes them back. The rotations are broadcast
+   * as the cosine and sine of each index; an index which isn't rotated has
+   * the cosine 1 and the sine 0.
+   */
+  public static class RoundMapper extends MapReduceBase implements
+      Mapper<IntWritable, IntWritable, IntWritable, VectorUpdate> {
+    HTable table;
+    int[][] pairs;
+    double[] cos, sin;
+
+    @Override
+    public void configure(JobConf job) {
+      try {
+        table = new HTable(new HBaseConfiguration(job), job.get(MATRIX, ""));
+        double[][] angles = BroadcastUtil.get(job, ROUND_ANGLES);
+        cos = angles[0];
+        sin = angles[1];
+        pairs = roundRobin(cos.length, job.getInt(ROUND, 0));
+      } catch (IOException e) {
+        LOG.error(e);
+      }
+    }
+
+    @Override
+    public void map(IntWritable start, IntWritable end,
+        OutputCollector<IntWritable, VectorUpdate> output, Reporter reporter)
+        throws IOException {
+      int n = cos.length;
+      for (int slot = start.get(); slot <= end.get(); slot++) {
+        int p = pairs[slot][0], q = pairs[slot][1];
+        double[] ap = new double[n], vp = new double[n];
+        readRow(p, ap, vp);
+        rotateColumns(ap);
+
+        if (q < 0) {
+          output.collect(new IntWritable(p), update(p, ap, null));
+          continue;
+        }
+
+        double[] aq = new double[n], vq = new double[n];
+        readRow(q, aq, vq);
+        rotateColumns(aq);
+
+        double c = cos[p], s = sin[p];
+        combine(ap, aq, c, s);
+        combine(vp, vq, c, s);
+        if (s != 0) {
+          ap[q] = 0;
+          aq[p] = 0;
+        }
+
+        output.collect(new IntWritable(p), update(p, ap, vp));
+        output.collect(new IntWritable(q), update(q, aq, vq));
+        reporter.progress();
+      }
+    }
+
+    private void readRow(int row, double[] a, double[] v) throws IOException {
+      RowResult r = table.getRow(BytesUtil.getRowIndex(row), new byte[][] {
+          Bytes.toBytes(EICOL), Bytes.toBytes(EIVEC) });
+      decodeRow(r, EICOL, a);
+      decodeRow(r, EIVEC, v);
+    }
+
+    /** x = x * J */
+    private void rotateColumns(double[] x) {
+      for (int[] pair : pairs) {
+        int i = pair[0], j = pair[1];
+        if (j >= 0 && sin[i] != 0) {
+          double xi = x[i], xj = x[j];
+          x[i] = cos[i] * xi - sin[i] * xj;
+          x[j] = sin[i] * xi + cos[i] * xj;
+        }
+      }
+    }
+
+    private static void combine(double[] x, double[] y, double c, double s) {
+      for (int i = 0; i < x.length; i++) {
+        double xi = x[i], yi = y[i];
+        x[i] = c * xi - s * yi;
+        y[i] = s * xi + c * yi;
+      }
+    }
+
+    private static VectorUpdate update(int row, double[] a, double[] v) {
+      VectorUpdate vu = new VectorUpdate(row);
+      for (int j = 0; j < a.length; j++) {
+        vu.put(EICOL, j, a[j]);
+        if (v != null)
+          vu.put(EIVEC, j, v[j]);
+      }
+      vu.put(EIVAL, a[row]);
+      return vu;
+    }
+  }
+
   /**
    * The matrix will be modified during computing eigen value. So a new matrix
    * will be created to prevent the original matrix being modified. To reduce
@@ -142,211 +297,6 @@ public class JacobiEigenValue {
 
   }
 
-  /**
-   * PivotInputFormat & PivotMapper & PivotReducer are used to find the pivot in
-   * a matrix
-   */
-  public static class PivotInputFormat extends HTableInputFormatBase implements
-      InputFormat<Pair, DoubleWritable>, JobConfigurable {
-
-    private PivotRecordReader tableRecordReader;
-
-    protected static class PivotRecordReader extends HTableRecordReaderBase
-        implements RecordReader<Pair, DoubleWritable> {
-
-      private int totalRows;
-      private int processedRows;
-      private int size;
-      boolean mocked = true;
-
-      @Override
-      public void init() throws IOException {
-        super.init();
-
-        Cell rows = null;
-        rows = htable.get(Constants.METADATA, Constants.METADATA_ROWS);
-        size = (rows != null) ? BytesUtil.bytesToInt(rows.getValue()) : 0;
-
-        if (endRow.length == 0) { // the last split, we don't know the end row
-          totalRows = 0; // so we just skip it.
-        } else {
-          if (startRow.length == 0) { // the first split, start row is 0
-            totalRows = BytesUtil.bytesToInt(endRow);
-          } else {
-            totalRows = BytesUtil.bytesToInt(endRow)
-                - BytesUtil.bytesToInt(startRow);
-          }
-        }
-        processedRows = 0;
-        LOG.info("Split (" + Bytes.toString(startRow) + ", "
-            + Bytes.toString(endRow) + ") -> " + totalRows);
-      }
-
-      /**
-       * @return Pair
-       * 
-       * @see org.apache.hadoop.mapred.RecordReader#createKey()
-       */
-      public Pair createKey() {
-        return new Pair();
-      }
-
-      /**
-       * @return DoubleWritable
-       * 
-       * @see org.apache.hadoop.mapred.RecordReader#createValue()
-       */
-      public DoubleWritable createValue() {
-        return new DoubleWritable();
-      }
-
-      /**
-       * @param key Pair as input key.
-       * @param value DoubleWritable as input value
-       * 
-       * Converts Scanner.next() to Pair, DoubleWritable
-       * 
-       * @return true if there was more data
-       * @throws IOException
-       */
-      public boolean next(Pair key, DoubleWritable value) throws IOException {
-        RowResult result;
-        try {
-          result = this.scanner.next();
-        } catch (UnknownScannerException e) {
-          LOG.debug("recovered from " + StringUtils.stringifyException(e));
-          restart(lastRow);
-          this.scanner.next(); // skip presumed already mapped row
-          result = this.scanner.next();
-        }
-
-        boolean hasMore = result != null && result.size() > 0;
-        if (hasMore) {
-          byte[] row = result.getRow();
-          int rowId = BytesUtil.bytesToInt(row);
-          if (rowId == size - 1) { // skip the last row
-            if (mocked) {
-              key.set(Integer.MAX_VALUE, Integer.MAX_VALUE);
-              mocked = false;
-              return true;
-            } else {
-              return false;
-            }
-          }
-
-          byte[] col = result.get(EIIND).getValue();
-          int colId = BytesUtil.bytesToInt(col);
-          double val = 0;
-
-          // get (rowId, colId)'s value
-          Cell cell = htable.get(BytesUtil.getRowIndex(rowId), Bytes
-              .toBytes(EICOL + colId));
-          if (cell != null && cell.getValue() != null) {
-            val = BytesUtil.bytesToDouble(cell.getValue());
-          }
-
-          key.set(rowId, colId);
-          value.set(val);
-
-          lastRow = row;
-          processedRows++;
-        } else {
-          if (mocked) {
-            key.set(Integer.MAX_VALUE, Integer.MAX_VALUE);
-            mocked = false;
-            return true;
-          } else {
-            return false;
-          }
-        }
-        return hasMore;
-      }
-
-      @Override
-      public float getProgress() {
-        if (totalRows <= 0) {
-          return 0;
-        } else {
-          return Math.min(1.0f, processedRows / (float) totalRows);
-        }
-      }
-
-    }
-
-    @Override
-    public RecordReader<Pair, DoubleWritable> getRecordReader(InputSplit split,
-        JobConf conf, Reporter reporter) throws IOException {
-      TableSplit tSplit = (TableSplit) split;
-      PivotRecordReader trr = this.tableRecordReader;
-      // if no table record reader was provided use default
-      if (trr == null) {
-        trr = new PivotRecordReader();
-      }
-      trr.setStartRow(tSplit.getStartRow());
-      trr.setEndRow(tSplit.getEndRow());
-      trr.setHTable(this.table);
-      trr.setInputColumns(this.inputColumns);
-      trr.setRowFilter(this.rowFilter);
-      trr.init();
-      return trr;
-    }
-
-    protected void setTableRecordReader(PivotRecordReader tableRecordReader) {
-      this.tableRecordReader = tableRecordReader;
-    }
-
-  }
-
-  // find the pivot of the matrix
-  public static class PivotMapper extends MapReduceBase implements
-      Mapper<Pair, DoubleWritable, Pair, DoubleWritable> {
-
-    private double max = 0;
-    private Pair pair = new Pair(0, 0);
-    private Pair dummyPair = new Pair(Integer.MAX_VALUE, Integer.MAX_VALUE);
-    private DoubleWritable dummyVal = new DoubleWritable(0.0);
-
-    @Override
-    public void map(Pair key, DoubleWritable value,
-        OutputCollector<Pair, DoubleWritable> collector, Reporter reporter)
-        throws IOException {
-      if (key.getRow() != Integer.MAX_VALUE) {
-        if (Math.abs(value.get()) > Math.abs(max)) {
-          pair.set(key.getRow(), key.getColumn());
-          max = value.get();
-        }
-      } else {
-        collector.collect(pair, new DoubleWritable(max));
-        collector.collect(dummyPair, dummyVal);
-      }
-    }
-
-  }
-
-  public static class PivotReducer extends MapReduceBase implements
-      Reducer<Pair, DoubleWritable, Pair, DoubleWritable> {
-
-    private double max = 0;
-    private Pair pair = new Pair(0, 0);
-
-    @Override
-    public void reduce(Pair key, Iterator<DoubleWritable> values,
-        OutputCollector<Pair, DoubleWritable> collector, Reporter reporter)
-        throws IOException {
-      double val;
-      if (key.getRow() != Integer.MAX_VALUE) {
-        val = values.next().get();
-        if (Math.abs(val) > Math.abs(max)) {
-          pair.set(key.getRow(), key.getColumn());
-          max = val;
-        }
-      } else {
-        collector.collect(pair, new DoubleWritable(max));
-      }
-    }
-
-  }
-
   /**
    * Tricky here! we rotation the matrix during we scan the matrix and update to
    * the matrix so we just need a rotationrecordreader to scan the matrix and do
@@ -366,6 +316,13 @@ public class JacobiEigenValue {
       pivot_col = job.getInt(PIVOTCOL, -1);
       pivot_sin = Double.parseDouble(job.get(PIVOTSIN));
       pivot_cos = Double.parseDouble(job.get(PIVOTCOS));
+
+      // the pivot columns are scanned along with the rows
+      byte[][] columns = new byte[inputColumns.length + 2][];
+      System.arraycopy(inputColumns, 0, columns, 0, inputColumns.length);
+      columns[inputColumns.length] = Bytes.toBytes(EICOL + pivot_row);
+      columns[inputColumns.length + 1] = Bytes.toBytes(EICOL + pivot_col);
+      setInputColums(columns);
     }
 
     protected static class RotationRecordReader extends HTableRecordReaderBase
@@ -380,16 +337,20 @@ public class JacobiEigenValue {
       byte[] prow, pcol;
       double pivotcos, pivotsin;
 
+      // the pivot rows, read once per split if they are needed
+      double[] pivotRow, pivotCol;
+      // the updates of the split, committed when the split is done
+      List<BatchUpdate> updates = new ArrayList<BatchUpdate>();
+      VectorUpdate pivotRowUpdate, pivotColUpdate;
+
       public RotationRecordReader(int pr, int pc, double psin, double pcos) {
         super();
         pivotrow = pr;
         pivotcol = pc;
         pivotsin = psin;
         pivotcos = pcos;
-        prow = Bytes.toBytes(pivotrow);
-        pcol = Bytes.toBytes(pivotcol);
-        LOG.info(prow);
-        LOG.info(pcol);
+        prow = Bytes.toBytes(EICOL + pivotrow);
+        pcol = Bytes.toBytes(EICOL + pivotcol);
       }
 
       @Override
@@ -470,51 +431,33 @@ public class JacobiEigenValue {
           byte[] row = result.getRow();
           int rowId = BytesUtil.bytesToInt(row);
           if (rowId < pivotrow) {
-            s1 = BytesUtil.bytesToDouble(htable.get(
-                BytesUtil.getRowIndex(rowId),
-                Bytes.toBytes(JacobiEigenValue.EICOL + pivotrow)).getValue());
-            s2 = BytesUtil.bytesToDouble(htable.get(
-                BytesUtil.getRowIndex(rowId),
-                Bytes.toBytes(JacobiEigenValue.EICOL + pivotcol)).getValue());
+            s1 = getCell(result, prow);
+            s2 = getCell(result, pcol);
 
             bu = new VectorUpdate(rowId);
             bu.put(EICOL, pivotrow, pivotcos * s1 - pivotsin * s2);
             bu.put(EICOL, pivotcol, pivotsin * s1 + pivotcos * s2);
-
-            htable.commit(bu.getBatchUpdate());
+            updates.add(bu.getBatchUpdate());
           } else if (rowId == pivotrow) {
             return true;
           } else if (rowId < pivotcol) {
-            s1 = BytesUtil.bytesToDouble(htable.get(
-                BytesUtil.getRowIndex(pivotrow), Bytes.toBytes(EICOL + rowId))
-                .getValue());
-            s2 = BytesUtil.bytesToDouble(htable.get(
-                BytesUtil.getRowIndex(rowId), Bytes.toBytes(EICOL + pivotcol))
-                .getValue());
+            readPivotRows();
+            s1 = pivotRow[rowId];
+            s2 = getCell(result, pcol);
 
             bu = new VectorUpdate(rowId);
             bu.put(EICOL, pivotcol, pivotsin * s1 + pivotcos * s2);
-            htable.commit(bu.getBatchUpdate());
+            updates.add(bu.getBatchUpdate());
 
-            bu = new VectorUpdate(pivotrow);
-            bu.put(EICOL, rowId, pivotcos * s1 - pivotsin * s2);
-            htable.commit(bu.getBatchUpdate());
+            pivotRowUpdate.put(EICOL, rowId, pivotcos * s1 - pivotsin * s2);
           } else if (rowId == pivotcol) {
+            readPivotRows();
             for (int i = pivotcol + 1; i < size; i++) {
-              s1 = BytesUtil.bytesToDouble(htable.get(
-                  BytesUtil.getRowIndex(pivotrow), Bytes.toBytes(EICOL + i))
-                  .getValue());
-              s2 = BytesUtil.bytesToDouble(htable.get(
-                  BytesUtil.getRowIndex(pivotcol), Bytes.toBytes(EICOL + i))
-                  .getValue());
-
-              bu = new VectorUpdate(pivotcol);
-              bu.put(EICOL, i, pivotsin * s1 + pivotcos * s2);
-              htable.commit(bu.getBatchUpdate());
-
-              bu = new VectorUpdate(pivotrow);
-              bu.put(EICOL, i, pivotcos * s1 - pivotsin * s2);
-              htable.commit(bu.getBatchUpdate());
+              s1 = pivotRow[i];
+              s2 = pivotCol[i];
+
+              pivotColUpdate.put(EICOL, i, pivotsin * s1 + pivotcos * s2);
+              pivotRowUpdate.put(EICOL, i, pivotcos * s1 - pivotsin * s2);
             }
           } else { // rowId > pivotcol
             return false;
@@ -526,6 +469,55 @@ public class JacobiEigenValue {
         return hasMore;
       }
 
+      private static double getCell(RowResult result, byte[] column) {
+        Cell c = result.get(column);
+        return (c != null) ? BytesUtil.bytesToDouble(c.getValue()) : 0;
+      }
+
+      /**
+       * Reads the "eicol" of the two pivot rows, with one lookup each. A
+       * split reads the pivot rows at most once, and their updates are
+       * collected in one batch each.
+       */
+      private void readPivotRows() throws IOException {
+        if (pivotRow != null)
+          return;
+
+        pivotRow = new double[size];
+        pivotCol = new double[size];
+        for (int k = 0; k < 2; k++) {
+          double[] x = (k == 0) ? pivotRow : pivotCol;
+          decodeRow(htable.getRow(BytesUtil.getRowIndex(k == 0 ? pivotrow
+              : pivotcol), new byte[][] { Bytes.toBytes(EICOL) }), EICOL, x);
+        }
+        pivotRowUpdate = new VectorUpdate(pivotrow);
+        pivotColUpdate = new VectorUpdate(pivotcol);
+      }
+
+      /**
+       * Commits the updates of the split in one batch, then closes the
+       * scanner.
+       */
+      @Override
+      public void close() throws IOException {
+        if (pivotRowUpdate != null) {
+          for (VectorUpdate vu : new VectorUpdate[] { pivotRowUpdate,
+              pivotColUpdate }) {
+            if (vu.getBatchUpdate().iterator().hasNext())
+              updates.add(vu.getBatchUpdate());
+          }
+        }
+        try {
+          if (updates.size() > 0)
+            htable.commit(updates);
+        } finally {
+          updates.clear();
+          pivotRow = pivotCol = null;
+          pivotRowUpdate = pivotColUpdate = null;
+          super.close();
+        }
+      }
+
       @Override
       public float getProgress() {
         if (totalRows <= 0) {
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.Mapper;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hama.Constants;
+import org.apache.hama.MatrixStats;
+import org.apache.hama.mapred.VectorInputFormat;
+
+/**
+ * Accumulates the statistics of the rows of a map task, and emits them once
+ * when the task closes.
+ */
+public class MatrixStatsMap extends MapReduceBase implements
+    Mapper<IntWritable, MapWritable, IntWritable, MatrixStats> {
+  /** The number of columns of the matrix */
+  public static final String COLUMNS = "hama.stats.columns";
+
+  protected MatrixStats stats;
+  protected OutputCollector<IntWritable, MatrixStats> collector;
+
+  public static void initJob(String path, int columns,
+      Class<MatrixStatsMap> map, JobConf jobConf) {
+    jobConf.setMapperClass(map);
+    jobConf.setMapOutputKeyClass(IntWritable.class);
+    jobConf.setMapOutputValueClass(MatrixStats.class);
+    jobConf.setInt(COLUMNS, columns);
+
+    jobConf.setInputFormat(VectorInputFormat.class);
+    FileInputFormat.addInputPaths(jobConf, path);
+    jobConf.set(VectorInputFormat.COLUMN_LIST, Constants.COLUMN);
+  }
+
+  public void configure(JobConf job) {
+    stats = new MatrixStats(job.getInt(COLUMNS, 0));
+  }
+
+  @Override
+  public void map(IntWritable key, MapWritable value,
+      OutputCollector<IntWritable, MatrixStats> output, Reporter reporter)
+      throws IOException {
+    collector = output;
+    stats.add(value);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (collector != null)
+      collector.collect(new IntWritable(0), stats);
+  }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reducer;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapred.lib.NullOutputFormat;
+import org.apache.hama.HamaConfiguration;
+import org.apache.hama.MatrixStats;
+import org.apache.log4j.Logger;
+
+/**
+ * Merges the statistics of the map tasks, and stores them in the metadata row
+ * of the matrix, with the modification stamp the job was started at.
+ */
+public class MatrixStatsReduce extends MapReduceBase implements
+    Reducer<IntWritable, MatrixStats, IntWritable, MatrixStats> {
+  static final Logger LOG = Logger.getLogger(MatrixStatsReduce.class);
+  public static final String MATRIX = "hama.stats.matrix";
+  public static final String STAMP = "hama.stats.stamp";
+
+  protected HTable table;
+  protected String stamp;
+  protected MatrixStats stats = new MatrixStats();
+
+  public static void initJob(String path, String stamp,
+      Class<MatrixStatsReduce> reducer, JobConf jobConf) {
+    jobConf.setReducerClass(reducer);
+    jobConf.setNumReduceTasks(1);
+    jobConf.set(MATRIX, path);
+    jobConf.set(STAMP, stamp);
+    jobConf.setOutputFormat(NullOutputFormat.class);
+  }
+
+  public void configure(JobConf job) {
+    stamp = job.get(STAMP, "");
+    try {
+      table = new HTable(new HamaConfiguration(job), job.get(MATRIX, ""));
+    } catch (IOException e) {
+      LOG.error(e);
+    }
+  }
+
+  @Override
+  public void reduce(IntWritable key, Iterator<MatrixStats> values,
+      OutputCollector<IntWritable, MatrixStats> output, Reporter reporter)
+      throws IOException {
+    while (values.hasNext()) {
+      stats.merge(values.next());
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    stats.store(table, stamp);
+  }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.FileOutputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.Mapper;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapred.SequenceFileOutputFormat;
+import org.apache.hama.Constants;
+import org.apache.hama.Vector;
+import org.apache.hama.io.DoubleEntry;
+import org.apache.hama.mapred.VectorInputFormat;
+import org.apache.hama.util.BroadcastUtil;
+import org.apache.log4j.Logger;
+
+/**
+ * y = A * x, where x is broadcast to every map task. Each row of A is
+ * multiplied with the in-memory x as it is read, so the product is computed
+ * by a single map-only pass, and y(i) is written as (i, y(i)).
+ *
+ * If A is a transposed view of the table, row k of the table scales x(k) into
+ * a partial y held by the map task, which is emitted when the task closes and
+ * summed by {@link MatrixVectorMultReduce}.
+ */
+public class MatrixVectorMultMap extends MapReduceBase implements
+    Mapper<IntWritable, MapWritable, IntWritable, DoubleWritable> {
+  static final Logger LOG = Logger.getLogger(MatrixVectorMultMap.class);
+  public static final String VECTOR = "hama.multiplication.vector";
+  /** The number of columns of the table, set if A is a transposed view */
+  public static final String TRANSPOSED = "hama.multiplication.transposed";
+
+  protected double[] x;
+  protected double[] partial;
+  protected OutputCollector<IntWritable, DoubleWritable> collector;
+  private DoubleWritable y = new DoubleWritable();
+
+  /**
+   * Sets up the job. The vector is shipped through a side file in the
+   * temporary directory, and the products are written to its "out" directory.
+   * 
+   * @param matrix_a
+   * @param x the vector
+   * @param size the size of the vector
+   * @param tmpDir the temporary directory of the job
+   * @param map
+   * @param jobConf
+   * @throws IOException
+   */
+  public static void initJob(String matrix_a, Vector x, int size, Path tmpDir,
+      Class<MatrixVectorMultMap> map, JobConf jobConf) throws IOException {
+    initJob(matrix_a, false, 0, x, size, tmpDir, map, jobConf);
+  }
+
+  /**
+   * Sets up the job for A = T', where T is the table, if transposed is true.
+   * The partial products are then summed by the reducers.
+   * 
+   * @param matrix_a
+   * @param transposed true if A is a transposed view of the table
+   * @param rows the number of rows of A
+   * @param x the vector
+   * @param size the size of the vector
+   * @param tmpDir the temporary directory of the job
+   * @param map
+   * @param jobConf
+   * @throws IOException
+   */
+  public static void initJob(String matrix_a, boolean transposed, int rows,
+      Vector x, int size, Path tmpDir, Class<MatrixVectorMultMap> map,
+      JobConf jobConf) throws IOException {
+
+    jobConf.setMapperClass(map);
+    jobConf.setInputFormat(VectorInputFormat.class);
+    FileInputFormat.addInputPaths(jobConf, matrix_a);
+    jobConf.set(VectorInputFormat.COLUMN_LIST, Constants.COLUMN);
+    BroadcastUtil.broadcast(jobConf, VECTOR, new Path(tmpDir, "vector"), x,
+        size);
+
+    if (transposed) {
+      jobConf.setInt(TRANSPOSED, rows);
+      jobConf.setCombinerClass(MatrixVectorMultReduce.class);
+      jobConf.setReducerClass(MatrixVectorMultReduce.class);
+    } else {
+      jobConf.setNumReduceTasks(0);
+    }
+    jobConf.setOutputKeyClass(IntWritable.class);
+    jobConf.setOutputValueClass(DoubleWritable.class);
+    jobConf.setOutputFormat(SequenceFileOutputFormat.class);
+    FileOutputFormat.setOutputPath(jobConf, new Path(tmpDir, "out"));
+  }
+
+  public void configure(JobConf job) {
+    try {
+      x = BroadcastUtil.getVector(job, VECTOR);
+      if (job.getInt(TRANSPOSED, 0) > 0)
+        partial = new double[job.getInt(TRANSPOSED, 0)];
+    } catch (IOException e) {
+      LOG.error(e);
+    }
+  }
+
+  @Override
+  public void map(IntWritable key, MapWritable value,
+      OutputCollector<IntWritable, DoubleWritable> output, Reporter reporter)
+      throws IOException {
+    if (partial != null) {
+      collector = output;
+      double xk = x[key.get()];
+      if (xk == 0)
+        return;
+      for (Map.Entry<Writable, Writable> e : value.entrySet()) {
+        partial[((IntWritable) e.getKey()).get()] += xk
+            * ((DoubleEntry) e.getValue()).getValue();
+      }
+      return;
+    }
+
+    double sum = 0;
+    for (Map.Entry<Writable, Writable> e : value.entrySet()) {
+      sum += ((DoubleEntry) e.getValue()).getValue()
+          * x[((IntWritable) e.getKey()).get()];
+    }
+
+    y.set(sum);
+    output.collect(key, y);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (partial == null || collector == null)
+      return;
+
+    for (int j = 0; j < partial.length; j++) {
+      if (partial[j] != 0) {
+        y.set(partial[j]);
+        collector.collect(new IntWritable(j), y);
+      }
+    }
+  }
+}
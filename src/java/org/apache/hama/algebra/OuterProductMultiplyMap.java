@@ -0,0 +1,279 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Scanner;
+import org.apache.hadoop.hbase.io.Cell;
+import org.apache.hadoop.hbase.io.RowResult;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.Mapper;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hama.Constants;
+import org.apache.hama.DenseVector;
+import org.apache.hama.HamaConfiguration;
+import org.apache.hama.io.DoubleEntry;
+import org.apache.hama.mapred.VectorInputFormat;
+import org.apache.hama.util.BytesUtil;
+import org.apache.log4j.Logger;
+
+/**
+ * Outer-product multiplication C = A * B = sum_k A(:, k) * B(k, :).
+ *
+ * The input of a map task is a range of B's rows. The rows are collected into
+ * a panel, and the matching column panel of A is then read with a single scan
+ * over just those columns. Each row i of A yields the partial row sum_k A(i, k)
+ * * B(k, :) over the panel, which is combined in the mapper before it is
+ * emitted to the reducer of row i. Since the panels of all the map tasks
+ * partition the columns of A, each operand is scanned once.
+ *
+ * If A is a transposed view of the table T, the column panel of A is the row
+ * panel of T with the same indices, so it is read by a scan over just that
+ * range of rows, and row i of C gets T(k, i) * B(k, :) for each of its
+ * entries.
+ *
+ * A row of C which gets no products from a panel is emitted as an empty
+ * partial row, so that the reducer writes the zero rows of a dense C.
+ */
+public class OuterProductMultiplyMap extends MapReduceBase implements
+    Mapper<IntWritable, MapWritable, IntWritable, MapWritable> {
+  static final Logger LOG = Logger.getLogger(OuterProductMultiplyMap.class);
+  public static final String MATRIX_A = "hama.multiplication.matrix.a";
+  public static final String MATRIX_B = "hama.multiplication.matrix.b";
+  /** The number of columns of B */
+  public static final String COLUMNS = "hama.multiplication.columns";
+  /** The maximum number of B's cells held in a panel */
+  public static final String PANEL_SIZE = "hama.multiplication.panel.size";
+  public static final int DEFAULT_PANEL_SIZE = 1024 * 1024;
+  /** True if A is a transposed view of its table */
+  public static final String TRANSPOSE_A = "hama.multiplication.transpose.a";
+
+  protected HTable matrix_a;
+  protected boolean transposeA;
+  protected int columns;
+  protected int panelRows;
+  protected List<Integer> indices = new ArrayList<Integer>();
+  protected List<double[]> panel = new ArrayList<double[]>();
+  protected OutputCollector<IntWritable, MapWritable> collector;
+  protected Reporter reporter;
+
+  public static void initJob(String matrix_a, String matrix_b, int columns,
+      Class<OuterProductMultiplyMap> map, Class<IntWritable> outputKeyClass,
+      Class<MapWritable> outputValueClass, JobConf jobConf) {
+    initJob(matrix_a, false, matrix_b, columns, map, outputKeyClass,
+        outputValueClass, jobConf);
+  }
+
+  public static void initJob(String matrix_a, boolean transposeA,
+      String matrix_b, int columns, Class<OuterProductMultiplyMap> map,
+      Class<IntWritable> outputKeyClass, Class<MapWritable> outputValueClass,
+      JobConf jobConf) {
+
+    jobConf.setBoolean(TRANSPOSE_A, transposeA);
+    jobConf.setMapOutputValueClass(outputValueClass);
+    jobConf.setMapOutputKeyClass(outputKeyClass);
+    jobConf.setMapperClass(map);
+    jobConf.set(MATRIX_A, matrix_a);
+    jobConf.set(MATRIX_B, matrix_b);
+    jobConf.setInt(COLUMNS, columns);
+
+    jobConf.setInputFormat(VectorInputFormat.class);
+    FileInputFormat.addInputPaths(jobConf, matrix_b);
+    jobConf.set(VectorInputFormat.COLUMN_LIST, Constants.COLUMN);
+  }
+
+  public void configure(JobConf job) {
+    columns = job.getInt(COLUMNS, 0);
+    transposeA = job.getBoolean(TRANSPOSE_A, false);
+    panelRows = Math.max(1, job.getInt(PANEL_SIZE, DEFAULT_PANEL_SIZE)
+        / Math.max(1, columns));
+    try {
+      matrix_a = new HTable(new HamaConfiguration(job), job.get(MATRIX_A, ""));
+    } catch (IOException e) {
+      LOG.error(e);
+    }
+  }
+
+  @Override
+  public void map(IntWritable key, MapWritable value,
+      OutputCollector<IntWritable, MapWritable> output, Reporter reporter)
+      throws IOException {
+    this.collector = output;
+    this.reporter = reporter;
+
+    double[] row = new double[columns];
+    for (Map.Entry<Writable, Writable> e : value.entrySet()) {
+      row[((IntWritable) e.getKey()).get()] = ((DoubleEntry) e.getValue())
+          .getValue();
+    }
+    indices.add(key.get());
+    panel.add(row);
+
+    if (panel.size() >= panelRows)
+      flush();
+  }
+
+  /**
+   * Joins the panel of B's rows with the matching columns of A, and emits a
+   * partial row of C for each row of A.
+   */
+  protected void flush() throws IOException {
+    if (panel.size() == 0)
+      return;
+    if (transposeA) {
+      flushTransposed();
+      return;
+    }
+
+    byte[][] cols = new byte[indices.size()][];
+    for (int p = 0; p < cols.length; p++) {
+      cols[p] = BytesUtil.getColumnIndex(indices.get(p));
+    }
+
+    Scanner scan = matrix_a.getScanner(cols);
+    try {
+      for (RowResult rs : scan) {
+        double[] partial = null;
+        for (int p = 0; p < cols.length; p++) {
+          Cell c = rs.get(cols[p]);
+          if (c == null)
+            continue;
+          double aik = BytesUtil.bytesToDouble(c.getValue());
+          if (aik == 0)
+            continue;
+          if (partial == null)
+            partial = new double[columns];
+
+          double[] bk = panel.get(p);
+          for (int j = 0; j < columns; j++) {
+            partial[j] += aik * bk[j];
+          }
+        }
+
+        // a row without products is still emitted, so that the reducer
+        // writes the zero row of a dense C
+        collector.collect(new IntWritable(BytesUtil.getRowIndex(rs.getRow())),
+            partial != null ? toEntries(partial) : new MapWritable());
+        reporter.progress();
+      }
+    } finally {
+      scan.close();
+    }
+
+    indices.clear();
+    panel.clear();
+  }
+
+  /**
+   * Joins the panel of B's rows with the same rows of A's table, and emits
+   * the partial rows of C, whose count is bounded by the panel size.
+   */
+  protected void flushTransposed() throws IOException {
+    Map<Integer, Integer> positions = new HashMap<Integer, Integer>();
+    int first = Integer.MAX_VALUE, last = -1;
+    for (int p = 0; p < indices.size(); p++) {
+      int k = indices.get(p);
+      positions.put(k, p);
+      first = Math.min(first, k);
+      last = Math.max(last, k);
+    }
+
+    Map<Integer, double[]> partials = new HashMap<Integer, double[]>();
+    Set<Integer> zeros = new HashSet<Integer>();
+    Scanner scan = matrix_a.getScanner(new byte[][] { Bytes
+        .toBytes(Constants.COLUMN) }, BytesUtil.getRowIndex(first), BytesUtil
+        .getRowIndex(last + 1));
+    try {
+      for (RowResult rs : scan) {
+        Integer p = positions.get(BytesUtil.getRowIndex(rs.getRow()));
+        if (p == null)
+          continue;
+
+        double[] bk = panel.get(p);
+        for (Map.Entry<Writable, Writable> e : new DenseVector(rs)
+            .getEntries().entrySet()) {
+          double aki = ((DoubleEntry) e.getValue()).getValue();
+          Integer i = ((IntWritable) e.getKey()).get();
+          if (aki == 0) {
+            zeros.add(i);
+            continue;
+          }
+
+          double[] partial = partials.get(i);
+          if (partial == null) {
+            if (partials.size() >= panelRows)
+              emit(partials);
+            partial = new double[columns];
+            partials.put(i, partial);
+          }
+          for (int j = 0; j < columns; j++) {
+            partial[j] += aki * bk[j];
+          }
+        }
+        reporter.progress();
+      }
+    } finally {
+      scan.close();
+    }
+    for (Integer i : zeros) {
+      if (!partials.containsKey(i))
+        collector.collect(new IntWritable(i), new MapWritable());
+    }
+    emit(partials);
+
+    indices.clear();
+    panel.clear();
+  }
+
+  private void emit(Map<Integer, double[]> partials) throws IOException {
+    for (Map.Entry<Integer, double[]> e : partials.entrySet()) {
+      collector.collect(new IntWritable(e.getKey()), toEntries(e.getValue()));
+    }
+    partials.clear();
+  }
+
+  static MapWritable toEntries(double[] row) {
+    DenseVector v = new DenseVector();
+    for (int j = 0; j < row.length; j++) {
+      v.set(j, row[j]);
+    }
+    return v.getEntries();
+  }
+
+  @Override
+  public void close() throws IOException {
+    flush();
+  }
+}
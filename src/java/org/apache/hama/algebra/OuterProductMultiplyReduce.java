@@ -0,0 +1,174 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.io.BatchUpdate;
+import org.apache.hadoop.hbase.io.Cell;
+import org.apache.hadoop.hbase.io.RowResult;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reducer;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hama.Constants;
+import org.apache.hama.HamaConfiguration;
+import org.apache.hama.io.VectorUpdate;
+import org.apache.hama.mapred.VectorOutputFormat;
+import org.apache.hama.util.BytesUtil;
+import org.apache.log4j.Logger;
+
+/**
+ * Sums the partial rows of C, and writes each row of C once, including the
+ * zero rows. For C = alpha*A*B + C, the sum is scaled and added to the
+ * existing row of the output table before it is written back, and a row whose
+ * sum is zero is left as it is. If C is sparse, its zero entries are not
+ * written, and the existing entries which become zero are deleted.
+ */
+public class OuterProductMultiplyReduce extends MapReduceBase implements
+    Reducer<IntWritable, MapWritable, IntWritable, VectorUpdate> {
+  static final Logger LOG = Logger.getLogger(OuterProductMultiplyReduce.class);
+  public static final String ALPHA = "hama.multiplication.alpha";
+  /** Adds the existing rows of the output table if true */
+  public static final String ACCUMULATE = "hama.multiplication.accumulate";
+  /** Leaves out the zero entries of C if true, as C is a sparse matrix */
+  public static final String SPARSE = "hama.multiplication.sparse";
+
+  protected int columns;
+  protected double alpha;
+  protected boolean sparse;
+  protected HTable summand;
+
+  /**
+   * Use this before submitting a TableReduce job. It will appropriately set up
+   * the JobConf.
+   *
+   * @param table
+   * @param reducer
+   * @param job
+   */
+  public static void initJob(String table,
+      Class<OuterProductMultiplyReduce> reducer, JobConf job) {
+    job.setOutputFormat(VectorOutputFormat.class);
+    job.setCombinerClass(OuterProductMultiplyCombiner.class);
+    job.setReducerClass(reducer);
+    job.set(VectorOutputFormat.OUTPUT_TABLE, table);
+    job.setOutputKeyClass(IntWritable.class);
+    job.setOutputValueClass(BatchUpdate.class);
+  }
+
+  /**
+   * Sets up the JobConf to compute C = alpha*A*B + C, where C is the output
+   * table.
+   * 
+   * @param table
+   * @param alpha
+   * @param reducer
+   * @param job
+   */
+  public static void initJob(String table, double alpha,
+      Class<OuterProductMultiplyReduce> reducer, JobConf job) {
+    initJob(table, alpha, false, reducer, job);
+  }
+
+  /**
+   * Sets up the JobConf to compute C = alpha*A*B + C, where C is the output
+   * table. If C is sparse, its zero entries are left out.
+   * 
+   * @param table
+   * @param alpha
+   * @param sparse true if C is a sparse matrix
+   * @param reducer
+   * @param job
+   */
+  public static void initJob(String table, double alpha, boolean sparse,
+      Class<OuterProductMultiplyReduce> reducer, JobConf job) {
+    initJob(table, reducer, job);
+    job.set(ALPHA, String.valueOf(alpha));
+    job.setBoolean(ACCUMULATE, true);
+    job.setBoolean(SPARSE, sparse);
+  }
+
+  public void configure(JobConf job) {
+    columns = job.getInt(OuterProductMultiplyMap.COLUMNS, 0);
+    alpha = Double.parseDouble(job.get(ALPHA, "1"));
+    sparse = job.getBoolean(SPARSE, false);
+    if (job.getBoolean(ACCUMULATE, false)) {
+      try {
+        summand = new HTable(new HamaConfiguration(job), job
+            .get(VectorOutputFormat.OUTPUT_TABLE));
+      } catch (IOException e) {
+        LOG.error(e);
+      }
+    }
+  }
+
+  @Override
+  public void reduce(IntWritable key, Iterator<MapWritable> values,
+      OutputCollector<IntWritable, VectorUpdate> output, Reporter reporter)
+      throws IOException {
+    double[] sum = OuterProductMultiplyCombiner.sum(values, columns);
+    if (summand != null && isZero(sum))
+      return; // C is left as it is
+    if (alpha != 1) {
+      for (int j = 0; j < columns; j++) {
+        sum[j] *= alpha;
+      }
+    }
+
+    boolean[] existing = new boolean[columns];
+    if (summand != null) {
+      RowResult row = summand.getRow(BytesUtil.getRowIndex(key.get()),
+          new byte[][] { Bytes.toBytes(Constants.COLUMN) });
+      if (row != null) {
+        for (Map.Entry<byte[], Cell> e : row.entrySet()) {
+          int j = BytesUtil.getColumnIndex(e.getKey());
+          sum[j] += BytesUtil.bytesToDouble(e.getValue().getValue());
+          existing[j] = true;
+        }
+      }
+    }
+
+    VectorUpdate update = new VectorUpdate(key.get());
+    for (int j = 0; j < columns; j++) {
+      if (!sparse || sum[j] != 0)
+        update.put(j, sum[j]);
+      else if (existing[j])
+        update.getBatchUpdate().delete(BytesUtil.getColumnIndex(j));
+    }
+    if (update.getBatchUpdate().iterator().hasNext())
+      output.collect(key, update);
+  }
+
+  private static boolean isZero(double[] row) {
+    for (int j = 0; j < row.length; j++) {
+      if (row[j] != 0)
+        return false;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.Mapper;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hama.Constants;
+import org.apache.hama.io.DoubleEntry;
+import org.apache.hama.io.VectorUpdate;
+import org.apache.hama.mapred.VectorInputFormat;
+import org.apache.hama.mapred.VectorOutputFormat;
+import org.apache.hama.util.BroadcastUtil;
+import org.apache.log4j.Logger;
+
+/**
+ * Y = A * G, where G is a small n-by-l matrix held by every map task. Each
+ * row of A is multiplied with G as it is read, so Y is computed by a single
+ * map-only pass, and only the non-zero entries of A are visited.
+ * 
+ * G is either broadcast, or a Gaussian test matrix which each task generates
+ * from a shared seed, so that it is never stored.
+ */
+public class ProjectionMap extends MapReduceBase implements
+    Mapper<IntWritable, MapWritable, IntWritable, VectorUpdate> {
+  static final Logger LOG = Logger.getLogger(ProjectionMap.class);
+  /** The seed of the Gaussian test matrix */
+  public static final String SEED = "hama.projection.seed";
+  /** The side file of the broadcast matrix */
+  public static final String FACTOR = "hama.projection.factor";
+  public static final String ROWS = "hama.projection.rows";
+  public static final String COLUMNS = "hama.projection.columns";
+
+  protected double[][] g;
+
+  /**
+   * Sets up the job for Y = A * G, where G is an n-by-l Gaussian test matrix
+   * generated from the seed.
+   * 
+   * @param matrix_a
+   * @param n the number of columns of A
+   * @param l the number of columns of G
+   * @param seed the seed of G
+   * @param output the output table
+   * @param map
+   * @param jobConf
+   */
+  public static void initJob(String matrix_a, int n, int l, long seed,
+      String output, Class<ProjectionMap> map, JobConf jobConf) {
+    init(matrix_a, output, map, jobConf);
+    jobConf.setInt(ROWS, n);
+    jobConf.setInt(COLUMNS, l);
+    jobConf.setLong(SEED, seed);
+  }
+
+  /**
+   * Sets up the job for Y = A * G. G is shipped through a side file in the
+   * temporary directory.
+   * 
+   * @param matrix_a
+   * @param g the matrix
+   * @param tmpDir the temporary directory of the job
+   * @param output the output table
+   * @param map
+   * @param jobConf
+   * @throws IOException
+   */
+  public static void initJob(String matrix_a, double[][] g, Path tmpDir,
+      String output, Class<ProjectionMap> map, JobConf jobConf)
+      throws IOException {
+    init(matrix_a, output, map, jobConf);
+    BroadcastUtil.broadcast(jobConf, FACTOR, new Path(tmpDir, "factor"), g);
+  }
+
+  private static void init(String matrix_a, String output,
+      Class<ProjectionMap> map, JobConf jobConf) {
+    jobConf.setMapperClass(map);
+    jobConf.setInputFormat(VectorInputFormat.class);
+    FileInputFormat.addInputPaths(jobConf, matrix_a);
+    jobConf.set(VectorInputFormat.COLUMN_LIST, Constants.COLUMN);
+
+    jobConf.setNumReduceTasks(0);
+    jobConf.setOutputFormat(VectorOutputFormat.class);
+    jobConf.set(VectorOutputFormat.OUTPUT_TABLE, output);
+    jobConf.setOutputKeyClass(IntWritable.class);
+    jobConf.setOutputValueClass(VectorUpdate.class);
+  }
+
+  public void configure(JobConf job) {
+    if (job.get(FACTOR) == null) {
+      g = gaussian(job.getInt(ROWS, 0), job.getInt(COLUMNS, 0), job.getLong(
+          SEED, 0));
+      return;
+    }
+
+    try {
+      g = BroadcastUtil.get(job, FACTOR);
+    } catch (IOException e) {
+      LOG.error(e);
+    }
+  }
+
+  /**
+   * Generates an n-by-l matrix of standard normal entries. The same seed
+   * gives the same matrix.
+   * 
+   * @param n
+   * @param l
+   * @param seed
+   * @return the matrix
+   */
+  public static double[][] gaussian(int n, int l, long seed) {
+    Random random = new Random(seed);
+    double[][] g = new double[n][l];
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < l; j++)
+        g[i][j] = random.nextGaussian();
+    }
+    return g;
+  }
+
+  @Override
+  public void map(IntWritable key, MapWritable value,
+      OutputCollector<IntWritable, VectorUpdate> output, Reporter reporter)
+      throws IOException {
+    int l = (g.length == 0) ? 0 : g[0].length;
+    double[] y = new double[l];
+    for (Map.Entry<Writable, Writable> e : value.entrySet()) {
+      if (!(e.getKey() instanceof IntWritable))
+        continue;
+      double a = ((DoubleEntry) e.getValue()).getValue();
+      double[] gk = g[((IntWritable) e.getKey()).get()];
+      for (int j = 0; j < l; j++)
+        y[j] += a * gk[j];
+    }
+
+    VectorUpdate update = new VectorUpdate(key.get());
+    for (int j = 0; j < l; j++) {
+      update.put(j, y[j]);
+    }
+    output.collect(key, update);
+  }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Scanner;
+import org.apache.hadoop.hbase.io.RowResult;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.Mapper;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapred.SequenceFileInputFormat;
+import org.apache.hama.Constants;
+import org.apache.hama.HamaConfiguration;
+import org.apache.hama.SparseVector;
+import org.apache.hama.io.VectorUpdate;
+import org.apache.hama.mapred.VectorOutputFormat;
+import org.apache.hama.util.BytesUtil;
+import org.apache.hama.util.SparseAccumulator;
+import org.apache.log4j.Logger;
+
+/**
+ * C = sum alpha_m * A_m over sparse summands. The input of a map task is a
+ * range of rows (start, end). The task scans the range of every summand, and
+ * merges the scans by row, so a row is written if any of the summands has an
+ * entry in it. Only the non-zero entries of C are written.
+ */
+public class RowRangeAdditionMap extends MapReduceBase implements
+    Mapper<IntWritable, IntWritable, IntWritable, VectorUpdate> {
+  static final Logger LOG = Logger.getLogger(RowRangeAdditionMap.class);
+  public static final String MATRIX_SUMMANDS = "hama.addition.summands";
+  public static final String MATRIX_ALPHAS = "hama.addition.alphas";
+
+  protected HTable[] matrix_summands;
+  protected double[] matrix_alphas;
+  private SparseAccumulator sum = new SparseAccumulator();
+
+  public static void initJob(Path ranges, String matrix_summandlist,
+      String matrix_alphalist, String output, Class<RowRangeAdditionMap> map,
+      JobConf jobConf) {
+
+    jobConf.setMapperClass(map);
+    jobConf.set(MATRIX_SUMMANDS, matrix_summandlist);
+    jobConf.set(MATRIX_ALPHAS, matrix_alphalist);
+
+    jobConf.setInputFormat(SequenceFileInputFormat.class);
+    FileInputFormat.setInputPaths(jobConf, ranges);
+
+    jobConf.setNumReduceTasks(0);
+    jobConf.setOutputFormat(VectorOutputFormat.class);
+    jobConf.set(VectorOutputFormat.OUTPUT_TABLE, output);
+    jobConf.setOutputKeyClass(IntWritable.class);
+    jobConf.setOutputValueClass(VectorUpdate.class);
+  }
+
+  public void configure(JobConf job) {
+    String[] matrix_names = job.get(MATRIX_SUMMANDS, "").split(",");
+    String[] matrix_alpha_strs = job.get(MATRIX_ALPHAS, "").split(",");
+
+    matrix_summands = new HTable[matrix_names.length];
+    matrix_alphas = new double[matrix_names.length];
+    try {
+      for (int i = 0; i < matrix_names.length; i++) {
+        matrix_summands[i] = new HTable(new HamaConfiguration(job),
+            matrix_names[i]);
+        matrix_alphas[i] = Double.valueOf(matrix_alpha_strs[i]);
+      }
+    } catch (IOException e) {
+      LOG.warn("Load the summands failed : " + e.getMessage());
+    }
+  }
+
+  @Override
+  public void map(IntWritable start, IntWritable end,
+      OutputCollector<IntWritable, VectorUpdate> output, Reporter reporter)
+      throws IOException {
+    int n = matrix_summands.length;
+    Scanner[] scans = new Scanner[n];
+    RowResult[] rows = new RowResult[n];
+    int[] indices = new int[n];
+
+    try {
+      for (int m = 0; m < n; m++) {
+        scans[m] = matrix_summands[m].getScanner(new byte[][] { Bytes
+            .toBytes(Constants.COLUMN) }, BytesUtil.getRowIndex(start.get()),
+            BytesUtil.getRowIndex(end.get() + 1));
+        rows[m] = next(scans[m], indices, m);
+      }
+
+      while (true) {
+        int row = Integer.MAX_VALUE;
+        for (int m = 0; m < n; m++) {
+          if (rows[m] != null)
+            row = Math.min(row, indices[m]);
+        }
+        if (row == Integer.MAX_VALUE)
+          break;
+
+        sum.clear();
+        for (int m = 0; m < n; m++) {
+          if (rows[m] != null && indices[m] == row) {
+            sum.add(matrix_alphas[m], new SparseVector(rows[m]).getEntries());
+            rows[m] = next(scans[m], indices, m);
+          }
+        }
+
+        MapWritable entries = sum.getEntries();
+        if (entries.size() > 0) {
+          VectorUpdate update = new VectorUpdate(row);
+          update.putAll(entries);
+          output.collect(new IntWritable(row), update);
+        }
+        reporter.progress();
+      }
+    } finally {
+      for (Scanner scan : scans) {
+        if (scan != null)
+          scan.close();
+      }
+    }
+  }
+
+  private static RowResult next(Scanner scan, int[] indices, int m)
+      throws IOException {
+    RowResult row = scan.next();
+    if (row != null)
+      indices[m] = BytesUtil.getRowIndex(row.getRow());
+    return row;
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Scanner;
+import org.apache.hadoop.hbase.io.RowResult;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.FileOutputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Partitioner;
+import org.apache.hadoop.mapred.Reducer;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapred.SequenceFileOutputFormat;
+import org.apache.hama.Constants;
+import org.apache.hama.HamaConfiguration;
+import org.apache.hama.SparseVector;
+import org.apache.hama.io.DoubleEntry;
+import org.apache.hama.util.BytesUtil;
+import org.apache.log4j.Logger;
+
+/**
+ * Joins column k of A with row k of B, and emits the scaled rows A(i, k) *
+ * B(k, :) keyed by i. The keys are range partitioned, so each reducer receives
+ * an increasing run of k and merges it with a single scan over its range of B's
+ * rows. The amount of output is the number of flops of the multiplication.
+ */
+public class SparseMultiplyJoinReduce extends MapReduceBase implements
+    Reducer<IntWritable, MapWritable, IntWritable, MapWritable> {
+  static final Logger LOG = Logger.getLogger(SparseMultiplyJoinReduce.class);
+
+  protected HTable matrix_b;
+  protected Scanner scan;
+  protected RowResult current;
+  protected int currentRow;
+
+  /**
+   * Use this before submitting the job. It will appropriately set up the
+   * JobConf.
+   * 
+   * @param output the output directory of the scaled rows
+   * @param reducer
+   * @param job
+   */
+  public static void initJob(Path output,
+      Class<SparseMultiplyJoinReduce> reducer, JobConf job) {
+    job.setCombinerClass(SparseMultiplyCombiner.class);
+    job.setPartitionerClass(RowRangePartitioner.class);
+    job.setReducerClass(reducer);
+    job.setOutputFormat(SequenceFileOutputFormat.class);
+    job.setOutputKeyClass(IntWritable.class);
+    job.setOutputValueClass(MapWritable.class);
+    FileOutputFormat.setOutputPath(job, output);
+  }
+
+  public void configure(JobConf job) {
+    try {
+      matrix_b = new HTable(new HamaConfiguration(job), job.get(
+          SparseMultiplyMap.MATRIX_B, ""));
+    } catch (IOException e) {
+      LOG.error(e);
+    }
+  }
+
+  @Override
+  public void reduce(IntWritable key, Iterator<MapWritable> values,
+      OutputCollector<IntWritable, MapWritable> output, Reporter reporter)
+      throws IOException {
+    MapWritable row = seek(key.get());
+    if (row == null)
+      return;
+
+    while (values.hasNext()) {
+      for (Map.Entry<Writable, Writable> e : values.next().entrySet()) {
+        double aik = ((DoubleEntry) e.getValue()).getValue();
+
+        MapWritable scaled = new MapWritable();
+        for (Map.Entry<Writable, Writable> b : row.entrySet()) {
+          scaled.put(b.getKey(), new DoubleEntry(aik
+              * ((DoubleEntry) b.getValue()).getValue()));
+        }
+        output.collect((IntWritable) e.getKey(), scaled);
+      }
+      reporter.progress();
+    }
+  }
+
+  /**
+   * Advances the scanner of B to row k.
+   * 
+   * @param k
+   * @return the entries of row k, or null if the row is empty
+   * @throws IOException
+   */
+  private MapWritable seek(int k) throws IOException {
+    if (scan == null) {
+      scan = matrix_b.getScanner(new byte[][] { Bytes
+          .toBytes(Constants.COLUMN) }, BytesUtil.getRowIndex(k));
+      next();
+    }
+
+    while (current != null && currentRow < k) {
+      next();
+    }
+    return (current != null && currentRow == k) ? new SparseVector(current)
+        .getEntries() : null;
+  }
+
+  private void next() throws IOException {
+    current = scan.next();
+    if (current != null)
+      currentRow = BytesUtil.getRowIndex(current.getRow());
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (scan != null)
+      scan.close();
+  }
+
+  /**
+   * Sends the increasing ranges of the keys to the increasing reducers.
+   */
+  public static class RowRangePartitioner implements
+      Partitioner<IntWritable, MapWritable> {
+    private int rows;
+
+    public void configure(JobConf job) {
+      rows = job.getInt(SparseMultiplyMap.ROWS, 1);
+    }
+
+    public int getPartition(IntWritable key, MapWritable value,
+        int numPartitions) {
+      int p = (int) ((long) key.get() * numPartitions / Math.max(1, rows));
+      return Math.min(p, numPartitions - 1);
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.io.BatchUpdate;
+import org.apache.hadoop.hbase.io.RowResult;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reducer;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hama.Constants;
+import org.apache.hama.HamaConfiguration;
+import org.apache.hama.SparseVector;
+import org.apache.hama.io.VectorUpdate;
+import org.apache.hama.mapred.VectorOutputFormat;
+import org.apache.hama.util.BytesUtil;
+import org.apache.hama.util.SparseAccumulator;
+import org.apache.log4j.Logger;
+
+/**
+ * The accumulation step of the sparse multiplication C = A * B. The scaled
+ * rows of B are summed by rows of C in a sparse accumulator, and only the
+ * non-zero entries of C are written. For C = alpha*A*B + C, the sum is scaled
+ * and added to the existing row of the output table, and the entries which
+ * become zero are deleted, or written as zeros if C is dense.
+ */
+public class SparseMultiplyReduce extends MapReduceBase implements
+    Reducer<IntWritable, MapWritable, IntWritable, VectorUpdate> {
+  static final Logger LOG = Logger.getLogger(SparseMultiplyReduce.class);
+  /** Writes the zero entries of C if true, as C is a dense matrix */
+  public static final String DENSE = "hama.multiplication.dense";
+
+  protected double alpha;
+  protected boolean dense;
+  protected HTable summand;
+  private SparseAccumulator sum = new SparseAccumulator();
+  private SparseAccumulator result = new SparseAccumulator();
+
+  /**
+   * Use this before submitting a TableReduce job. It will appropriately set up
+   * the JobConf.
+   * 
+   * @param table
+   * @param reducer
+   * @param job
+   */
+  public static void initJob(String table, Class<SparseMultiplyReduce> reducer,
+      JobConf job) {
+    job.setOutputFormat(VectorOutputFormat.class);
+    job.setCombinerClass(SparseMultiplyCombiner.class);
+    job.setReducerClass(reducer);
+    job.set(VectorOutputFormat.OUTPUT_TABLE, table);
+    job.setOutputKeyClass(IntWritable.class);
+    job.setOutputValueClass(BatchUpdate.class);
+  }
+
+  /**
+   * Sets up the JobConf to compute C = alpha*A*B + C, where C is the output
+   * table.
+   * 
+   * @param table
+   * @param alpha
+   * @param reducer
+   * @param job
+   */
+  public static void initJob(String table, double alpha,
+      Class<SparseMultiplyReduce> reducer, JobConf job) {
+    initJob(table, alpha, false, reducer, job);
+  }
+
+  /**
+   * Sets up the JobConf to compute C = alpha*A*B + C, where C is the output
+   * table. If C is dense, its entries which become zero are written as zeros
+   * instead of being deleted.
+   * 
+   * @param table
+   * @param alpha
+   * @param dense true if C is a dense matrix
+   * @param reducer
+   * @param job
+   */
+  public static void initJob(String table, double alpha, boolean dense,
+      Class<SparseMultiplyReduce> reducer, JobConf job) {
+    initJob(table, reducer, job);
+    job.set(OuterProductMultiplyReduce.ALPHA, String.valueOf(alpha));
+    job.setBoolean(OuterProductMultiplyReduce.ACCUMULATE, true);
+    job.setBoolean(DENSE, dense);
+  }
+
+  public void configure(JobConf job) {
+    alpha = Double.parseDouble(job
+        .get(OuterProductMultiplyReduce.ALPHA, "1"));
+    dense = job.getBoolean(DENSE, false);
+    if (job.getBoolean(OuterProductMultiplyReduce.ACCUMULATE, false)) {
+      try {
+        summand = new HTable(new HamaConfiguration(job), job
+            .get(VectorOutputFormat.OUTPUT_TABLE));
+      } catch (IOException e) {
+        LOG.error(e);
+      }
+    }
+  }
+
+  @Override
+  public void reduce(IntWritable key, Iterator<MapWritable> values,
+      OutputCollector<IntWritable, VectorUpdate> output, Reporter reporter)
+      throws IOException {
+    sum.clear();
+    while (values.hasNext()) {
+      sum.add(1.0, values.next());
+    }
+
+    MapWritable entries = sum.getEntries();
+    MapWritable existing = null;
+    if (summand != null) {
+      RowResult row = summand.getRow(BytesUtil.getRowIndex(key.get()),
+          new byte[][] { Bytes.toBytes(Constants.COLUMN) });
+      if (row != null)
+        existing = new SparseVector(row).getEntries();
+    }
+
+    if (alpha != 1 || existing != null) {
+      result.clear();
+      result.add(alpha, entries);
+      if (existing != null)
+        result.add(1.0, existing);
+      entries = result.getEntries();
+    }
+
+    VectorUpdate update = new VectorUpdate(key.get());
+    update.putAll(entries);
+    if (existing != null) {
+      for (Writable j : existing.keySet()) {
+        if (entries.containsKey(j))
+          continue;
+        if (dense)
+          update.put(((IntWritable) j).get(), 0.0);
+        else
+          update.getBatchUpdate().delete(
+              BytesUtil.getColumnIndex(((IntWritable) j).get()));
+      }
+    }
+
+    if (update.getBatchUpdate().iterator().hasNext())
+      output.collect(key, update);
+  }
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.Mapper;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapred.SequenceFileInputFormat;
+import org.apache.hama.DenseMatrix;
+import org.apache.hama.HamaConfiguration;
+import org.apache.hama.LocalDenseMatrix;
+import org.apache.hama.SubMatrix;
+import org.apache.hama.io.VectorUpdate;
+import org.apache.hama.mapred.VectorOutputFormat;
+import org.apache.hama.util.MatrixKernels;
+import org.apache.log4j.Logger;
+
+/**
+ * SUMMA-style blocked multiplication C = A * B on a p x q x r grid.
+ *
+ * Each map task owns one block C(I, J) of the result, and streams through the
+ * q panels of the inner dimension in rounds: C(I, J) += A(I, K_s) * B(K_s, J).
+ * The panels of the next round are read while the current round is computed,
+ * and the finished block is written to the result table directly, so the
+ * operands are never copied or replicated into a collection table. Either
+ * operand may be a transposed view, whose panels are read from the table in
+ * the transposed orientation.
+ */
+public class SummaMultiplyMap extends MapReduceBase implements
+    Mapper<IntWritable, IntWritable, IntWritable, VectorUpdate> {
+  static final Logger LOG = Logger.getLogger(SummaMultiplyMap.class);
+  public static final String MATRIX_A = "hama.multiplication.matrix.a";
+  public static final String MATRIX_B = "hama.multiplication.matrix.b";
+  public static final String TRANSPOSE_A = "hama.multiplication.transpose.a";
+  public static final String TRANSPOSE_B = "hama.multiplication.transpose.b";
+
+  protected DenseMatrix matrix_a;
+  protected DenseMatrix matrix_b;
+  protected BlockGrid grid;
+  protected int threads;
+  protected ExecutorService prefetch;
+
+  public static void initJob(String matrix_a, boolean transposeA,
+      String matrix_b, boolean transposeB, BlockGrid grid, Path blocks,
+      String output, Class<SummaMultiplyMap> map, JobConf jobConf) {
+
+    jobConf.setMapperClass(map);
+    jobConf.set(MATRIX_A, matrix_a);
+    jobConf.set(MATRIX_B, matrix_b);
+    jobConf.setBoolean(TRANSPOSE_A, transposeA);
+    jobConf.setBoolean(TRANSPOSE_B, transposeB);
+    grid.set(jobConf);
+
+    jobConf.setInputFormat(SequenceFileInputFormat.class);
+    FileInputFormat.setInputPaths(jobConf, blocks);
+
+    jobConf.setNumReduceTasks(0);
+    jobConf.setOutputFormat(VectorOutputFormat.class);
+    jobConf.set(VectorOutputFormat.OUTPUT_TABLE, output);
+    jobConf.setOutputKeyClass(IntWritable.class);
+    jobConf.setOutputValueClass(VectorUpdate.class);
+  }
+
+  public void configure(JobConf job) {
+    grid = BlockGrid.get(job);
+    threads = job.getInt(LocalDenseMatrix.THREADS,
+        LocalDenseMatrix.DEFAULT_THREADS);
+    prefetch = Executors.newSingleThreadExecutor();
+    try {
+      HamaConfiguration conf = new HamaConfiguration(job);
+      matrix_a = new DenseMatrix(conf, job.get(MATRIX_A, ""));
+      matrix_b = new DenseMatrix(conf, job.get(MATRIX_B, ""));
+      if (job.getBoolean(TRANSPOSE_A, false))
+        matrix_a = matrix_a.transposeView();
+      if (job.getBoolean(TRANSPOSE_B, false))
+        matrix_b = matrix_b.transposeView();
+    } catch (IOException e) {
+      LOG.error(e);
+    }
+  }
+
+  @Override
+  public void map(IntWritable blockRow, IntWritable blockColumn,
+      OutputCollector<IntWritable, VectorUpdate> output, Reporter reporter)
+      throws IOException {
+    int i0 = grid.rowStart(blockRow.get());
+    int i1 = grid.rowStart(blockRow.get() + 1) - 1;
+    int j0 = grid.columnStart(blockColumn.get());
+    int j1 = grid.columnStart(blockColumn.get() + 1) - 1;
+    double[][] c = new double[i1 - i0 + 1][j1 - j0 + 1];
+
+    Future<SubMatrix[]> next = fetch(0, i0, i1, j0, j1);
+    for (int s = 0; s < grid.getInnerBlocks(); s++) {
+      SubMatrix[] panels = get(next);
+      if (s + 1 < grid.getInnerBlocks())
+        next = fetch(s + 1, i0, i1, j0, j1);
+
+      MatrixKernels.multAdd(1.0, panels[0].getDoubleArray(), panels[1]
+          .getDoubleArray(), c, threads);
+      reporter.progress();
+    }
+
+    for (int i = 0; i < c.length; i++) {
+      VectorUpdate update = new VectorUpdate(i0 + i);
+      for (int j = 0; j < c[i].length; j++) {
+        update.put(j0 + j, c[i][j]);
+      }
+      output.collect(new IntWritable(i0 + i), update);
+    }
+  }
+
+  /**
+   * Reads the panels A(I, K_s) and B(K_s, J) in the background.
+   */
+  private Future<SubMatrix[]> fetch(int s, final int i0, final int i1,
+      final int j0, final int j1) {
+    final int k0 = grid.innerStart(s);
+    final int k1 = grid.innerStart(s + 1) - 1;
+    return prefetch.submit(new Callable<SubMatrix[]>() {
+      public SubMatrix[] call() throws IOException {
+        return new SubMatrix[] { matrix_a.subMatrix(i0, i1, k0, k1),
+            matrix_b.subMatrix(k0, k1, j0, j1) };
+      }
+    });
+  }
+
+  private static SubMatrix[] get(Future<SubMatrix[]> future)
+      throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      throw new IOException(e.getMessage());
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException)
+        throw (IOException) e.getCause();
+      throw new IOException(e.getCause().getMessage());
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    prefetch.shutdownNow();
+  }
+}
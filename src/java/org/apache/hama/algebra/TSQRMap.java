@@ -0,0 +1,142 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Scanner;
+import org.apache.hadoop.hbase.io.RowResult;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.FileOutputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.Mapper;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapred.SequenceFileInputFormat;
+import org.apache.hadoop.mapred.SequenceFileOutputFormat;
+import org.apache.hama.Constants;
+import org.apache.hama.HamaConfiguration;
+import org.apache.hama.SparseVector;
+import org.apache.hama.SubMatrix;
+import org.apache.hama.io.BlockWritable;
+import org.apache.hama.io.DoubleEntry;
+import org.apache.hama.util.BytesUtil;
+import org.apache.hama.util.MatrixKernels;
+import org.apache.log4j.Logger;
+
+/**
+ * The first pass of the tall-skinny QR factorization A = Q * R. The input of
+ * a map task is a range of rows (start, end), which the task reads as one
+ * block and factors locally by Householder reflections. The task emits the
+ * n-by-n R of its block as (start, R), and the R factors are combined on the
+ * client (see {@link MatrixKernels#combineQR(double[][][], double[][][], int)}).
+ * Q is written by the second pass, {@link TSQRQMap}.
+ */
+public class TSQRMap extends MapReduceBase implements
+    Mapper<IntWritable, IntWritable, IntWritable, BlockWritable> {
+  static final Logger LOG = Logger.getLogger(TSQRMap.class);
+  public static final String MATRIX_A = "hama.tsqr.matrix.a";
+
+  protected HTable matrix_a;
+  protected int columns;
+
+  /**
+   * Sets up the first pass, which writes the R factors of the blocks to the
+   * output directory.
+   * 
+   * @param matrix_a
+   * @param columns the number of columns of A
+   * @param ranges the input directory of the row ranges
+   * @param output the output directory
+   * @param map
+   * @param jobConf
+   */
+  public static void initJob(String matrix_a, int columns, Path ranges,
+      Path output, Class<TSQRMap> map, JobConf jobConf) {
+    init(matrix_a, columns, ranges, map, jobConf);
+    jobConf.setOutputKeyClass(IntWritable.class);
+    jobConf.setOutputValueClass(BlockWritable.class);
+    jobConf.setOutputFormat(SequenceFileOutputFormat.class);
+    FileOutputFormat.setOutputPath(jobConf, output);
+  }
+
+  static void init(String matrix_a, int columns, Path ranges,
+      Class<? extends Mapper<IntWritable, IntWritable, ?, ?>> map,
+      JobConf jobConf) {
+    jobConf.setMapperClass(map);
+    jobConf.set(MATRIX_A, matrix_a);
+    jobConf.setInt(OuterProductMultiplyMap.COLUMNS, columns);
+
+    jobConf.setInputFormat(SequenceFileInputFormat.class);
+    FileInputFormat.setInputPaths(jobConf, ranges);
+    jobConf.setNumReduceTasks(0);
+  }
+
+  public void configure(JobConf job) {
+    columns = job.getInt(OuterProductMultiplyMap.COLUMNS, 0);
+    try {
+      matrix_a = new HTable(new HamaConfiguration(job), job.get(MATRIX_A, ""));
+    } catch (IOException e) {
+      LOG.error(e);
+    }
+  }
+
+  @Override
+  public void map(IntWritable start, IntWritable end,
+      OutputCollector<IntWritable, BlockWritable> output, Reporter reporter)
+      throws IOException {
+    double[][] block = readBlock(matrix_a, columns, start.get(), end.get());
+    reporter.progress();
+    double[][] r = MatrixKernels.householderQR(block, null);
+    output.collect(start, new BlockWritable(new SubMatrix(r)));
+  }
+
+  /**
+   * Reads the rows [start, end] of A with one scan, with missing entries as
+   * zero.
+   */
+  static double[][] readBlock(HTable matrix_a, int columns, int start,
+      int end) throws IOException {
+    double[][] block = new double[end - start + 1][columns];
+    Scanner scan = matrix_a.getScanner(new byte[][] { Bytes
+        .toBytes(Constants.COLUMN) }, BytesUtil.getRowIndex(start), BytesUtil
+        .getRowIndex(end + 1));
+    try {
+      for (RowResult row : scan) {
+        double[] a = block[BytesUtil.getRowIndex(row.getRow()) - start];
+        for (Map.Entry<Writable, Writable> e : new SparseVector(row)
+            .getEntries().entrySet()) {
+          a[((IntWritable) e.getKey()).get()] = ((DoubleEntry) e.getValue())
+              .getValue();
+        }
+      }
+    } finally {
+      scan.close();
+    }
+    return block;
+  }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.Mapper;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hama.HamaConfiguration;
+import org.apache.hama.LocalDenseMatrix;
+import org.apache.hama.io.VectorUpdate;
+import org.apache.hama.mapred.VectorOutputFormat;
+import org.apache.hama.util.BroadcastUtil;
+import org.apache.hama.util.MatrixKernels;
+import org.apache.log4j.Logger;
+
+/**
+ * The second pass of the tall-skinny QR factorization A = Q * R. The factors
+ * of the combining tree are broadcast, one n-by-n factor per block, and each
+ * task factors its block of rows again and writes its rows of Q: the local Q
+ * of the block times the factor of the block. The local factorization is
+ * deterministic, so it gives the same Q as in the first pass, {@link TSQRMap}.
+ */
+public class TSQRQMap extends MapReduceBase implements
+    Mapper<IntWritable, IntWritable, IntWritable, VectorUpdate> {
+  static final Logger LOG = Logger.getLogger(TSQRQMap.class);
+  /** The sorted starts of the blocks */
+  public static final String STARTS = "hama.tsqr.starts";
+  /** The stacked factors of the blocks */
+  public static final String FACTORS = "hama.tsqr.factors";
+
+  protected HTable matrix_a;
+  protected int columns;
+  protected int threads;
+  protected int[] starts;
+  protected double[][] factors;
+
+  /**
+   * Sets up the job. The factors are shipped through a side file in the
+   * temporary directory.
+   * 
+   * @param matrix_a
+   * @param columns the number of columns of A
+   * @param ranges the input directory of the row ranges
+   * @param starts the sorted starts of the blocks
+   * @param factors the factors of the blocks, in the order of the starts
+   * @param tmpDir the temporary directory of the job
+   * @param output the output table
+   * @param map
+   * @param jobConf
+   * @throws IOException
+   */
+  public static void initJob(String matrix_a, int columns, Path ranges,
+      int[] starts, double[][][] factors, Path tmpDir, String output,
+      Class<TSQRQMap> map, JobConf jobConf) throws IOException {
+    TSQRMap.init(matrix_a, columns, ranges, map, jobConf);
+
+    StringBuilder list = new StringBuilder();
+    double[][] stacked = new double[starts.length * columns][];
+    for (int b = 0; b < starts.length; b++) {
+      if (b > 0)
+        list.append(',');
+      list.append(starts[b]);
+      for (int i = 0; i < columns; i++)
+        stacked[b * columns + i] = factors[b][i];
+    }
+    jobConf.set(STARTS, list.toString());
+    BroadcastUtil.broadcast(jobConf, FACTORS, new Path(tmpDir, "factors"),
+        stacked);
+
+    jobConf.setOutputFormat(VectorOutputFormat.class);
+    jobConf.set(VectorOutputFormat.OUTPUT_TABLE, output);
+    jobConf.setOutputKeyClass(IntWritable.class);
+    jobConf.setOutputValueClass(VectorUpdate.class);
+  }
+
+  public void configure(JobConf job) {
+    columns = job.getInt(OuterProductMultiplyMap.COLUMNS, 0);
+    threads = job.getInt(LocalDenseMatrix.THREADS,
+        LocalDenseMatrix.DEFAULT_THREADS);
+    try {
+      matrix_a = new HTable(new HamaConfiguration(job), job.get(
+          TSQRMap.MATRIX_A, ""));
+      String[] list = job.get(STARTS, "").split(",");
+      starts = new int[list.length];
+      for (int b = 0; b < list.length; b++)
+        starts[b] = Integer.parseInt(list[b]);
+      factors = BroadcastUtil.get(job, FACTORS);
+    } catch (IOException e) {
+      LOG.error(e);
+    }
+  }
+
+  @Override
+  public void map(IntWritable start, IntWritable end,
+      OutputCollector<IntWritable, VectorUpdate> output, Reporter reporter)
+      throws IOException {
+    double[][] block = TSQRMap.readBlock(matrix_a, columns, start.get(), end
+        .get());
+    reporter.progress();
+
+    double[][] q = new double[block.length][columns];
+    MatrixKernels.householderQR(block, q);
+    q = MatrixKernels.mult(q, getFactor(start.get()), threads);
+    for (int i = 0; i < q.length; i++) {
+      VectorUpdate update = new VectorUpdate(start.get() + i);
+      for (int j = 0; j < columns; j++) {
+        update.put(j, q[i][j]);
+      }
+      output.collect(new IntWritable(start.get() + i), update);
+    }
+  }
+
+  private double[][] getFactor(int start) throws IOException {
+    for (int b = 0; b < starts.length; b++) {
+      if (starts[b] == start) {
+        double[][] m = new double[columns][];
+        System.arraycopy(factors, b * columns, m, 0, columns);
+        return m;
+      }
+    }
+    throw new IOException("No factor for the block at row " + start);
+  }
+}
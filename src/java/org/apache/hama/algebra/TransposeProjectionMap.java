@@ -0,0 +1,172 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.algebra;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Scanner;
+import org.apache.hadoop.hbase.io.RowResult;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.Mapper;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapred.SequenceFileInputFormat;
+import org.apache.hama.Constants;
+import org.apache.hama.HamaConfiguration;
+import org.apache.hama.SparseVector;
+import org.apache.hama.io.DoubleEntry;
+import org.apache.hama.util.BytesUtil;
+import org.apache.log4j.Logger;
+
+/**
+ * Z = A' * Q, where Q is a tall matrix of l columns with the rows of A. The
+ * input of a map task is a range of rows (start, end), over which the task
+ * scans A and Q side by side, and adds the outer products a_k' * q_k into a
+ * local n-by-l accumulator. The rows of its partial Z are emitted when the
+ * task closes, and summed by the combiner and the reducer of the outer
+ * product multiplication, so A is read once and never transposed.
+ */
+public class TransposeProjectionMap extends MapReduceBase implements
+    Mapper<IntWritable, IntWritable, IntWritable, MapWritable> {
+  static final Logger LOG = Logger.getLogger(TransposeProjectionMap.class);
+  public static final String MATRIX_A = "hama.projection.matrix.a";
+  public static final String MATRIX_Q = "hama.projection.matrix.q";
+
+  protected HTable matrix_a;
+  protected HTable matrix_q;
+  protected double[][] z;
+  protected OutputCollector<IntWritable, MapWritable> collector;
+
+  /**
+   * Sets up the job.
+   * 
+   * @param matrix_a
+   * @param matrix_q
+   * @param n the number of columns of A
+   * @param l the number of columns of Q
+   * @param ranges the input directory of the row ranges
+   * @param map
+   * @param jobConf
+   */
+  public static void initJob(String matrix_a, String matrix_q, int n, int l,
+      Path ranges, Class<TransposeProjectionMap> map, JobConf jobConf) {
+    jobConf.setMapperClass(map);
+    jobConf.set(MATRIX_A, matrix_a);
+    jobConf.set(MATRIX_Q, matrix_q);
+    jobConf.setInt(ProjectionMap.ROWS, n);
+    jobConf.setInt(OuterProductMultiplyMap.COLUMNS, l);
+
+    jobConf.setInputFormat(SequenceFileInputFormat.class);
+    FileInputFormat.setInputPaths(jobConf, ranges);
+    jobConf.setMapOutputKeyClass(IntWritable.class);
+    jobConf.setMapOutputValueClass(MapWritable.class);
+  }
+
+  public void configure(JobConf job) {
+    z = new double[job.getInt(ProjectionMap.ROWS, 0)][job.getInt(
+        OuterProductMultiplyMap.COLUMNS, 0)];
+    try {
+      HamaConfiguration conf = new HamaConfiguration(job);
+      matrix_a = new HTable(conf, job.get(MATRIX_A, ""));
+      matrix_q = new HTable(conf, job.get(MATRIX_Q, ""));
+    } catch (IOException e) {
+      LOG.error(e);
+    }
+  }
+
+  @Override
+  public void map(IntWritable start, IntWritable end,
+      OutputCollector<IntWritable, MapWritable> output, Reporter reporter)
+      throws IOException {
+    this.collector = output;
+    byte[][] columns = new byte[][] { Bytes.toBytes(Constants.COLUMN) };
+    byte[] first = BytesUtil.getRowIndex(start.get());
+    byte[] last = BytesUtil.getRowIndex(end.get() + 1);
+    Scanner scanA = matrix_a.getScanner(columns, first, last);
+    Scanner scanQ = matrix_q.getScanner(columns, first, last);
+
+    try {
+      RowResult a = scanA.next();
+      RowResult q = scanQ.next();
+      while (a != null && q != null) {
+        int i = BytesUtil.getRowIndex(a.getRow());
+        int k = BytesUtil.getRowIndex(q.getRow());
+        if (i < k) {
+          a = scanA.next();
+        } else if (k < i) {
+          q = scanQ.next();
+        } else {
+          add(new SparseVector(a).getEntries(), new SparseVector(q)
+              .getEntries());
+          a = scanA.next();
+          q = scanQ.next();
+          reporter.progress();
+        }
+      }
+    } finally {
+      scanA.close();
+      scanQ.close();
+    }
+  }
+
+  /**
+   * z += a' * q
+   */
+  private void add(MapWritable a, MapWritable q) {
+    int l = (z.length == 0) ? 0 : z[0].length;
+    double[] qk = new double[l];
+    for (Map.Entry<Writable, Writable> e : q.entrySet()) {
+      qk[((IntWritable) e.getKey()).get()] = ((DoubleEntry) e.getValue())
+          .getValue();
+    }
+
+    for (Map.Entry<Writable, Writable> e : a.entrySet()) {
+      double v = ((DoubleEntry) e.getValue()).getValue();
+      double[] zi = z[((IntWritable) e.getKey()).get()];
+      for (int j = 0; j < l; j++)
+        zi[j] += v * qk[j];
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (collector == null)
+      return;
+
+    for (int i = 0; i < z.length; i++) {
+      MapWritable row = new MapWritable();
+      for (int j = 0; j < z[i].length; j++) {
+        if (z[i][j] != 0)
+          row.put(new IntWritable(j), new DoubleEntry(z[i][j]));
+      }
+      // Z is dense, so its zero rows are written too
+      collector.collect(new IntWritable(i), row);
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.hadoop.filecache.DistributedCache;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hama.Vector;
+import org.apache.hama.io.DoubleEntry;
+
+/**
+ * Ships small dense arrays to every task of a job. An array is written once to
+ * a compact side file of raw doubles, which is added to the distributed cache,
+ * and each task reads it back from its local copy.
+ */
+public class BroadcastUtil {
+
+  /**
+   * Writes the vector as a 1-by-size array, with missing entries as zero, and
+   * ships it to the job's tasks under the given key.
+   *
+   * @param job
+   * @param key the configuration key of the side file
+   * @param file the side file
+   * @param v the vector
+   * @param size the size of the vector
+   * @throws IOException
+   */
+  public static void broadcast(JobConf job, String key, Path file, Vector v,
+      int size) throws IOException {
+    double[] row = new double[size];
+    for (Map.Entry<Writable, Writable> e : v.getEntries().entrySet()) {
+      if (e.getKey() instanceof IntWritable)
+        row[((IntWritable) e.getKey()).get()] = ((DoubleEntry) e.getValue())
+            .getValue();
+    }
+    broadcast(job, key, file, new double[][] { row });
+  }
+
+  /**
+   * Writes the array to the side file, and ships it to the job's tasks under
+   * the given key.
+   *
+   * @param job
+   * @param key the configuration key of the side file
+   * @param file the side file
+   * @param a the array
+   * @throws IOException
+   */
+  public static void broadcast(JobConf job, String key, Path file,
+      double[][] a) throws IOException {
+    FileSystem fs = FileSystem.get(job);
+    file = fs.makeQualified(file);
+    DataOutputStream out = fs.create(file, true);
+    try {
+      out.writeInt(a.length);
+      out.writeInt(a.length == 0 ? 0 : a[0].length);
+      for (int i = 0; i < a.length; i++) {
+        for (int j = 0; j < a[i].length; j++) {
+          out.writeDouble(a[i][j]);
+        }
+      }
+    } finally {
+      out.close();
+    }
+
+    job.set(key, file.toString());
+    DistributedCache.addCacheFile(file.toUri(), job);
+  }
+
+  /**
+   * Reads the array shipped under the given key. The local copy from the
+   * distributed cache is used if there is one.
+   *
+   * @param job
+   * @param key the configuration key of the side file
+   * @return the array
+   * @throws IOException
+   */
+  public static double[][] get(JobConf job, String key) throws IOException {
+    Path file = new Path(job.get(key));
+    FileSystem fs = FileSystem.get(file.toUri(), job);
+
+    Path[] local = DistributedCache.getLocalCacheFiles(job);
+    if (local != null) {
+      for (Path p : local) {
+        if (p.getName().equals(file.getName())) {
+          file = p;
+          fs = FileSystem.getLocal(job);
+          break;
+        }
+      }
+    }
+
+    FSDataInputStream in = fs.open(file);
+    try {
+      return read(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Reads the vector shipped under the given key.
+   *
+   * @param job
+   * @param key the configuration key of the side file
+   * @return the vector
+   * @throws IOException
+   */
+  public static double[] getVector(JobConf job, String key) throws IOException {
+    return get(job, key)[0];
+  }
+
+  /**
+   * Deletes the side file shipped under the given key.
+   *
+   * @param job
+   * @param key the configuration key of the side file
+   * @throws IOException
+   */
+  public static void delete(JobConf job, String key) throws IOException {
+    Path file = new Path(job.get(key));
+    FileSystem.get(file.toUri(), job).delete(file, false);
+  }
+
+  private static double[][] read(DataInputStream in) throws IOException {
+    int rows = in.readInt();
+    int columns = in.readInt();
+    double[][] a = new double[rows][columns];
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        a[i][j] = in.readDouble();
+      }
+    }
+    return a;
+  }
+}
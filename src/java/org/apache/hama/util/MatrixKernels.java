@@ -0,0 +1,765 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.hama.Matrix.Norm;
+import org.apache.hama.algebra.JacobiEigenValue;
+
+/**
+ * Multithreaded kernels over in-memory two dimensional double arrays. The row
+ * range of a kernel is split into contiguous chunks which are processed on a
+ * shared pool of daemon threads; small inputs are processed on the calling
+ * thread.
+ */
+public class MatrixKernels {
+  /** Below this number of cells, kernels run on the calling thread */
+  static final int PARALLEL_THRESHOLD = 1 << 14;
+  /** Edge length of the tiles used by the transpose kernel */
+  static final int TILE = 32;
+  /** Columns whose relative inner product is below this are orthogonal */
+  static final double SVD_EPSILON = 1e-14;
+
+  private static ExecutorService pool;
+
+  /**
+   * A task over the row range [start, end)
+   */
+  public static interface RowTask {
+    public void run(int start, int end) throws IOException;
+  }
+
+  private static synchronized ExecutorService getPool() {
+    if (pool == null) {
+      pool = Executors.newCachedThreadPool(new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r, "hama-kernel");
+          t.setDaemon(true);
+          return t;
+        }
+      });
+    }
+    return pool;
+  }
+
+  /**
+   * Runs the task over [0, rows) split into at most threads chunks.
+   *
+   * @param rows the number of rows
+   * @param work the approximate number of cells touched by the task
+   * @param threads the number of threads
+   * @param task the task
+   * @throws IOException
+   */
+  public static void forEachRow(int rows, long work, int threads,
+      final RowTask task) throws IOException {
+    int chunks = Math.min(threads, rows);
+    if (chunks <= 1 || work < PARALLEL_THRESHOLD) {
+      task.run(0, rows);
+      return;
+    }
+
+    List<Future<Object>> futures = new ArrayList<Future<Object>>(chunks);
+    int interval = (rows + chunks - 1) / chunks;
+    for (int i = 0; i < rows; i += interval) {
+      final int start = i;
+      final int end = Math.min(rows, i + interval);
+      futures.add(getPool().submit(new Callable<Object>() {
+        public Object call() throws IOException {
+          task.run(start, end);
+          return null;
+        }
+      }));
+    }
+
+    for (Future<Object> f : futures) {
+      try {
+        f.get();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException)
+          throw (IOException) e.getCause();
+        throw new IOException(e.getCause());
+      }
+    }
+  }
+
+  /**
+   * c = a + alpha * b
+   *
+   * @param a
+   * @param alpha
+   * @param b
+   * @param threads
+   * @return c
+   * @throws IOException
+   */
+  public static double[][] add(final double[][] a, final double alpha,
+      final double[][] b, int threads) throws IOException {
+    final double[][] c = new double[a.length][];
+    forEachRow(a.length, cells(a), threads, new RowTask() {
+      public void run(int start, int end) {
+        for (int i = start; i < end; i++) {
+          double[] ai = a[i], bi = b[i];
+          double[] ci = new double[ai.length];
+          for (int j = 0; j < ai.length; j++) {
+            ci[j] = ai[j] + alpha * bi[j];
+          }
+          c[i] = ci;
+        }
+      }
+    });
+    return c;
+  }
+
+  /**
+   * c = alpha * a
+   *
+   * @param alpha
+   * @param a
+   * @param threads
+   * @return c
+   * @throws IOException
+   */
+  public static double[][] scale(final double alpha, final double[][] a,
+      int threads) throws IOException {
+    final double[][] c = new double[a.length][];
+    forEachRow(a.length, cells(a), threads, new RowTask() {
+      public void run(int start, int end) {
+        for (int i = start; i < end; i++) {
+          double[] ci = new double[a[i].length];
+          for (int j = 0; j < ci.length; j++) {
+            ci[j] = alpha * a[i][j];
+          }
+          c[i] = ci;
+        }
+      }
+    });
+    return c;
+  }
+
+  /**
+   * c = a * b, computed in i-k-j order so that the inner loop streams over
+   * rows of b and c.
+   *
+   * @param a m-by-k array
+   * @param b k-by-n array
+   * @param threads
+   * @return c
+   * @throws IOException
+   */
+  public static double[][] mult(final double[][] a, final double[][] b,
+      int threads) throws IOException {
+    final int n = (b.length == 0) ? 0 : b[0].length;
+    final double[][] c = new double[a.length][n];
+    multAdd(1.0, a, b, c, threads);
+    return c;
+  }
+
+  /**
+   * c = alpha * a * b + c, in place.
+   *
+   * @param alpha
+   * @param a m-by-k array
+   * @param b k-by-n array
+   * @param c m-by-n array
+   * @param threads
+   * @throws IOException
+   */
+  public static void multAdd(final double alpha, final double[][] a,
+      final double[][] b, final double[][] c, int threads) throws IOException {
+    final int n = (b.length == 0) ? 0 : b[0].length;
+    long work = (long) a.length * b.length * n;
+    forEachRow(a.length, work, threads, new RowTask() {
+      public void run(int start, int end) {
+        for (int i = start; i < end; i++) {
+          double[] ai = a[i], ci = c[i];
+          for (int k = 0; k < b.length; k++) {
+            double aik = alpha * ai[k];
+            if (aik == 0)
+              continue;
+            double[] bk = b[k];
+            for (int j = 0; j < n; j++) {
+              ci[j] += aik * bk[j];
+            }
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Transposes the array tile by tile.
+   *
+   * @param a m-by-n array
+   * @param threads
+   * @return the n-by-m transpose of a
+   * @throws IOException
+   */
+  public static double[][] transpose(final double[][] a, int threads)
+      throws IOException {
+    final int m = a.length;
+    final int n = (m == 0) ? 0 : a[0].length;
+    final double[][] t = new double[n][m];
+    int tiles = (n + TILE - 1) / TILE;
+    forEachRow(tiles, cells(a), threads, new RowTask() {
+      public void run(int start, int end) {
+        for (int jj = start * TILE; jj < Math.min(n, end * TILE); jj += TILE) {
+          int jmax = Math.min(n, jj + TILE);
+          for (int ii = 0; ii < m; ii += TILE) {
+            int imax = Math.min(m, ii + TILE);
+            for (int j = jj; j < jmax; j++) {
+              double[] tj = t[j];
+              for (int i = ii; i < imax; i++) {
+                tj[i] = a[i][j];
+              }
+            }
+          }
+        }
+      }
+    });
+    return t;
+  }
+
+  /**
+   * Computes the given norm of the array
+   *
+   * @param a
+   * @param type
+   * @param threads
+   * @return the norm
+   * @throws IOException
+   */
+  public static double norm(final double[][] a, Norm type, int threads)
+      throws IOException {
+    final int m = a.length;
+    final int n = (m == 0) ? 0 : a[0].length;
+    int chunks = Math.max(1, Math.min(threads, m));
+    final int interval = Math.max(1, (m + chunks - 1) / chunks);
+    // one slot per chunk, so that no two threads write the same slot
+    final double[] partial = new double[(m + interval - 1) / interval + 1];
+    final double[][] columnSums = (type == Norm.One) ? new double[partial.length][n]
+        : null;
+    final Norm norm = type;
+
+    forEachRow(m, cells(a), chunks, new RowTask() {
+      public void run(int start, int end) {
+        int slot = start / interval;
+        double result = 0;
+        for (int i = start; i < end; i++) {
+          double[] ai = a[i];
+          double rowSum = 0;
+          for (int j = 0; j < ai.length; j++) {
+            double v = Math.abs(ai[j]);
+            switch (norm) {
+            case One:
+              columnSums[slot][j] += v;
+              break;
+            case Frobenius:
+              result += v * v;
+              break;
+            case Infinity:
+              rowSum += v;
+              break;
+            default:
+              result = Math.max(result, v);
+            }
+          }
+          if (norm == Norm.Infinity)
+            result = Math.max(result, rowSum);
+        }
+        partial[slot] = result;
+      }
+    });
+
+    double result = 0;
+    if (type == Norm.One) {
+      for (int j = 0; j < n; j++) {
+        double sum = 0;
+        for (int s = 0; s < columnSums.length; s++) {
+          sum += columnSums[s][j];
+        }
+        result = Math.max(result, sum);
+      }
+    } else {
+      for (int s = 0; s < partial.length; s++) {
+        if (type == Norm.Frobenius)
+          result += partial[s];
+        else
+          result = Math.max(result, partial[s]);
+      }
+      if (type == Norm.Frobenius)
+        result = Math.sqrt(result);
+    }
+    return result;
+  }
+
+  /**
+   * Computes the thin QR factorization a = q * r by Householder reflections.
+   * If a has fewer rows than columns, it is padded with zero rows. The
+   * factorization is deterministic, so the same block gives the same factors.
+   *
+   * @param a the m-by-n matrix, which is left unchanged
+   * @param q receives the m-by-n orthonormal factor, if it isn't null
+   * @return the n-by-n upper triangular factor r
+   */
+  public static double[][] householderQR(double[][] a, double[][] q) {
+    int m = a.length;
+    int n = (m == 0) ? 0 : a[0].length;
+    int rows = Math.max(m, n);
+    double[][] w = new double[rows][n];
+    for (int i = 0; i < m; i++)
+      System.arraycopy(a[i], 0, w[i], 0, n);
+
+    // the Householder vectors, v[k] is zero above row k
+    double[][] v = new double[n][];
+    for (int k = 0; k < n; k++) {
+      double norm = 0;
+      for (int i = k; i < rows; i++)
+        norm += w[i][k] * w[i][k];
+      norm = Math.sqrt(norm);
+
+      v[k] = new double[rows];
+      if (norm == 0)
+        continue;
+      double alpha = (w[k][k] > 0) ? -norm : norm;
+      for (int i = k; i < rows; i++)
+        v[k][i] = w[i][k];
+      v[k][k] -= alpha;
+      reflect(v[k], k, w, k);
+    }
+
+    double[][] r = new double[n][n];
+    for (int i = 0; i < n; i++) {
+      for (int j = i; j < n; j++)
+        r[i][j] = w[i][j];
+    }
+
+    if (q != null) {
+      // q = H_0 * ... * H_{n-1} * the first n columns of the identity
+      double[][] e = new double[rows][n];
+      for (int i = 0; i < n; i++)
+        e[i][i] = 1;
+      for (int k = n - 1; k >= 0; k--)
+        reflect(v[k], k, e, 0);
+      for (int i = 0; i < m; i++)
+        System.arraycopy(e[i], 0, q[i], 0, n);
+    }
+    return r;
+  }
+
+  /**
+   * Applies the reflection I - 2 * v * v' / (v' * v) to the columns from j0
+   * of w, where v is zero above row k.
+   */
+  private static void reflect(double[] v, int k, double[][] w, int j0) {
+    double vv = 0;
+    for (int i = k; i < v.length; i++)
+      vv += v[i] * v[i];
+    if (vv == 0)
+      return;
+
+    for (int j = j0; j < w[0].length; j++) {
+      double s = 0;
+      for (int i = k; i < v.length; i++)
+        s += v[i] * w[i][j];
+      s = 2 * s / vv;
+      for (int i = k; i < v.length; i++)
+        w[i][j] -= s * v[i];
+    }
+  }
+
+  /**
+   * Combines the r factors of the blocks of a tall matrix in a binary tree,
+   * each node of which is the QR factorization of its two stacked children.
+   * On return, m[i] is the n-by-n factor by which the q of block i is
+   * multiplied to give the rows of the q of the whole matrix.
+   *
+   * @param r the r factors of the blocks
+   * @param m receives the factors of the blocks
+   * @param threads
+   * @return the r factor of the whole matrix
+   * @throws IOException
+   */
+  public static double[][] combineQR(double[][][] r, double[][][] m,
+      int threads) throws IOException {
+    return combineQR(r, m, 0, r.length, threads);
+  }
+
+  private static double[][] combineQR(double[][][] r, double[][][] m, int lo,
+      int hi, int threads) throws IOException {
+    int n = r[lo].length;
+    if (hi - lo == 1) {
+      m[lo] = new double[n][n];
+      for (int i = 0; i < n; i++)
+        m[lo][i][i] = 1;
+      return r[lo];
+    }
+
+    int mid = (lo + hi) / 2;
+    double[][] top = combineQR(r, m, lo, mid, threads);
+    double[][] bottom = combineQR(r, m, mid, hi, threads);
+    double[][] stacked = new double[2 * n][];
+    double[][] q = new double[2 * n][n];
+    for (int i = 0; i < n; i++) {
+      stacked[i] = top[i];
+      stacked[n + i] = bottom[i];
+    }
+    double[][] result = householderQR(stacked, q);
+
+    double[][] qTop = new double[n][];
+    double[][] qBottom = new double[n][];
+    for (int i = 0; i < n; i++) {
+      qTop[i] = q[i];
+      qBottom[i] = q[n + i];
+    }
+    for (int i = lo; i < hi; i++)
+      m[i] = mult(m[i], (i < mid) ? qTop : qBottom, threads);
+    return result;
+  }
+
+  /**
+   * Computes the singular value decomposition a = u * diag(s) * v' of an
+   * m-by-n array, m >= n, by one-sided Jacobi rotations, which orthogonalize
+   * the columns of a pair by pair. The singular values are computed from the
+   * columns themselves, not from a' * a, so the small ones keep their
+   * accuracy. The singular values are not sorted.
+   *
+   * @param a the array, which receives u * diag(s)
+   * @param v receives the n-by-n right singular vectors, one per column
+   * @param sweeps the maximum number of sweeps over the pairs of columns
+   * @return the singular values s
+   */
+  public static double[] svd(double[][] a, double[][] v, int sweeps) {
+    int m = a.length;
+    int n = v.length;
+    for (int i = 0; i < n; i++) {
+      Arrays.fill(v[i], 0);
+      v[i][i] = 1;
+    }
+
+    boolean rotated = true;
+    for (int sweep = 0; rotated && sweep < sweeps; sweep++) {
+      rotated = false;
+      for (int p = 0; p < n - 1; p++) {
+        for (int q = p + 1; q < n; q++) {
+          double alpha = 0, beta = 0, gamma = 0;
+          for (int i = 0; i < m; i++) {
+            alpha += a[i][p] * a[i][p];
+            beta += a[i][q] * a[i][q];
+            gamma += a[i][p] * a[i][q];
+          }
+          if (Math.abs(gamma) <= SVD_EPSILON * Math.sqrt(alpha * beta))
+            continue;
+          rotated = true;
+
+          double zeta = (beta - alpha) / (2 * gamma);
+          double t = Math.signum(zeta)
+              / (Math.abs(zeta) + Math.sqrt(1 + zeta * zeta));
+          if (zeta == 0)
+            t = 1;
+          double c = 1 / Math.sqrt(1 + t * t);
+          double s = c * t;
+          for (int i = 0; i < m; i++) {
+            double x = a[i][p], y = a[i][q];
+            a[i][p] = c * x - s * y;
+            a[i][q] = s * x + c * y;
+          }
+          for (int i = 0; i < n; i++) {
+            double x = v[i][p], y = v[i][q];
+            v[i][p] = c * x - s * y;
+            v[i][q] = s * x + c * y;
+          }
+        }
+      }
+    }
+
+    double[] sigma = new double[n];
+    for (int j = 0; j < n; j++) {
+      double sum = 0;
+      for (int i = 0; i < m; i++)
+        sum += a[i][j] * a[i][j];
+      sigma[j] = Math.sqrt(sum);
+    }
+    return sigma;
+  }
+
+  /**
+   * @return the dot product of x and y
+   */
+  public static double dot(double[] x, double[] y) {
+    double sum = 0;
+    for (int i = 0; i < x.length; i++)
+      sum += x[i] * y[i];
+    return sum;
+  }
+
+  /**
+   * y = alpha * x + y
+   */
+  public static void axpy(double alpha, double[] x, double[] y) {
+    for (int i = 0; i < x.length; i++)
+      y[i] += alpha * x[i];
+  }
+
+  /**
+   * Scales x to the unit length, unless it is zero.
+   *
+   * @return the length of x before the scaling
+   */
+  public static double normalize(double[] x) {
+    double norm = Math.sqrt(dot(x, x));
+    if (norm > 0) {
+      for (int i = 0; i < x.length; i++)
+        x[i] /= norm;
+    }
+    return norm;
+  }
+
+  /**
+   * Computes the eigenvalues and eigenvectors of the symmetric matrix a by the
+   * Jacobi method. Only the upper triangle of a is used, and it is
+   * overwritten. On a single thread, or for a small matrix, this is the
+   * classical method, where each iteration rotates the largest off-diagonal
+   * entry to zero, as found through the index of the largest entry of each
+   * row. Otherwise the rotations follow the round-robin ordering of
+   * {@link JacobiEigenValue#roundRobin(int, int)}, and the n/2 disjoint
+   * rotations of each round are applied together, split over the threads.
+   *
+   * @param a the symmetric matrix
+   * @param e receives the eigenvalues
+   * @param v receives the eigenvectors, one per row
+   * @param imax the maximum number of iterations, each rotating one entry
+   * @param threads
+   * @return the number of iterations
+   * @throws IOException
+   */
+  public static int jacobiEigenValue(final double[][] a, double[] e,
+      final double[][] v, int imax, int threads) throws IOException {
+    final int n = a.length;
+    if (threads > 1 && cells(a) >= PARALLEL_THRESHOLD)
+      return roundJacobiEigenValue(a, e, v, imax, threads);
+
+    int[] ind = new int[n];
+    boolean[] changed = new boolean[n];
+    for (int i = 0; i < n; i++) {
+      Arrays.fill(v[i], 0);
+      v[i][i] = 1;
+      e[i] = a[i][i];
+      ind[i] = maxind(a, i);
+      changed[i] = true;
+    }
+
+    int state = n;
+    int icount = 0;
+    while (n > 1 && state != 0 && icount < imax) {
+      // find the pivot (k, l)
+      int m = 0;
+      for (int r = 1; r <= n - 2; r++) {
+        if (Math.abs(a[m][ind[m]]) < Math.abs(a[r][ind[r]]))
+          m = r;
+      }
+      final int k = m, l = ind[m];
+      double p = a[k][l];
+      if (p == 0)
+        break;
+      icount++;
+
+      // compute the rotation
+      double y = (e[l] - e[k]) / 2;
+      double t = Math.abs(y) + Math.sqrt(p * p + y * y);
+      double s = Math.sqrt(p * p + t * t);
+      double c = t / s;
+      s = p / s;
+      t = (p * p) / t;
+      if (y < 0) {
+        s = -s;
+        t = -t;
+      }
+
+      a[k][l] = 0;
+      state = update(e, changed, k, -t, state);
+      state = update(e, changed, l, t, state);
+
+      for (int i = 0; i < n; i++) {
+        if (i < k)
+          rotate(a, i, k, i, l, c, s);
+        else if (k < i && i < l)
+          rotate(a, k, i, i, l, c, s);
+        else if (l < i)
+          rotate(a, k, i, l, i, c, s);
+
+        double e1 = v[k][i], e2 = v[l][i];
+        v[k][i] = c * e1 - s * e2;
+        v[l][i] = s * e1 + c * e2;
+      }
+
+      ind[k] = maxind(a, k);
+      ind[l] = maxind(a, l);
+    }
+    return icount;
+  }
+
+  /**
+   * The Jacobi method in the round-robin ordering. The matrix is mirrored into
+   * the lower triangle of a, and each round computes the rotations of its
+   * pairs from the entries (p, p), (q, q) and (p, q), then applies them to the
+   * columns of every row, and to the rows and eigenvectors of every pair. The
+   * iterations stop when a sweep of rounds has nothing left to rotate.
+   */
+  private static int roundJacobiEigenValue(final double[][] a, double[] e,
+      final double[][] v, int imax, int threads) throws IOException {
+    final int n = a.length;
+    for (int i = 0; i < n; i++) {
+      Arrays.fill(v[i], 0);
+      v[i][i] = 1;
+      for (int j = 0; j < i; j++)
+        a[i][j] = a[j][i];
+    }
+
+    int rounds = n - 1 + (n % 2);
+    final double[] cos = new double[n];
+    final double[] sin = new double[n];
+    int icount = 0;
+    boolean rotated = true;
+    while (rotated && icount < imax) {
+      rotated = false;
+      for (int round = 0; round < rounds && icount < imax; round++) {
+        final int[][] pairs = JacobiEigenValue.roundRobin(n, round);
+        int count = 0;
+        for (int[] pair : pairs) {
+          int p = pair[0], q = pair[1];
+          cos[p] = 1;
+          sin[p] = 0;
+          if (q < 0)
+            continue;
+          cos[q] = 1;
+          sin[q] = 0;
+
+          double apq = a[p][q];
+          if (apq == 0
+              || Math.abs(apq) <= SVD_EPSILON
+                  * Math.sqrt(Math.abs(a[p][p] * a[q][q])))
+            continue;
+          double y = (a[q][q] - a[p][p]) / 2;
+          double t = Math.abs(y) + Math.sqrt(apq * apq + y * y);
+          double s = Math.sqrt(apq * apq + t * t);
+          cos[p] = cos[q] = t / s;
+          sin[p] = sin[q] = (y < 0) ? -apq / s : apq / s;
+          count++;
+        }
+        if (count == 0)
+          continue;
+        rotated = true;
+        icount += count;
+
+        // a = a * J, every row rotates its own columns
+        forEachRow(n, cells(a), threads, new RowTask() {
+          public void run(int start, int end) {
+            for (int i = start; i < end; i++) {
+              for (int[] pair : pairs) {
+                int p = pair[0], q = pair[1];
+                if (q >= 0 && sin[p] != 0) {
+                  double x = a[i][p], y = a[i][q];
+                  a[i][p] = cos[p] * x - sin[p] * y;
+                  a[i][q] = sin[p] * x + cos[p] * y;
+                }
+              }
+            }
+          }
+        });
+
+        // a = J' * a and v' = J' * v', every pair combines its own rows
+        forEachRow(pairs.length, 2L * cells(a), threads, new RowTask() {
+          public void run(int start, int end) {
+            for (int slot = start; slot < end; slot++) {
+              int p = pairs[slot][0], q = pairs[slot][1];
+              if (q < 0 || sin[p] == 0)
+                continue;
+              combine(a[p], a[q], cos[p], sin[p]);
+              combine(v[p], v[q], cos[p], sin[p]);
+              a[p][q] = a[q][p] = 0;
+            }
+          }
+        });
+      }
+    }
+
+    for (int i = 0; i < n; i++)
+      e[i] = a[i][i];
+    return icount;
+  }
+
+  private static void combine(double[] x, double[] y, double c, double s) {
+    for (int i = 0; i < x.length; i++) {
+      double xi = x[i], yi = y[i];
+      x[i] = c * xi - s * yi;
+      y[i] = s * xi + c * yi;
+    }
+  }
+
+  /**
+   * Returns the index of the largest entry of the row, right of the diagonal.
+   */
+  private static int maxind(double[][] a, int row) {
+    int m = row + 1;
+    for (int i = row + 2; i < a.length; i++) {
+      if (Math.abs(a[row][i]) > Math.abs(a[row][m]))
+        m = i;
+    }
+    return m;
+  }
+
+  private static int update(double[] e, boolean[] changed, int row,
+      double value, int state) {
+    double y = e[row];
+    e[row] += value;
+    if (changed[row] && y == e[row]) {
+      changed[row] = false;
+      return state - 1;
+    } else if (!changed[row] && y != e[row]) {
+      changed[row] = true;
+      return state + 1;
+    }
+    return state;
+  }
+
+  private static void rotate(double[][] a, int k, int l, int i, int j,
+      double c, double s) {
+    double s1 = a[k][l], s2 = a[i][j];
+    a[k][l] = c * s1 - s * s2;
+    a[i][j] = s * s1 + c * s2;
+  }
+
+  private static long cells(double[][] a) {
+    return (a.length == 0) ? 0 : (long) a.length * a[0].length;
+  }
+}
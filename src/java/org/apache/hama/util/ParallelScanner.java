@@ -0,0 +1,171 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Scanner;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Scans a range of rows of a table on the client, with one scanner per region
+ * on a thread pool. Each region is handed to a {@link RegionHandler}, whose
+ * partial results are returned in the order of the regions.
+ */
+public class ParallelScanner {
+  /** The maximum number of concurrent scanners */
+  public static final String THREADS = "hama.scan.threads";
+  public static final int DEFAULT_THREADS = 8;
+
+  /**
+   * Handles the rows of one region.
+   *
+   * @param <T> the type of the partial results
+   */
+  public interface RegionHandler<T> {
+    /**
+     * Reads the rows of a region.
+     *
+     * @param scanner the scanner of the rows of the region
+     * @return the partial result of the region
+     * @throws IOException
+     */
+    T handle(Scanner scanner) throws IOException;
+  }
+
+  private HTable table;
+  private int threads;
+
+  /**
+   * Constructor
+   *
+   * @param table
+   * @param threads the maximum number of concurrent scanners
+   */
+  public ParallelScanner(HTable table, int threads) {
+    this.table = table;
+    this.threads = Math.max(1, threads);
+  }
+
+  /**
+   * Splits the range of rows [startRow, stopRow) at the region boundaries.
+   *
+   * @param startRow the first row, or an empty row for the start of the table
+   * @param stopRow the row after the last, or an empty row for the end of the
+   *                table
+   * @return the [start, stop) pairs of the sub ranges
+   * @throws IOException
+   */
+  public List<byte[][]> split(byte[] startRow, byte[] stopRow)
+      throws IOException {
+    List<byte[][]> ranges = new ArrayList<byte[][]>();
+    byte[][] startKeys = table.getStartKeys();
+    for (int r = 0; r < startKeys.length; r++) {
+      byte[] start = startKeys[r];
+      byte[] stop = (r + 1 < startKeys.length) ? startKeys[r + 1]
+          : HConstants.EMPTY_END_ROW;
+
+      // intersect the region with the range
+      if (Bytes.compareTo(start, startRow) < 0)
+        start = startRow;
+      if (!isEnd(stopRow) && (isEnd(stop) || Bytes.compareTo(stopRow, stop) < 0))
+        stop = stopRow;
+      if (isEnd(stop) || Bytes.compareTo(start, stop) < 0)
+        ranges.add(new byte[][] { start, stop });
+    }
+    return ranges;
+  }
+
+  /**
+   * Scans the range of rows [startRow, stopRow), one region per task.
+   *
+   * @param columns the columns to scan
+   * @param startRow the first row, or an empty row for the start of the table
+   * @param stopRow the row after the last, or an empty row for the end of the
+   *                table
+   * @param handler
+   * @return the partial results of the regions
+   * @throws IOException
+   */
+  public <T> List<T> scan(final byte[][] columns, byte[] startRow,
+      byte[] stopRow, final RegionHandler<T> handler) throws IOException {
+    List<byte[][]> ranges = split(startRow, stopRow);
+    List<T> results = new ArrayList<T>();
+    if (ranges.size() == 1) {
+      results.add(scan(columns, ranges.get(0), handler));
+      return results;
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads,
+        Math.max(1, ranges.size())));
+    try {
+      List<Future<T>> futures = new ArrayList<Future<T>>();
+      for (final byte[][] range : ranges) {
+        futures.add(pool.submit(new Callable<T>() {
+          public T call() throws IOException {
+            return scan(columns, range, handler);
+          }
+        }));
+      }
+      for (Future<T> future : futures) {
+        results.add(get(future));
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    return results;
+  }
+
+  private <T> T scan(byte[][] columns, byte[][] range, RegionHandler<T> handler)
+      throws IOException {
+    Scanner scanner = isEnd(range[1]) ? table.getScanner(columns, range[0])
+        : table.getScanner(columns, range[0], range[1]);
+    try {
+      return handler.handle(scanner);
+    } finally {
+      scanner.close();
+    }
+  }
+
+  private static boolean isEnd(byte[] row) {
+    return row == null || row.length == 0;
+  }
+
+  private static <T> T get(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      throw new IOException(e.getMessage());
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException)
+        throw (IOException) e.getCause();
+      throw new IOException(e.getCause().getMessage());
+    }
+  }
+}
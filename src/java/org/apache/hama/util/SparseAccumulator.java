@@ -0,0 +1,140 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.util;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hama.io.DoubleEntry;
+
+/**
+ * A sparse accumulator for one row: an open-addressing hash from column index
+ * to value. Its memory and work grow with the number of accumulated entries,
+ * not with the number of columns.
+ */
+public class SparseAccumulator {
+  private static final int EMPTY = -1;
+
+  private int[] indices;
+  private double[] values;
+  private int size;
+
+  public SparseAccumulator() {
+    this(16);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param capacity the expected number of entries
+   */
+  public SparseAccumulator(int capacity) {
+    int n = 16;
+    while (n < capacity * 2)
+      n <<= 1;
+    indices = new int[n];
+    values = new double[n];
+    Arrays.fill(indices, EMPTY);
+  }
+
+  /**
+   * Adds the value to the entry of the column.
+   *
+   * @param j the column index
+   * @param value
+   */
+  public void add(int j, double value) {
+    int mask = indices.length - 1;
+    int p = hash(j) & mask;
+    while (indices[p] != EMPTY && indices[p] != j)
+      p = (p + 1) & mask;
+
+    if (indices[p] == EMPTY) {
+      indices[p] = j;
+      values[p] = value;
+      if (++size * 2 > indices.length)
+        grow();
+    } else {
+      values[p] += value;
+    }
+  }
+
+  /**
+   * Adds alpha times the entries of a row.
+   *
+   * @param alpha
+   * @param row the entries of the row
+   */
+  public void add(double alpha, MapWritable row) {
+    for (Map.Entry<Writable, Writable> e : row.entrySet()) {
+      if (e.getKey() instanceof IntWritable)
+        add(((IntWritable) e.getKey()).get(), alpha
+            * ((DoubleEntry) e.getValue()).getValue());
+    }
+  }
+
+  /** @return the number of entries */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the entries, leaving out the zeros.
+   *
+   * @return the entries of the row
+   */
+  public MapWritable getEntries() {
+    MapWritable entries = new MapWritable();
+    for (int p = 0; p < indices.length; p++) {
+      if (indices[p] != EMPTY && values[p] != 0)
+        entries.put(new IntWritable(indices[p]), new DoubleEntry(values[p]));
+    }
+    return entries;
+  }
+
+  /**
+   * Removes all the entries.
+   */
+  public void clear() {
+    Arrays.fill(indices, EMPTY);
+    size = 0;
+  }
+
+  private void grow() {
+    int[] oldIndices = indices;
+    double[] oldValues = values;
+    indices = new int[oldIndices.length * 2];
+    values = new double[oldValues.length * 2];
+    Arrays.fill(indices, EMPTY);
+    size = 0;
+    for (int p = 0; p < oldIndices.length; p++) {
+      if (oldIndices[p] != EMPTY)
+        add(oldIndices[p], oldValues[p]);
+    }
+  }
+
+  private static int hash(int j) {
+    int h = j * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.util;
+
+/**
+ * A tournament tree over a fixed number of entries, each holding a column
+ * index and a value. The entry of the largest absolute value is found in
+ * constant time, and changing an entry replays only its path to the root, in
+ * O(log n). Ties go to the entry of the lower index.
+ */
+public class TournamentTree {
+  private int size;
+  private int leaves;
+  private int[] columns;
+  private double[] values;
+  // the winner of each node of the tree, the root is 1
+  private int[] winners;
+
+  /**
+   * Constructor
+   *
+   * @param size the number of entries
+   */
+  public TournamentTree(int size) {
+    this.size = size;
+    leaves = 1;
+    while (leaves < size)
+      leaves <<= 1;
+    columns = new int[size];
+    values = new double[size];
+    winners = new int[2 * leaves];
+    for (int i = 0; i < leaves; i++)
+      winners[leaves + i] = (i < size) ? i : -1;
+    for (int node = leaves - 1; node > 0; node--)
+      play(node);
+  }
+
+  /** @return the number of entries */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Sets an entry, and replays its path to the root.
+   *
+   * @param i the entry
+   * @param column the column index
+   * @param value
+   */
+  public void set(int i, int column, double value) {
+    columns[i] = column;
+    values[i] = value;
+    for (int node = (leaves + i) >> 1; node > 0; node >>= 1)
+      play(node);
+  }
+
+  /**
+   * @param i the entry
+   * @return the column index of the entry
+   */
+  public int getColumn(int i) {
+    return columns[i];
+  }
+
+  /**
+   * @param i the entry
+   * @return the value of the entry
+   */
+  public double getValue(int i) {
+    return values[i];
+  }
+
+  /**
+   * @return the entry of the largest absolute value, or -1 if there are no
+   *         entries
+   */
+  public int max() {
+    return winners[1];
+  }
+
+  private void play(int node) {
+    int left = winners[2 * node], right = winners[2 * node + 1];
+    if (left < 0 || right < 0)
+      winners[node] = (left < 0) ? right : left;
+    else
+      winners[node] = (Math.abs(values[right]) > Math.abs(values[left])) ? right
+          : left;
+  }
+}
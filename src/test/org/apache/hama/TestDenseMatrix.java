@@ -28,9 +28,15 @@ import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
 import org.apache.hadoop.hbase.client.HBaseAdmin;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.io.Writable;
 import org.apache.hama.Matrix.Norm;
+import org.apache.hama.algebra.BlockTransposeMap;
+import org.apache.hama.algebra.JacobiEigenValue;
+import org.apache.hama.algebra.OuterProductMultiplyMap;
 import org.apache.hama.io.DoubleEntry;
+import org.apache.hama.util.BytesUtil;
 import org.apache.hama.util.RandomVariable;
 import org.apache.log4j.Logger;
 
@@ -46,6 +52,7 @@ public class TestDenseMatrix extends TestCase {
   private static Matrix m4;
   private final static String aliase1 = "matrix_aliase_A";
   private final static String aliase2 = "matrix_aliase_B";
+  private final static String aliase3 = "matrix_aliase_C";
   private static HamaConfiguration conf;
   private static HBaseAdmin admin;
   private static HamaAdmin hamaAdmin;
@@ -122,6 +129,72 @@ public class TestDenseMatrix extends TestCase {
         assertEquals(trans.get(i, j), m1.get(j, i));
       }
     }
+
+    // a rectangular matrix, with tiles which don't divide it
+    HamaConfiguration tiles = new HamaConfiguration(conf);
+    tiles.setInt(BlockTransposeMap.TILE_SIZE, 3);
+    DenseMatrix a = DenseMatrix.random(tiles, 7, 5);
+    trans = a.transpose();
+    assertEquals(5, trans.getRows());
+    assertEquals(7, trans.getColumns());
+    for (int i = 0; i < 5; i++) {
+      for (int j = 0; j < 7; j++) {
+        assertEquals(a.get(j, i), trans.get(i, j));
+      }
+    }
+    a.close();
+    trans.close();
+  }
+
+  public void testTransposeView() throws IOException {
+    DenseMatrix a = DenseMatrix.random(conf, 4, SIZE);
+    DenseMatrix view = a.transposeView();
+    assertTrue(view.isTransposed());
+    assertEquals(SIZE, view.getRows());
+    assertEquals(4, view.getColumns());
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < 4; j++) {
+        assertEquals(a.get(j, i), view.get(i, j));
+      }
+      assertEquals(a.get(2, i), view.getRow(i).get(2));
+    }
+    assertEquals(a.get(3, 5), view.getColumn(3).get(5));
+    assertEquals(a.norm(Norm.Infinity), view.norm(Norm.One));
+    assertFalse(view.transposeView().isTransposed());
+
+    // A' * x
+    DenseVector x = a.getRow(1);
+    DenseVector y = view.mult(a.getColumn(0));
+    for (int i = 0; i < SIZE; i++) {
+      double sum = 0;
+      for (int k = 0; k < 4; k++) {
+        sum += a.get(k, i) * a.get(k, 0);
+      }
+      assertTrue(Math.abs(sum - y.get(i)) < .0000001);
+    }
+    y = ((DenseMatrix) m1).transposeView().mult(x);
+    for (int i = 0; i < SIZE; i++) {
+      double sum = 0;
+      for (int k = 0; k < SIZE; k++) {
+        sum += m1.get(k, i) * x.get(k);
+      }
+      assertTrue(Math.abs(sum - y.get(i)) < .0000001);
+    }
+
+    // A' * B, A' * A and A * B'
+    DenseMatrix t1 = ((DenseMatrix) m1).transposeView();
+    verifyMultResult(t1, m2, t1.mult(m2));
+    verifyMultResult(t1, m1, t1.mult(m1));
+    DenseMatrix t2 = ((DenseMatrix) m2).transposeView();
+    verifyMultResult(m1, t2, m1.mult(t2));
+
+    DenseMatrix copy = view.transpose();
+    assertFalse(copy.isTransposed());
+    assertEquals(4, copy.getRows());
+    assertEquals(a.get(3, 7), copy.get(3, 7));
+    copy.close();
+    view.close();
+    a.close();
   }
 
   /**
@@ -140,6 +213,114 @@ public class TestDenseMatrix extends TestCase {
     }
   }
 
+  public void testColumnReplica() throws IOException {
+    DenseMatrix a = DenseMatrix.random(conf, 4, 6);
+    a.buildColumnReplica();
+    for (int j = 0; j < 6; j++) {
+      DenseVector column = a.getColumn(j);
+      assertEquals(4, column.size());
+      for (int i = 0; i < 4; i++)
+        assertEquals(a.get(i, j), column.get(i));
+    }
+
+    // the writes of the handle are mirrored into the replica
+    a.set(2, 3, 7.5);
+    DenseVector row = new DenseVector();
+    for (int j = 0; j < 6; j++)
+      row.set(j, j + 1);
+    a.setRow(0, row);
+    assertEquals(7.5, a.getColumn(3).get(2));
+    assertEquals(4.0, a.getColumn(3).get(0));
+
+    // a write through another handle makes the replica stale, so it is
+    // rebuilt on the next read
+    DenseMatrix other = new DenseMatrix(conf, a.getPath());
+    other.set(1, 5, -1.0);
+    assertEquals(-1.0, a.getColumn(5).get(1));
+
+    DenseVector x = new DenseVector();
+    x.zeroFill(4);
+    for (int i = 0; i < 4; i++)
+      x.set(i, 1);
+    DenseVector y = a.transposeView().mult(x);
+    for (int j = 0; j < 6; j++) {
+      double sum = 0;
+      for (int i = 0; i < 4; i++)
+        sum += a.get(i, j);
+      assertEquals(sum, y.get(j), 0.000001);
+    }
+
+    a.dropColumnReplica();
+    assertEquals(7.5, a.getColumn(3).get(2));
+    a.close();
+  }
+
+  public void testSetKeepsColumnReplica() throws IOException {
+    DenseMatrix b = DenseMatrix.random(conf, 4, 6);
+    b.buildColumnReplica();
+
+    // the copy gets its own replica, and dropping it leaves b's one alone
+    DenseMatrix c = new DenseMatrix(conf, 4, 6);
+    c.set(b);
+    assertNull(c.getHTable().get(Constants.METADATA,
+        Constants.METADATA_REPLICA));
+    c.buildColumnReplica();
+    c.close();
+
+    for (int j = 0; j < 6; j++) {
+      DenseVector column = b.getColumn(j);
+      for (int i = 0; i < 4; i++)
+        assertEquals(b.get(i, j), column.get(i));
+    }
+    b.close();
+  }
+
+  public void testDeleteDropsColumnReplica() throws IOException {
+    DenseMatrix a = DenseMatrix.random(conf, 4, 6);
+    a.buildColumnReplica();
+    String replica = Bytes.toString(a.getHTable().get(Constants.METADATA,
+        Constants.METADATA_REPLICA).getValue());
+    a.save(aliase3);
+    a.close();
+    assertEquals(true, admin.tableExists(a.getPath()));
+    assertEquals(true, admin.tableExists(replica));
+
+    hamaAdmin.delete(aliase3);
+    assertEquals(false, admin.tableExists(a.getPath()));
+    assertEquals(false, admin.tableExists(replica));
+  }
+
+  public void testElementWise() throws IOException {
+    DenseMatrix a = DenseMatrix.random(conf, 4, 6);
+    DenseMatrix b = DenseMatrix.random(conf, 4, 6);
+
+    Matrix c = a.elementWise().mult(b).apply(ElementFunction.SQRT).scale(2)
+        .shift(-1).divide(b).execute();
+    Matrix d = a.hadamard(b);
+    Matrix e = a.apply(ElementFunction.pow(2));
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 6; j++) {
+        double x = a.get(i, j), y = b.get(i, j);
+        assertEquals((2 * Math.sqrt(x * y) - 1) / y, c.get(i, j), 0.000001);
+        assertEquals(x * y, d.get(i, j), 0.000001);
+        assertEquals(x * x, e.get(i, j), 0.000001);
+      }
+    }
+
+    try {
+      a.hadamard(m1);
+      fail("Matrix-Hadamard should be failed.");
+    } catch (IOException ex) {
+      LOG.info(ex.toString());
+    }
+
+    a.close();
+    b.close();
+    ((DenseMatrix) c).close();
+    ((DenseMatrix) d).close();
+    ((DenseMatrix) e).close();
+  }
+
   public void testGetSetAttribute() throws IOException {
     m1.setRowLabel(0, "row1");
     assertEquals(m1.getRowLabel(0), "row1");
@@ -232,6 +413,64 @@ public class TestDenseMatrix extends TestCase {
     verifyMultResult(m1, m2, result);
   }
 
+  public void testOuterProductMult() throws IOException {
+    Matrix result = ((DenseMatrix) m1).outerProductMult(m2);
+
+    assertEquals(result.getRows(), SIZE);
+    assertEquals(result.getColumns(), SIZE);
+
+    verifyMultResult(m1, m2, result);
+
+    // several panels per map task, merged by the combiner
+    HamaConfiguration small = new HamaConfiguration(conf);
+    small.setInt(OuterProductMultiplyMap.PANEL_SIZE, 3 * SIZE);
+    DenseMatrix a = new DenseMatrix(small, m1.getPath());
+    verifyMultResult(m1, m2, a.outerProductMult(m2));
+  }
+
+  public void testOuterProductMultZeroRow() throws IOException {
+    DenseMatrix a = new DenseMatrix(conf, SIZE, SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        a.set(i, j, (i == 3 || j == 5) ? 0.0 : m1.get(i, j));
+      }
+    }
+
+    // row 3 of A * B, and row 5 of A' * B, are zero
+    Matrix result = a.outerProductMult(m2);
+    verifyMultResult(a, m2, result);
+    DenseMatrix view = a.transposeView();
+    Matrix transposed = view.outerProductMult(m2);
+    verifyMultResult(view, m2, transposed);
+    for (int j = 0; j < SIZE; j++) {
+      assertEquals(0.0, result.get(3, j));
+      assertEquals(0.0, transposed.get(5, j));
+    }
+    a.close();
+  }
+
+  public void testMultAdd() throws IOException {
+    DenseMatrix c = DenseMatrix.random(conf, SIZE, SIZE);
+    double[][] before = new double[SIZE][SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        before[i][j] = c.get(i, j);
+      }
+    }
+
+    assertSame(c, m1.multAdd(2.0, m2, c));
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        double sum = before[i][j];
+        for (int k = 0; k < SIZE; k++) {
+          sum += 2.0 * m1.get(i, k) * m2.get(k, j);
+        }
+        assertTrue(Math.abs(sum - c.get(i, j)) < .0000001);
+      }
+    }
+    c.close();
+  }
+
   public void testSetMatrix() throws IOException {
     Matrix a = new DenseMatrix(conf, m1.getRows(), m1.getColumns());
     a.set(m1);
@@ -261,6 +500,37 @@ public class TestDenseMatrix extends TestCase {
     assertEquals(value, result.get(0, 0));
   }
   
+  public void testStats() throws IOException {
+    DenseMatrix a = new DenseMatrix(conf, 2, 3);
+    a.setRows(0, new double[][] { { 1, -2, 0 }, { 3, 0, -4 } });
+
+    MatrixStats stats = a.getStats();
+    assertEquals(4, stats.getNnz());
+    assertEquals(-4.0, stats.getMin());
+    assertEquals(3.0, stats.getMax());
+    assertEquals(-2.0, stats.getSum());
+    assertEquals(4.0, a.norm(Norm.One));
+    assertEquals(7.0, a.norm(Norm.Infinity));
+    assertEquals(4.0, a.norm(Norm.Maxvalue));
+    assertEquals(Math.sqrt(30), a.norm(Norm.Frobenius));
+
+    // cached until the matrix is modified
+    assertNotNull(MatrixStats.load(a.getHTable(), null));
+    a.set(0, 0, 10);
+    assertNull(MatrixStats.load(a.getHTable(), null));
+
+    // the job computes the same statistics as the local scan
+    HamaConfiguration jobs = new HamaConfiguration(conf);
+    jobs.setInt(MatrixStats.LOCAL_SIZE, 0);
+    stats = new DenseMatrix(jobs, a.getPath()).getStats();
+    assertEquals(10.0, stats.getMax());
+    assertEquals(7.0, stats.getSum());
+    assertEquals(13.0, stats.norm(Norm.One));
+    assertEquals(12.0, stats.norm(Norm.Infinity));
+    assertEquals(Math.sqrt(129), stats.norm(Norm.Frobenius));
+    a.close();
+  }
+
   public void testNorm() throws IOException {
     double gap = 0.000001;
     
@@ -418,6 +688,179 @@ public class TestDenseMatrix extends TestCase {
     
     // verify the results
     assertTrue(dm.verifyEigenValue(e, E));
+
+    // the m/r iterations compute the same results
+    HamaConfiguration jobs = new HamaConfiguration(conf);
+    jobs.setInt(LocalDenseMatrix.MAX_CELLS, 0);
+    DenseMatrix distributed = new DenseMatrix(jobs, dm.getPath());
+    distributed.jacobiEigenValue(100);
+    assertTrue(distributed.verifyEigenValue(e, E));
+
+    // one iteration per time slice, each resumed by a new handle
+    int slices = 1;
+    while (!new DenseMatrix(jobs, dm.getPath()).jacobiEigenValue(100, 0))
+      slices++;
+    assertTrue(slices > 1);
+    assertTrue(distributed.verifyEigenValue(e, E));
+  }
+
+  public void testParallelJacobiEigenValue() throws IOException {
+    double[][] S = { { 4, 1, 2, 0, 1 }, { 1, 3, 0, 1, 0 }, { 2, 0, 5, 1, 2 },
+        { 0, 1, 1, 2, 1 }, { 1, 0, 2, 1, 6 } };
+    int n = S.length;
+    DenseMatrix dm = new DenseMatrix(conf, n, n);
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        dm.set(i, j, S[i][j]);
+      }
+    }
+
+    assertTrue(dm.parallelJacobiEigenValue(100) < 100);
+
+    // every row of "eivec" is an eigen vector of its eigen value
+    HTable table = dm.getHTable();
+    double trace = 0, sum = 0;
+    for (int i = 0; i < n; i++) {
+      double e = BytesUtil.bytesToDouble(table.get(BytesUtil.getRowIndex(i),
+          Bytes.toBytes(JacobiEigenValue.EIVAL)).getValue());
+      double[] v = new double[n];
+      for (int j = 0; j < n; j++) {
+        v[j] = BytesUtil.bytesToDouble(table.get(BytesUtil.getRowIndex(i),
+            Bytes.toBytes(JacobiEigenValue.EIVEC + j)).getValue());
+      }
+      for (int j = 0; j < n; j++) {
+        double av = 0;
+        for (int k = 0; k < n; k++) {
+          av += S[j][k] * v[k];
+        }
+        assertEquals(e * v[j], av, 0.000001);
+      }
+      trace += S[i][i];
+      sum += e;
+    }
+    assertEquals(trace, sum, 0.000001);
+    dm.close();
+  }
+
+  public void testGramian() throws IOException {
+    DenseMatrix a = DenseMatrix.random(conf, 5, 3);
+    // a zero column of A gives a zero row of A' * A
+    for (int k = 0; k < 5; k++) {
+      a.set(k, 1, 0.0);
+    }
+    double[][] x = a.subMatrix(0, 4, 0, 2).getDoubleArray();
+
+    // A' * A
+    Matrix g = a.gramian();
+    assertEquals(3, g.getRows());
+    assertEquals(3, g.getColumns());
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 3; j++) {
+        double sum = 0;
+        for (int k = 0; k < 5; k++) {
+          sum += x[k][i] * x[k][j];
+        }
+        assertEquals(sum, g.get(i, j), 0.000001);
+      }
+    }
+
+    // A * A', from a transposed copy
+    Matrix h = a.transposeView().gramian();
+    assertEquals(5, h.getRows());
+    for (int i = 0; i < 5; i++) {
+      for (int j = 0; j < 5; j++) {
+        double sum = 0;
+        for (int k = 0; k < 3; k++) {
+          sum += x[i][k] * x[j][k];
+        }
+        assertEquals(sum, h.get(i, j), 0.000001);
+      }
+    }
+    g.close();
+    h.close();
+    a.close();
+  }
+
+  public void testTsqr() throws IOException {
+    DenseMatrix a = DenseMatrix.random(conf, 9, 3);
+    double[][] x = a.subMatrix(0, 8, 0, 2).getDoubleArray();
+
+    QRDecomposition qr = a.tsqr(true);
+    double[][] r = qr.getR().getDoubleArray();
+    double[][] q = qr.getQ().subMatrix(0, 8, 0, 2).getDoubleArray();
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < i; j++) {
+        assertEquals(0.0, r[i][j]);
+      }
+    }
+
+    // Q * R = A, and Q' * Q = I
+    for (int i = 0; i < 9; i++) {
+      for (int j = 0; j < 3; j++) {
+        double sum = 0;
+        for (int k = 0; k < 3; k++) {
+          sum += q[i][k] * r[k][j];
+        }
+        assertEquals(x[i][j], sum, 0.000001);
+      }
+    }
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 3; j++) {
+        double sum = 0;
+        for (int k = 0; k < 9; k++) {
+          sum += q[k][i] * q[k][j];
+        }
+        assertEquals((i == j) ? 1.0 : 0.0, sum, 0.000001);
+      }
+    }
+
+    // without Q, in a single pass
+    QRDecomposition rOnly = a.tsqr(false);
+    assertNull(rOnly.getQ());
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 3; j++) {
+        assertEquals(r[i][j], rOnly.getR().get(i, j), 0.000001);
+      }
+    }
+    qr.getQ().close();
+    a.close();
+  }
+
+  public void testRandomizedSvd() throws IOException {
+    DenseMatrix a = DenseMatrix.random(conf, 8, 4);
+    // a zero column of A gives a zero row of A' * Q
+    for (int i = 0; i < 8; i++) {
+      a.set(i, 2, 0.0);
+    }
+    double[][] x = a.subMatrix(0, 7, 0, 3).getDoubleArray();
+
+    // the samples span the columns of A, so the triplets are exact
+    SingularValueDecomposition svd = a.randomizedSvd(2, 2, 1);
+    assertEquals(2, svd.size());
+    assertTrue(svd.getSingularValue(0) >= svd.getSingularValue(1));
+    double[][] u = svd.getU().subMatrix(0, 7, 0, 1).getDoubleArray();
+    double[][] v = svd.getV().getDoubleArray();
+
+    // A * v = s * u, and A' * u = s * v
+    for (int c = 0; c < 2; c++) {
+      double s = svd.getSingularValue(c);
+      for (int i = 0; i < 8; i++) {
+        double sum = 0;
+        for (int j = 0; j < 4; j++) {
+          sum += x[i][j] * v[j][c];
+        }
+        assertEquals(s * u[i][c], sum, 0.000001);
+      }
+      for (int j = 0; j < 4; j++) {
+        double sum = 0;
+        for (int i = 0; i < 8; i++) {
+          sum += x[i][j] * u[i][c];
+        }
+        assertEquals(s * v[j][c], sum, 0.000001);
+      }
+    }
+    svd.getU().close();
+    a.close();
   }
 
   public void testEnsureForAddition() {
@@ -437,17 +880,47 @@ public class TestDenseMatrix extends TestCase {
       LOG.info(e.toString());
     }
   }
+
+  public void testEnsureForMultAdd() throws IOException {
+    DenseMatrix c = new DenseMatrix(conf, SIZE, SIZE);
+    try {
+      m1.multAdd(1.0, m2, c.transposeView());
+      fail("C += A*B should be failed while C is a transposed view.");
+    } catch (IOException e) {
+      LOG.info(e.toString());
+    }
+    c.close();
+  }
+
+  public void testEnsureForSet() throws IOException {
+    DenseMatrix c = new DenseMatrix(conf, SIZE, SIZE);
+    try {
+      c.set(((DenseMatrix) m1).transposeView());
+      fail("A = B should be failed while B is a transposed view.");
+    } catch (IOException e) {
+      LOG.info(e.toString());
+    }
+    try {
+      c.set(2.0, ((DenseMatrix) m1).transposeView());
+      fail("A = alpha*B should be failed while B is a transposed view.");
+    } catch (IOException e) {
+      LOG.info(e.toString());
+    }
+    c.close();
+  }
   
   public void testLoadSave() throws IOException {
-    String path1 = m1.getPath();
-    // save m1 to aliase1
-    m1.save(aliase1);
-    // load matrix m1 using aliase1
+    // the table is deleted at the end, so the shared m1 is not used
+    DenseMatrix matrix = DenseMatrix.random(conf, SIZE, SIZE);
+    String path1 = matrix.getPath();
+    // save matrix to aliase1
+    matrix.save(aliase1);
+    // load the matrix using aliase1
     DenseMatrix loadTest = new DenseMatrix(conf, aliase1, false);
 
     for (int i = 0; i < SIZE; i++) {
       for (int j = 0; j < SIZE; j++) {
-        assertEquals(m1.get(i, j), loadTest.get(i, j));
+        assertEquals(matrix.get(i, j), loadTest.get(i, j));
       }
     }
 
@@ -455,8 +928,8 @@ public class TestDenseMatrix extends TestCase {
     // close loadTest, it just disconnect to the table but didn't delete it.
     loadTest.close();
 
-    // try to close m1 & load matrix m1 using aliase1 again.
-    m1.close();
+    // try to close the matrix & load it using aliase1 again.
+    matrix.close();
     DenseMatrix loadTest2 = new DenseMatrix(conf, aliase1, false);
     assertEquals(path1, loadTest2.getPath());
     // remove aliase1
@@ -483,15 +956,17 @@ public class TestDenseMatrix extends TestCase {
   }
   
   public void testForceCreate() throws IOException {
-    String path2 = m2.getPath();
-    // save m2 to aliase2
-    m2.save(aliase2);
-    // load matrix m2 using aliase2
+    // the table is deleted at the end, so the shared m2 is not used
+    DenseMatrix matrix = DenseMatrix.random(conf, SIZE, SIZE);
+    String path2 = matrix.getPath();
+    // save matrix to aliase2
+    matrix.save(aliase2);
+    // load the matrix using aliase2
     DenseMatrix loadTest = new DenseMatrix(conf, aliase2, false);
 
     for (int i = 0; i < loadTest.getRows(); i++) {
       for (int j = 0; j < loadTest.getColumns(); j++) {
-        assertEquals(m2.get(i, j), loadTest.get(i, j));
+        assertEquals(matrix.get(i, j), loadTest.get(i, j));
       }
     }
 
@@ -507,8 +982,8 @@ public class TestDenseMatrix extends TestCase {
     assertEquals(loadPath2, hamaAdmin.getPath(aliase2));
     assertFalse(path2.equals(hamaAdmin.getPath(aliase2)));
 
-    // try to close m2 & loadTest, it table will be deleted finally
-    m2.close();
+    // try to close matrix & loadTest, it table will be deleted finally
+    matrix.close();
     assertEquals(true, admin.tableExists(path2));
     loadTest.close();
     assertEquals(false, admin.tableExists(path2));
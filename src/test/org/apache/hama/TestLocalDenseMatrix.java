@@ -0,0 +1,214 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama;
+
+import java.io.IOException;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.hadoop.hbase.client.HBaseAdmin;
+import org.apache.hama.Matrix.Norm;
+import org.apache.hama.util.MatrixKernels;
+import org.apache.hama.util.RandomVariable;
+import org.apache.log4j.Logger;
+
+/**
+ * Local matrix test
+ */
+public class TestLocalDenseMatrix extends TestCase {
+  static final Logger LOG = Logger.getLogger(TestLocalDenseMatrix.class);
+  private static int SIZE = 10;
+  private static LocalDenseMatrix m1;
+  private static LocalDenseMatrix m2;
+  private static HamaConfiguration conf;
+  private static HBaseAdmin admin;
+  private static HamaAdmin hamaAdmin;
+
+  public static Test suite() {
+    TestSetup setup = new TestSetup(new TestSuite(TestLocalDenseMatrix.class)) {
+      protected void setUp() throws Exception {
+        HCluster hCluster = new HCluster();
+        hCluster.setUp();
+
+        conf = hCluster.getConf();
+        admin = new HBaseAdmin(conf);
+        hamaAdmin = new HamaAdminImpl(conf, admin);
+
+        m1 = random(SIZE, SIZE);
+        m2 = random(SIZE, SIZE);
+      }
+    };
+    return setup;
+  }
+
+  private static LocalDenseMatrix random(int m, int n) throws IOException {
+    LocalDenseMatrix rand = new LocalDenseMatrix(conf, m, n);
+    for (int i = 0; i < m; i++) {
+      for (int j = 0; j < n; j++) {
+        rand.set(i, j, RandomVariable.rand());
+      }
+    }
+    return rand;
+  }
+
+  public void testLocalArithmetic() throws IOException {
+    Matrix sum = m1.add(0.5, m2);
+    Matrix product = m1.mult(m2);
+    Matrix trans = m1.transpose();
+
+    assertTrue(((LocalDenseMatrix) sum).isLocal());
+    assertTrue(((LocalDenseMatrix) product).isLocal());
+    assertTrue(((LocalDenseMatrix) trans).isLocal());
+
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        assertEquals(m1.get(i, j) + 0.5 * m2.get(i, j), sum.get(i, j));
+        assertEquals(m1.get(j, i), trans.get(i, j));
+
+        double c = 0;
+        for (int k = 0; k < SIZE; k++) {
+          c += m1.get(i, k) * m2.get(k, j);
+        }
+        assertTrue(Math.abs(c - product.get(i, j)) < .0000001);
+      }
+    }
+  }
+
+  public void testParallelKernels() throws IOException {
+    int size = 150;
+    LocalDenseMatrix a = random(size, size);
+    LocalDenseMatrix b = random(size, size);
+    Matrix c = a.mult(b);
+
+    for (int x = 0; x < 10; x++) {
+      int i = RandomVariable.randInt(0, size - 1);
+      int j = RandomVariable.randInt(0, size - 1);
+      double sum = 0;
+      for (int k = 0; k < size; k++) {
+        sum += a.get(i, k) * b.get(k, j);
+      }
+      assertTrue(Math.abs(sum - c.get(i, j)) < .0000001);
+    }
+
+    Matrix t = a.transpose();
+    assertEquals(a.get(size - 1, 3), t.get(3, size - 1));
+    assertTrue(Math.abs(a.norm(Norm.Frobenius)
+        - MatrixTestCommon.verifyNormFrobenius(a)) < .000001);
+  }
+
+  public void testParallelJacobi() throws IOException {
+    int size = 150;
+    double[][] a = new double[size][size];
+    for (int i = 0; i < size; i++) {
+      for (int j = i; j < size; j++)
+        a[i][j] = a[j][i] = RandomVariable.rand();
+    }
+
+    // over the threshold of the parallel kernels, the rounds of disjoint
+    // rotations are split over the threads
+    double[][] copy = new double[size][];
+    for (int i = 0; i < size; i++)
+      copy[i] = a[i].clone();
+    double[] e = new double[size];
+    double[][] v = new double[size][size];
+    int icount = MatrixKernels.jacobiEigenValue(copy, e, v, 100 * size * size,
+        4);
+    assertTrue(icount > 0);
+
+    // A * v_k = e_k * v_k, for the eigenvectors stored as rows
+    for (int k = 0; k < size; k++) {
+      for (int i = 0; i < size; i++) {
+        double sum = 0;
+        for (int j = 0; j < size; j++)
+          sum += a[i][j] * v[k][j];
+        assertEquals(e[k] * v[k][i], sum, .000001);
+      }
+    }
+
+    double trace = 0, sum = 0;
+    for (int i = 0; i < size; i++) {
+      trace += a[i][i];
+      sum += e[i];
+    }
+    assertEquals(trace, sum, .000001);
+  }
+
+  public void testEnsureForMultAdd() throws IOException {
+    LocalDenseMatrix c = new LocalDenseMatrix(conf, SIZE, SIZE - 1);
+    try {
+      m1.multAdd(1.0, m2, c);
+      fail("C += A*B should be failed while C's columns aren't B's.");
+    } catch (IllegalArgumentException e) {
+      LOG.info(e.toString());
+    }
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE - 1; j++) {
+        assertEquals(0.0, c.get(i, j));
+      }
+    }
+  }
+
+  public void testNorm() throws IOException {
+    assertTrue(Math.abs(m1.norm(Norm.One) - MatrixTestCommon.verifyNorm1(m1)) < .000001);
+    assertTrue(Math.abs(m1.norm(Norm.Infinity)
+        - MatrixTestCommon.verifyNormInfinity(m1)) < .000001);
+    assertTrue(Math.abs(m1.norm(Norm.Maxvalue)
+        - MatrixTestCommon.verifyNormMaxValue(m1)) < .000001);
+    assertTrue(Math.abs(m1.norm(Norm.Frobenius)
+        - MatrixTestCommon.verifyNormFrobenius(m1)) < .000001);
+  }
+
+  public void testMaterialize() throws IOException {
+    HamaConfiguration small = new HamaConfiguration(conf);
+    small.setInt(LocalDenseMatrix.MAX_CELLS, 16);
+
+    LocalDenseMatrix a = new LocalDenseMatrix(small, 4, 4);
+    assertTrue(a.isLocal());
+    a.set(3, 3, 1.5);
+    a.setDimension(5, 5);
+    assertFalse(a.isLocal());
+    assertTrue(admin.tableExists(a.getPath()));
+    assertEquals(1.5, a.get(3, 3));
+    assertEquals(5, a.getRows());
+    a.close();
+  }
+
+  public void testSave() throws IOException {
+    LocalDenseMatrix a = random(3, 3);
+    a.setRowLabel(0, "row0");
+    assertTrue(a.isLocal());
+
+    a.save("local_aliase");
+    assertFalse(a.isLocal());
+
+    DenseMatrix loaded = new DenseMatrix(conf, "local_aliase", false);
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 3; j++) {
+        assertEquals(a.get(i, j), loaded.get(i, j));
+      }
+    }
+    assertEquals("row0", loaded.getRowLabel(0));
+    loaded.close();
+    hamaAdmin.delete("local_aliase");
+  }
+}
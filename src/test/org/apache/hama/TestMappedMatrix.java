@@ -0,0 +1,164 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.hama.Matrix.Norm;
+import org.apache.hama.util.RandomVariable;
+import org.apache.log4j.Logger;
+
+/**
+ * Memory-mapped matrix test
+ */
+public class TestMappedMatrix extends TestCase {
+  static final Logger LOG = Logger.getLogger(TestMappedMatrix.class);
+  private static int SIZE = 10;
+  private static HamaConfiguration conf;
+  private static MappedMatrix m1;
+  private static MappedMatrix m2;
+
+  public static Test suite() {
+    TestSetup setup = new TestSetup(new TestSuite(TestMappedMatrix.class)) {
+      protected void setUp() throws Exception {
+        HCluster hCluster = new HCluster();
+        hCluster.setUp();
+
+        // small bands and tiles, to cross their boundaries
+        conf = new HamaConfiguration(hCluster.getConf());
+        conf.setInt(MappedMatrix.BAND_SIZE, 3 * SIZE * 8);
+        conf.setInt(MappedMatrix.TILE_SIZE, 4);
+
+        m1 = random(SIZE, SIZE);
+        m2 = random(SIZE, SIZE);
+      }
+
+      protected void tearDown() {
+        try {
+          m1.close();
+          m2.close();
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }
+    };
+    return setup;
+  }
+
+  private static MappedMatrix random(int m, int n) throws IOException {
+    MappedMatrix rand = MappedMatrix.createTemporary(conf, m, n);
+    for (int i = 0; i < m; i++) {
+      for (int j = 0; j < n; j++) {
+        rand.set(i, j, RandomVariable.rand());
+      }
+    }
+    return rand;
+  }
+
+  public void testRowBuffer() throws IOException {
+    DoubleBuffer row = m1.getRowBuffer(4);
+    assertEquals(SIZE, row.remaining());
+    row.put(2, 7.5);
+    assertEquals(7.5, m1.get(4, 2));
+
+    SubMatrix sub = m1.subMatrix(2, 5, 3, 8);
+    for (int i = 0; i < sub.getRows(); i++) {
+      for (int j = 0; j < sub.getColumns(); j++) {
+        assertEquals(m1.get(i + 2, j + 3), sub.get(i, j));
+      }
+    }
+  }
+
+  public void testReopen() throws IOException {
+    File file = File.createTempFile("TestMappedMatrix", ".mat");
+    MappedMatrix a = new MappedMatrix(conf, file, 3, 2);
+    a.set(2, 1, 4.0);
+    a.close();
+
+    MappedMatrix b = new MappedMatrix(conf, file);
+    assertEquals(3, b.getRows());
+    assertEquals(2, b.getColumns());
+    assertEquals(4.0, b.get(2, 1));
+
+    b.setDimension(4, 3);
+    assertEquals(4.0, b.get(2, 1));
+    assertEquals(0.0, b.get(3, 2));
+    b.close();
+    file.delete();
+  }
+
+  public void testOutOfCoreKernels() throws IOException {
+    Matrix sum = m1.add(2.0, m2);
+    Matrix product = m1.mult(m2);
+    Matrix trans = m1.transpose();
+
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        assertEquals(m1.get(i, j) + 2.0 * m2.get(i, j), sum.get(i, j));
+        assertEquals(m1.get(j, i), trans.get(i, j));
+
+        double c = 0;
+        for (int k = 0; k < SIZE; k++) {
+          c += m1.get(i, k) * m2.get(k, j);
+        }
+        assertTrue(Math.abs(c - product.get(i, j)) < .0000001);
+      }
+    }
+
+    assertTrue(Math.abs(m1.norm(Norm.One) - MatrixTestCommon.verifyNorm1(m1)) < .000001);
+    assertTrue(Math.abs(m1.norm(Norm.Infinity)
+        - MatrixTestCommon.verifyNormInfinity(m1)) < .000001);
+
+    sum.close();
+    product.close();
+    trans.close();
+  }
+
+  public void testEnsureForMultAdd() throws IOException {
+    MappedMatrix c = MappedMatrix.createTemporary(conf, SIZE - 1, SIZE);
+    try {
+      m1.multAdd(1.0, m2, c);
+      fail("C += A*B should be failed while C's rows aren't A's.");
+    } catch (IllegalArgumentException e) {
+      LOG.info(e.toString());
+    }
+    c.close();
+  }
+
+  public void testConversion() throws IOException {
+    DenseMatrix dense = m1.toDenseMatrix();
+    MappedMatrix back = MappedMatrix.copyOf(conf, dense, null);
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        assertEquals(m1.get(i, j), dense.get(i, j));
+        assertEquals(m1.get(i, j), back.get(i, j));
+      }
+    }
+    back.close();
+    dense.close();
+  }
+}
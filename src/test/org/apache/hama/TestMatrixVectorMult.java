@@ -81,4 +81,44 @@ public class TestMatrixVectorMult extends TestCase {
       }
     }
   }
+
+  public void testBroadcastVectorMult() throws IOException {
+    DenseVector x = new DenseVector();
+    x.set(0, 1);
+    x.set(1, 2);
+
+    DenseVector y = ((DenseMatrix) m1).mult(x);
+    for (int i = 0; i < result.length; i++) {
+      assertEquals(result[i][0], y.get(i));
+    }
+  }
+
+  public void testSparseMatVectorMult() throws IOException {
+    SparseMatrix a = new SparseMatrix(conf, 3, 3);
+    a.set(0, 0, 1);
+    a.set(0, 2, 2);
+    a.set(2, 1, 3);
+
+    DenseVector x = new DenseVector();
+    x.set(0, 1);
+    x.set(1, 2);
+    x.set(2, 3);
+
+    // the empty row 1 gives zero
+    DenseVector y = a.mult(x);
+    assertEquals(7.0, y.get(0));
+    assertEquals(0.0, y.get(1));
+    assertEquals(6.0, y.get(2));
+
+    DenseMatrix b = new DenseMatrix(conf, 3, 1);
+    b.setColumn(0, x);
+    SparseMatrix c = a.mult(b);
+    assertEquals(3, c.getRows());
+    assertEquals(1, c.getColumns());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(y.get(i), c.get(i, 0));
+    }
+    a.close();
+    b.close();
+  }
 }
@@ -27,6 +27,7 @@ import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
 import org.apache.hama.Matrix.Norm;
+import org.apache.hama.util.BytesUtil;
 import org.apache.log4j.Logger;
 
 public class TestSparseMatrix extends TestCase {
@@ -34,6 +35,7 @@ public class TestSparseMatrix extends TestCase {
   private static int SIZE = 10;
   private static SparseMatrix m1;
   private static SparseMatrix m2;
+  private static HamaConfiguration conf;
 
   public static Test suite() {
     TestSetup setup = new TestSetup(new TestSuite(TestSparseMatrix.class)) {
@@ -41,6 +43,7 @@ public class TestSparseMatrix extends TestCase {
         HCluster hCluster = new HCluster();
         hCluster.setUp();
 
+        conf = hCluster.getConf();
         m1 = SparseMatrix.random(hCluster.getConf(), SIZE, SIZE);
         m2 = SparseMatrix.random(hCluster.getConf(), SIZE, SIZE);
       }
@@ -68,6 +71,70 @@ public class TestSparseMatrix extends TestCase {
         assertEquals(trans.get(i, j), m1.get(j, i));
       }
     }
+
+    SparseMatrix a = SparseMatrix.random(conf, 4, 6);
+    trans = (SparseMatrix) a.transpose();
+    assertEquals(6, trans.getRows());
+    assertEquals(4, trans.getColumns());
+    for (int i = 0; i < 6; i++) {
+      for (int j = 0; j < 4; j++) {
+        assertEquals(a.get(j, i), trans.get(i, j));
+      }
+    }
+    a.close();
+    trans.close();
+  }
+
+  public void testGetColumn() throws IOException {
+    SparseVector column = m1.getColumn(1);
+    for (int i = 0; i < m1.getRows(); i++)
+      assertEquals(m1.get(i, 1), column.get(i));
+
+    SparseMatrix a = SparseMatrix.random(conf, 4, 6);
+    a.buildColumnReplica();
+    a.set(3, 2, 5.0);
+    column = a.getColumn(2);
+    for (int i = 0; i < 4; i++)
+      assertEquals(a.get(i, 2), column.get(i));
+    assertEquals(5.0, column.get(3));
+    a.close();
+  }
+
+  public void testSubMatrix() throws IOException {
+    SubMatrix a = m1.subMatrix(2, 4, 2, 5);
+    assertEquals(3, a.getRows());
+    assertEquals(4, a.getColumns());
+    for (int i = 0; i < a.getRows(); i++) {
+      for (int j = 0; j < a.getColumns(); j++) {
+        assertEquals(m1.get(i + 2, j + 2), a.get(i, j));
+      }
+    }
+  }
+
+  public void testElementWise() throws IOException {
+    SparseMatrix c = (SparseMatrix) m1.elementWise().mult(m2).apply(
+        ElementFunction.ABS).execute();
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        assertEquals(Math.abs(m1.get(i, j) * m2.get(i, j)), c.get(i, j),
+            0.000001);
+      }
+    }
+    c.close();
+
+    // the zeros which are not stored can't become non-zero
+    try {
+      m1.apply(ElementFunction.EXP);
+      fail("exp should be failed on a sparse matrix.");
+    } catch (IOException e) {
+      LOG.info(e.toString());
+    }
+    try {
+      m1.elementWise().shift(1).execute();
+      fail("A shift should be failed on a sparse matrix.");
+    } catch (IOException e) {
+      LOG.info(e.toString());
+    }
   }
 
   public void testSparsity() throws IOException {
@@ -92,6 +159,112 @@ public class TestSparseMatrix extends TestCase {
     verifyMultResult(m1, m2, result);
   }
 
+  public void testMatrixAdd() throws IOException {
+    SparseMatrix result = m1.add(2.0, m2);
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        double gap = m1.get(i, j) + 2.0 * m2.get(i, j) - result.get(i, j);
+        assertTrue(gap < 0.000001 && gap > -0.000001);
+      }
+    }
+
+    // the entries which cancel out are not stored
+    SparseMatrix zero = m1.add(-1.0, m1);
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        assertNull(zero.getHTable().get(BytesUtil.getRowIndex(i),
+            BytesUtil.getColumnIndex(j)));
+      }
+    }
+  }
+
+  public void testMultAdd() throws IOException {
+    SparseMatrix c = SparseMatrix.random(conf, SIZE, SIZE);
+    double[][] before = new double[SIZE][SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        before[i][j] = c.get(i, j);
+      }
+    }
+
+    assertSame(c, m1.multAdd(-1.5, m2, c));
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        double sum = before[i][j];
+        for (int k = 0; k < SIZE; k++) {
+          sum += -1.5 * m1.get(i, k) * m2.get(k, j);
+        }
+        double gap = sum - c.get(i, j);
+        assertTrue(gap < 0.000001 && gap > -0.000001);
+      }
+    }
+    c.close();
+  }
+
+  public void testMultAddMixedTypes() throws IOException {
+    SparseMatrix identity = new SparseMatrix(conf, 2, 2);
+    identity.set(0, 0, 1.0);
+    identity.set(1, 1, 1.0);
+
+    // the entries of a dense C which become zero are kept as zeros
+    DenseMatrix dense = new DenseMatrix(conf, 2, 2);
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < 2; j++)
+        dense.set(i, j, 1.0);
+    }
+    identity.multAdd(-1.0, identity, dense);
+    assertEquals(0.0, dense.get(0, 0));
+    assertEquals(1.0, dense.get(0, 1));
+    assertEquals(1.0, dense.get(1, 0));
+    assertEquals(0.0, dense.get(1, 1));
+
+    // the zero entries of a sparse C are not stored
+    SparseMatrix sparse = new SparseMatrix(conf, 2, 2);
+    sparse.set(0, 0, 1.0);
+    DenseMatrix a = new DenseMatrix(conf, 2, 2);
+    a.set(0, 0, 1.0);
+    a.set(0, 1, 0.0);
+    a.set(1, 0, 0.0);
+    a.set(1, 1, 1.0);
+    a.multAdd(-1.0, a, sparse);
+    assertEquals(-1.0, sparse.get(1, 1));
+    assertNull(sparse.getHTable().get(BytesUtil.getRowIndex(0),
+        BytesUtil.getColumnIndex(0)));
+    assertNull(sparse.getHTable().get(BytesUtil.getRowIndex(0),
+        BytesUtil.getColumnIndex(1)));
+    assertNull(sparse.getHTable().get(BytesUtil.getRowIndex(1),
+        BytesUtil.getColumnIndex(0)));
+
+    identity.close();
+    dense.close();
+    sparse.close();
+    a.close();
+  }
+
+  public void testEnsureForTransposedView() throws IOException {
+    DenseMatrix b = DenseMatrix.random(conf, SIZE, SIZE);
+    DenseMatrix view = b.transposeView();
+    try {
+      m1.mult(view);
+      fail("A*B should be failed while B is a transposed view.");
+    } catch (IOException e) {
+      LOG.info(e.toString());
+    }
+    try {
+      m1.multAdd(1.0, view, new DenseMatrix(conf, SIZE, SIZE));
+      fail("C += A*B should be failed while B is a transposed view.");
+    } catch (IOException e) {
+      LOG.info(e.toString());
+    }
+    try {
+      m1.add(view);
+      fail("A+B should be failed while B is a transposed view.");
+    } catch (IOException e) {
+      LOG.info(e.toString());
+    }
+    b.close();
+  }
+
   public void testNorm1() throws IOException {
     double gap = 0.000001;
     
@@ -120,6 +293,53 @@ public class TestSparseMatrix extends TestCase {
     assertTrue(gap < 0.000001 && gap > -0.000001);
   }
 
+  public void testGramian() throws IOException {
+    SparseMatrix g = (SparseMatrix) m1.gramian();
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        double sum = 0;
+        for (int k = 0; k < SIZE; k++) {
+          sum += m1.get(k, i) * m1.get(k, j);
+        }
+        assertEquals(sum, g.get(i, j), 0.000001);
+      }
+    }
+    g.close();
+  }
+
+  public void testLanczosEigenValue() throws IOException {
+    // the second difference matrix, whose eigen values are
+    // 2 - 2 * cos(j * pi / (n + 1))
+    int n = 8;
+    SparseMatrix a = new SparseMatrix(conf, n, n);
+    for (int i = 0; i < n; i++) {
+      a.set(i, i, 2);
+      if (i + 1 < n) {
+        a.set(i, i + 1, -1);
+        a.set(i + 1, i, -1);
+      }
+    }
+
+    EigenDecomposition eigen = a.lanczosEigenValue(2, n);
+    assertEquals(2, eigen.size());
+    for (int j = 0; j < 2; j++) {
+      double lambda = 2 - 2 * Math.cos((n - j) * Math.PI / (n + 1));
+      assertEquals(lambda, eigen.getEigenValue(j), 0.000001);
+
+      // A * x = lambda * x
+      LocalDenseMatrix x = eigen.getEigenVectors();
+      for (int i = 0; i < n; i++) {
+        double ax = 2 * x.get(i, j);
+        if (i > 0)
+          ax -= x.get(i - 1, j);
+        if (i + 1 < n)
+          ax -= x.get(i + 1, j);
+        assertEquals(lambda * x.get(i, j), ax, 0.000001);
+      }
+    }
+    a.close();
+  }
+
   /**
    * Verifying multiplication result
    * 
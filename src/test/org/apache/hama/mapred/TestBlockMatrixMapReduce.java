@@ -57,4 +57,28 @@ public class TestBlockMatrixMapReduce extends HCluster {
       }
     }
   }
+
+  public void testRectangularGrid() throws IOException {
+    DenseMatrix m1 = DenseMatrix.random(conf, SIZE, SIZE / 2);
+    DenseMatrix m2 = DenseMatrix.random(conf, SIZE / 2, SIZE + 3);
+
+    // 6 blocks is not a perfect square, and C is not square
+    verify(m1, m2, m1.mult(m2, 6));
+    verify(m1, m2, m1.mult(m2, 2, 3, 3));
+  }
+
+  private void verify(DenseMatrix m1, DenseMatrix m2, DenseMatrix c)
+      throws IOException {
+    assertEquals(m1.getRows(), c.getRows());
+    assertEquals(m2.getColumns(), c.getColumns());
+    for (int i = 0; i < m1.getRows(); i++) {
+      for (int j = 0; j < m2.getColumns(); j++) {
+        double sum = 0;
+        for (int k = 0; k < m1.getColumns(); k++) {
+          sum += m1.get(i, k) * m2.get(k, j);
+        }
+        assertTrue(Math.abs(sum - c.get(i, j)) < 0.000001);
+      }
+    }
+  }
 }
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2007 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hama.util;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class TestTournamentTree extends TestCase {
+
+  /**
+   * An empty tree has no maximum.
+   */
+  public void testEmpty() {
+    TournamentTree tree = new TournamentTree(0);
+    assertEquals(0, tree.size());
+    assertEquals(-1, tree.max());
+  }
+
+  /**
+   * The maximum is taken by absolute value, and ties go to the lower index.
+   */
+  public void testMax() {
+    TournamentTree tree = new TournamentTree(5);
+    assertEquals(5, tree.size());
+    assertEquals(0, tree.max());
+
+    tree.set(2, 7, -3.0);
+    tree.set(4, 1, 2.0);
+    assertEquals(2, tree.max());
+    assertEquals(7, tree.getColumn(2));
+    assertEquals(-3.0, tree.getValue(2));
+
+    tree.set(3, 6, 3.0);
+    assertEquals(2, tree.max());
+    tree.set(2, 7, 1.0);
+    assertEquals(3, tree.max());
+    tree.set(3, 6, 0.0);
+    assertEquals(4, tree.max());
+  }
+
+  /**
+   * The maximum follows random updates, against a linear scan.
+   */
+  public void testRandomUpdates() {
+    Random r = new Random(17);
+    int size = 37;
+    double[] values = new double[size];
+    TournamentTree tree = new TournamentTree(size);
+    for (int n = 0; n < 1000; n++) {
+      int i = r.nextInt(size);
+      values[i] = r.nextGaussian();
+      tree.set(i, i + 1, values[i]);
+
+      int max = 0;
+      for (int k = 1; k < size; k++) {
+        if (Math.abs(values[k]) > Math.abs(values[max]))
+          max = k;
+      }
+      assertEquals(max, tree.max());
+      assertEquals(max + 1, tree.getColumn(tree.max()));
+    }
+  }
+}